@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request and resident memory of the Retail Management System.
+#
+#   scripts/startup-benchmark.sh [runs] [mode...]
+#
+# Modes:
+#   jar     target/retail-management-system-1.0.0.jar built by a plain `mvn package`
+#   exec    target/retail-management-system-1.0.0-exec.jar from `mvn -Pfast-startup package`
+#           (fat jar, JIT only; baseline for the two modes below)
+#   aot     thin jar + target/lib from `mvn -Pfast-startup package`, AOT context, no CDS
+#   cds     as aot, plus the class data sharing archive target/app-cds.jsa
+#   native  target/retail-management-system from `mvn -Pnative native:compile`
+#
+# Time is measured from process launch until GET /api/v1/retails returns 200. RSS is read
+# from /proc/<pid>/status right after that first response.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+shift || true
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+    MODES=(exec aot cds)
+fi
+
+PORT="${PORT:-8099}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR=target/retail-management-system-1.0.0.jar
+URL="http://localhost:${PORT}/api/v1/retails"
+
+command_for() {
+    case "$1" in
+        jar|exec)
+            local jar="$JAR"
+            [ "$1" = exec ] && jar=target/retail-management-system-1.0.0-exec.jar
+            echo "$JAVA -jar $jar --server.port=$PORT" ;;
+        aot)
+            echo "$JAVA -Dspring.aot.enabled=true -jar $JAR --server.port=$PORT" ;;
+        cds)
+            echo "$JAVA -XX:SharedArchiveFile=target/app-cds.jsa -Xlog:cds=off -Dspring.aot.enabled=true -jar $JAR --server.port=$PORT" ;;
+        native)
+            echo "target/retail-management-system --server.port=$PORT" ;;
+        *)
+            echo "Unknown mode: $1" >&2
+            exit 1 ;;
+    esac
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+printf "%-8s %6s %14s %10s\n" mode run first_req_ms rss_mb
+for mode in "${MODES[@]}"; do
+    cmd="$(command_for "$mode")"
+    total_ms=0
+    total_rss=0
+    for run in $(seq 1 "$RUNS"); do
+        start="$(now_ms)"
+        $cmd > /dev/null 2>&1 &
+        pid=$!
+        until curl -sf -o /dev/null "$URL"; do
+            if ! kill -0 "$pid" 2> /dev/null; then
+                echo "$mode exited before serving a request" >&2
+                exit 1
+            fi
+            sleep 0.02
+        done
+        elapsed=$(( $(now_ms) - start ))
+        rss_kb="$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")"
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+        printf "%-8s %6d %14d %10d\n" "$mode" "$run" "$elapsed" $(( rss_kb / 1024 ))
+        total_ms=$(( total_ms + elapsed ))
+        total_rss=$(( total_rss + rss_kb ))
+    done
+    printf "%-8s %6s %14d %10d\n" "$mode" avg $(( total_ms / RUNS )) $(( total_rss / RUNS / 1024 ))
+done
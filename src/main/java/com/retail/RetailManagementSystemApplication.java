@@ -1,9 +1,12 @@
 package com.retail;
 
+import com.retail.aot.RetailRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(RetailRuntimeHints.class)
 public class RetailManagementSystemApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,209 @@
+package com.retail.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers stock alerts: keeps the most recent ones for polling, streams them to server-sent event
+ * subscribers, and POSTs them as JSON to {@code retail.alerts.webhook-url} if one is configured.
+ *
+ * Subscribers and the webhook are each delivered to on their own background thread, in the order
+ * alerts were raised, so a slow webhook never holds up subscribers and neither holds up the change
+ * that raised the alert. Each thread queues at most {@code delivery-queue-capacity} alerts; alerts
+ * beyond that are dropped for that target and counted in {@code retail.alerts.dropped}. Webhook
+ * calls are made once, without retries; failures are logged and counted in
+ * {@code retail.alerts.webhook.failures}.
+ */
+@Component
+public class AlertFeed implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertFeed.class);
+
+    private final ObjectMapper objectMapper;
+    private final int recentCapacity;
+    private final long sseTimeoutMillis;
+    private final URI webhookUri;
+    private final HttpClient httpClient;
+    private final Counter webhookFailures;
+
+    private final Deque<StockAlert> recent = new ArrayDeque<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService subscriberDelivery;
+    private final ExecutorService webhookDelivery;
+
+    @Autowired
+    public AlertFeed(ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry,
+                     @Value("${retail.alerts.recent-capacity:1000}") int recentCapacity,
+                     @Value("${retail.alerts.sse-timeout:30m}") Duration sseTimeout,
+                     @Value("${retail.alerts.webhook-url:}") String webhookUrl,
+                     @Value("${retail.alerts.delivery-queue-capacity:1000}") int deliveryQueueCapacity) {
+        if (deliveryQueueCapacity < 1) {
+            throw new IllegalArgumentException("Alert delivery queue capacity must be >= 1");
+        }
+        this.objectMapper = objectMapper;
+        this.recentCapacity = recentCapacity;
+        this.sseTimeoutMillis = sseTimeout.toMillis();
+        this.webhookUri = webhookUrl.isBlank() ? null : URI.create(webhookUrl);
+        this.httpClient = webhookUri == null ? null : HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.webhookFailures = Counter.builder("retail.alerts.webhook.failures")
+                .description("Stock alerts that could not be delivered to the webhook")
+                .register(meterRegistry);
+        this.subscriberDelivery = deliveryThread("retail-alert-delivery", deliveryQueueCapacity,
+                dropped(meterRegistry, "subscribers"));
+        this.webhookDelivery = webhookUri == null ? null : deliveryThread("retail-alert-webhook",
+                deliveryQueueCapacity, dropped(meterRegistry, "webhook"));
+    }
+
+    private static Counter dropped(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("retail.alerts.dropped")
+                .description("Stock alerts not delivered because the delivery queue was full")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create a single delivery thread with a bounded queue; tasks that do not fit are counted and dropped
+     */
+    private static ExecutorService deliveryThread(String name, int queueCapacity, Counter dropped) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> dropped.increment());
+    }
+
+    /**
+     * Deliver an alert
+     * @param alert the alert
+     * @param local true if the change that raised it was made on this node; only those go to the
+     *              webhook, so a cluster calls it once per alert
+     */
+    public void publish(StockAlert alert, boolean local) {
+        synchronized (recent) {
+            if (recent.size() == recentCapacity) {
+                recent.removeFirst();
+            }
+            recent.addLast(alert);
+        }
+        if (!subscribers.isEmpty()) {
+            subscriberDelivery.execute(() -> sendToSubscribers(alert));
+        }
+        if (local && webhookDelivery != null) {
+            webhookDelivery.execute(() -> callWebhook(alert));
+        }
+    }
+
+    /**
+     * @param limit the maximum number of alerts to return; at most the retained alerts are returned
+     * @return the most recent alerts, newest first
+     */
+    public List<StockAlert> recent(int limit) {
+        List<StockAlert> alerts;
+        synchronized (recent) {
+            alerts = new ArrayList<>(Math.min(limit, recent.size()));
+            var newestFirst = recent.descendingIterator();
+            while (newestFirst.hasNext() && alerts.size() < limit) {
+                alerts.add(newestFirst.next());
+            }
+        }
+        return alerts;
+    }
+
+    /**
+     * Open a server-sent event stream of alerts raised from now on
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(sseTimeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(ex -> subscribers.remove(emitter));
+        subscribers.add(emitter);
+        return emitter;
+    }
+
+    private void sendToSubscribers(StockAlert alert) {
+        for (SseEmitter subscriber : subscribers) {
+            try {
+                subscriber.send(SseEmitter.event()
+                        .id(Long.toString(alert.getAlertId()))
+                        .name(alert.getType().name())
+                        .data(alert));
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private void callWebhook(StockAlert alert) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(webhookUri)
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(alert)))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                webhookFailures.increment();
+                log.warn("Alert webhook answered {} for alert {}", response.statusCode(), alert.getAlertId());
+            }
+        } catch (JsonProcessingException ex) {
+            webhookFailures.increment();
+            log.error("Could not serialize alert {}", alert.getAlertId(), ex);
+        } catch (IOException ex) {
+            webhookFailures.increment();
+            log.warn("Alert webhook call failed for alert {}: {}", alert.getAlertId(), ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        subscriberDelivery.shutdown();
+        if (webhookDelivery != null) {
+            webhookDelivery.shutdown();
+        }
+        try {
+            subscriberDelivery.awaitTermination(5, TimeUnit.SECONDS);
+            if (webhookDelivery != null) {
+                webhookDelivery.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        subscribers.forEach(SseEmitter::complete);
+    }
+}
@@ -0,0 +1,416 @@
+package com.retail.alert;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailResyncEvent;
+import com.retail.event.RetailState;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.index.CategoryIndex;
+import com.retail.index.LongIntHashMap;
+import com.retail.repository.RetailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Low-stock alerting ({@code retail.alerts.enabled}). Each committed quantity change is checked
+ * against the item's effective threshold (its product rule, else its category's rule, else
+ * {@code retail.alerts.default-threshold}) using only the before and after states carried by the
+ * {@link RetailChangeEvent}, so no query runs per change. Crossing the threshold raises an alert on
+ * the {@link AlertFeed}.
+ *
+ * The current quantity of every item is kept in a primitive map so that adding or removing a rule
+ * can re-evaluate the items it covers without reading the database, and items within
+ * {@code retail.alerts.near-margin} units of their threshold are kept in a {@link NearThresholdIndex}.
+ * Negative stock is tracked as 0, which is at or below every threshold. A rebuild reads the
+ * repository without holding the lock that changes are applied under; changes applied meanwhile are
+ * replayed onto the rebuilt state before it replaces the current one.
+ *
+ * Rules are held in memory only and must be re-created after a restart.
+ */
+@Component
+public class LowStockAlerts {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlerts.class);
+
+    private static final int NO_THRESHOLD = -1;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final RetailRepository retailRepository;
+    private final CategoryIndex categoryIndex;
+    private final AlertFeed alertFeed;
+    private final boolean enabled;
+    private final int defaultThreshold;
+    private final int nearMargin;
+
+    private final Map<Long, ThresholdRule> productRules = new HashMap<>();
+    private final Map<String, ThresholdRule> categoryRules = new HashMap<>();
+    private final AtomicLong ruleIds = new AtomicLong();
+    private final AtomicLong alertIds = new AtomicLong();
+    private final Object rebuildLock = new Object();
+    private Stock stock;
+    private List<Consumer<Stock>> changesDuringRebuild;
+    private volatile boolean ready;
+
+    @Autowired
+    public LowStockAlerts(RetailRepository retailRepository,
+                          CategoryIndex categoryIndex,
+                          AlertFeed alertFeed,
+                          @Value("${retail.alerts.enabled:true}") boolean enabled,
+                          @Value("${retail.alerts.default-threshold:-1}") int defaultThreshold,
+                          @Value("${retail.alerts.near-margin:10}") int nearMargin) {
+        if (nearMargin < 0) {
+            throw new IllegalArgumentException("Alert near-margin must be >= 0");
+        }
+        this.retailRepository = retailRepository;
+        this.categoryIndex = categoryIndex;
+        this.alertFeed = alertFeed;
+        this.enabled = enabled;
+        this.defaultThreshold = Math.max(defaultThreshold, NO_THRESHOLD);
+        this.nearMargin = nearMargin;
+        this.stock = new Stock(nearMargin);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload the quantity of every item from the repository in ID order, one batch at a time
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            Map<Long, ThresholdRule> productSnapshot;
+            Map<String, ThresholdRule> categorySnapshot;
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+                productSnapshot = new HashMap<>(productRules);
+                categorySnapshot = new HashMap<>(categoryRules);
+            }
+            Stock fresh;
+            try {
+                fresh = load(productSnapshot, categorySnapshot);
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+                throw ex;
+            }
+            synchronized (this) {
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                changesDuringRebuild = null;
+                stock = fresh;
+                ready = true;
+            }
+            log.info("Low-stock alerting tracking {} items, {} near their threshold",
+                    fresh.quantities.size(), fresh.near.size());
+        }
+    }
+
+    /**
+     * Read every item with the rules as they were when the rebuild started; rule changes made
+     * since are replayed onto the result
+     */
+    private Stock load(Map<Long, ThresholdRule> productSnapshot, Map<String, ThresholdRule> categorySnapshot) {
+        Stock fresh = new Stock(nearMargin);
+        long lastId = 0L;
+        List<Retail> batch;
+        do {
+            batch = retailRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Retail retail : batch) {
+                String category = CategoryIndex.normalize(retail.getCategory());
+                fresh.track(retail.getId(), category, quantityOf(retail.getQuantity()),
+                        thresholdFor(productSnapshot, categorySnapshot, retail.getId(), category));
+                lastId = retail.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        return fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRetailChange(RetailChangeEvent event) {
+        if (enabled) {
+            apply(event);
+        }
+    }
+
+    @EventListener
+    public void onResync(RetailResyncEvent event) {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Apply a committed change and raise an alert if it crossed the item's threshold
+     * @param event the change
+     */
+    public synchronized void apply(RetailChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> {
+                RetailState before = event.getBefore();
+                RetailState after = event.getAfter();
+                long id = after.getId();
+                String category = CategoryIndex.normalize(after.getCategory());
+                int quantity = quantityOf(after.getQuantity());
+                boolean wasLow = false;
+                int previousQuantity = Integer.MAX_VALUE;
+                if (before != null) {
+                    previousQuantity = quantityOf(before.getQuantity());
+                    int previousThreshold = thresholdFor(id, CategoryIndex.normalize(before.getCategory()));
+                    wasLow = previousThreshold != NO_THRESHOLD && previousQuantity <= previousThreshold;
+                }
+                int threshold = update(stock, event);
+                boolean low = threshold != NO_THRESHOLD && quantity <= threshold;
+                StockAlert.Type type = transition(wasLow, previousQuantity, low, quantity);
+                if (type != null) {
+                    raise(type, id, after.getProductName(), category, after.getQuantity(), threshold, !event.isRemote());
+                }
+            }
+            case DELETED -> {
+                update(stock, event);
+                productRules.remove(event.getRetailId());
+            }
+            case CLEARED -> {
+                update(stock, event);
+                productRules.clear();
+            }
+        }
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(target -> update(target, event));
+        }
+    }
+
+    /**
+     * Apply a change to the tracked quantities, without raising alerts
+     * @return the item's effective threshold, or {@link #NO_THRESHOLD} if the item is gone
+     */
+    private int update(Stock target, RetailChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> {
+                RetailState after = event.getAfter();
+                String category = CategoryIndex.normalize(after.getCategory());
+                int threshold = thresholdFor(after.getId(), category);
+                target.track(after.getId(), category, quantityOf(after.getQuantity()), threshold);
+                return threshold;
+            }
+            case DELETED -> {
+                target.quantities.remove(event.getRetailId());
+                target.near.remove(event.getRetailId());
+            }
+            case CLEARED -> {
+                target.quantities.clear();
+                target.near.clear();
+            }
+        }
+        return NO_THRESHOLD;
+    }
+
+    /**
+     * Add a threshold rule, replacing any rule for the same product or category. Items the rule
+     * puts at or below their threshold raise an alert.
+     * @param rule the rule, with exactly one of retailId and category set
+     * @return the stored rule with its ID
+     */
+    public synchronized ThresholdRule addRule(ThresholdRule rule) {
+        boolean hasCategory = rule.getCategory() != null && !rule.getCategory().isBlank();
+        if ((rule.getRetailId() == null) == !hasCategory) {
+            throw new IllegalArgumentException("A threshold rule applies to either a retailId or a category");
+        }
+        if (rule.getRetailId() != null && stock.quantities.get(rule.getRetailId()) == LongIntHashMap.MISSING) {
+            throw new ResourceNotFoundException("Retail", "id", rule.getRetailId());
+        }
+        ThresholdRule stored = new ThresholdRule();
+        stored.setRuleId(ruleIds.incrementAndGet());
+        stored.setRetailId(rule.getRetailId());
+        stored.setCategory(hasCategory ? CategoryIndex.normalize(rule.getCategory()) : null);
+        stored.setThreshold(rule.getThreshold());
+
+        long[] affected = affectedIds(stored);
+        int[] previousThresholds = thresholdsOf(affected);
+        if (stored.getRetailId() != null) {
+            productRules.put(stored.getRetailId(), stored);
+        } else {
+            categoryRules.put(stored.getCategory(), stored);
+        }
+        reevaluate(affected, previousThresholds);
+        return stored;
+    }
+
+    /**
+     * Remove a threshold rule; the items it covered fall back to the next applicable rule
+     * @param ruleId the rule ID
+     * @throws ResourceNotFoundException if there is no such rule
+     */
+    public synchronized void removeRule(Long ruleId) {
+        ThresholdRule rule = findRule(ruleId);
+        long[] affected = affectedIds(rule);
+        int[] previousThresholds = thresholdsOf(affected);
+        if (rule.getRetailId() != null) {
+            productRules.remove(rule.getRetailId());
+        } else {
+            categoryRules.remove(rule.getCategory());
+        }
+        reevaluate(affected, previousThresholds);
+    }
+
+    /**
+     * @return every threshold rule, product rules first
+     */
+    public synchronized List<ThresholdRule> getRules() {
+        List<ThresholdRule> rules = new ArrayList<>(productRules.values());
+        rules.addAll(categoryRules.values());
+        return rules;
+    }
+
+    /**
+     * Get the items at, below or near their threshold
+     * @param category the category (case-insensitive), or null for every category
+     * @param lowOnly true for only the items at or below their threshold
+     * @param limit the maximum number of items to return
+     * @return the items, least headroom first
+     */
+    public synchronized List<StockLevel> findStockLevels(String category, boolean lowOnly, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        return stock.near.find(category == null ? null : CategoryIndex.normalize(category), lowOnly, limit);
+    }
+
+    private ThresholdRule findRule(Long ruleId) {
+        for (ThresholdRule rule : getRules()) {
+            if (rule.getRuleId().equals(ruleId)) {
+                return rule;
+            }
+        }
+        throw new ResourceNotFoundException("ThresholdRule", "ruleId", ruleId);
+    }
+
+    private long[] affectedIds(ThresholdRule rule) {
+        if (rule.getRetailId() != null) {
+            return new long[]{rule.getRetailId()};
+        }
+        return categoryIndex.idsFor(rule.getCategory()).toArray();
+    }
+
+    private int[] thresholdsOf(long[] ids) {
+        int[] thresholds = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            thresholds[i] = thresholdFor(ids[i], categoryIndex.categoryOf(ids[i]));
+        }
+        return thresholds;
+    }
+
+    private void reevaluate(long[] ids, int[] previousThresholds) {
+        for (int i = 0; i < ids.length; i++) {
+            int quantity = stock.quantities.get(ids[i]);
+            if (quantity == LongIntHashMap.MISSING) {
+                continue;
+            }
+            String category = categoryIndex.categoryOf(ids[i]);
+            int threshold = thresholdFor(ids[i], category);
+            stock.track(ids[i], category, quantity, threshold);
+            boolean wasLow = previousThresholds[i] != NO_THRESHOLD && quantity <= previousThresholds[i];
+            boolean low = threshold != NO_THRESHOLD && quantity <= threshold;
+            if (low && !wasLow) {
+                raise(quantity == 0 ? StockAlert.Type.OUT_OF_STOCK : StockAlert.Type.LOW_STOCK,
+                        ids[i], null, category, quantity, threshold, true);
+            }
+        }
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(target -> retrack(target, ids));
+        }
+    }
+
+    /**
+     * Place items already tracked in the near-threshold index again, after their rule changed
+     */
+    private void retrack(Stock target, long[] ids) {
+        for (long id : ids) {
+            int quantity = target.quantities.get(id);
+            if (quantity != LongIntHashMap.MISSING) {
+                String category = categoryIndex.categoryOf(id);
+                target.track(id, category, quantity, thresholdFor(id, category));
+            }
+        }
+    }
+
+    private int thresholdFor(long id, String category) {
+        return thresholdFor(productRules, categoryRules, id, category);
+    }
+
+    private int thresholdFor(Map<Long, ThresholdRule> productRules, Map<String, ThresholdRule> categoryRules,
+                             long id, String category) {
+        ThresholdRule rule = productRules.get(id);
+        if (rule == null && category != null) {
+            rule = categoryRules.get(category);
+        }
+        return rule == null ? defaultThreshold : rule.getThreshold();
+    }
+
+    static StockAlert.Type transition(boolean wasLow, int previousQuantity, boolean low, int quantity) {
+        if (low && (!wasLow || (previousQuantity > 0 && quantity == 0))) {
+            return quantity == 0 ? StockAlert.Type.OUT_OF_STOCK : StockAlert.Type.LOW_STOCK;
+        }
+        if (wasLow && !low) {
+            return StockAlert.Type.RESTOCKED;
+        }
+        return null;
+    }
+
+    private void raise(StockAlert.Type type, long id, String productName, String category,
+                       int quantity, int threshold, boolean local) {
+        alertFeed.publish(new StockAlert(alertIds.incrementAndGet(), type, id, productName, category,
+                quantity, threshold, Instant.now()), local);
+    }
+
+    private static int quantityOf(Integer quantity) {
+        return quantity == null ? 0 : Math.max(quantity, 0);
+    }
+
+    /**
+     * The current quantity of every item and the items near their threshold. Not thread-safe.
+     */
+    private static final class Stock {
+
+        final LongIntHashMap quantities = new LongIntHashMap();
+        final NearThresholdIndex near;
+
+        Stock(int nearMargin) {
+            this.near = new NearThresholdIndex(nearMargin);
+        }
+
+        /**
+         * Record an item's quantity and place it in the near-threshold index
+         */
+        void track(long id, String category, int quantity, int threshold) {
+            quantities.put(id, quantity);
+            if (threshold == NO_THRESHOLD) {
+                near.remove(id);
+            } else {
+                near.update(new StockLevel(id, category, quantity, threshold));
+            }
+        }
+    }
+}
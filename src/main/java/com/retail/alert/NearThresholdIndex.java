@@ -0,0 +1,73 @@
+package com.retail.alert;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The retail items whose stock is at, below or within a margin of their threshold, ordered by
+ * headroom so the most urgent come first. Only items near their threshold are held, so the
+ * structure stays small however large the catalog is. Not thread-safe.
+ */
+final class NearThresholdIndex {
+
+    private static final Comparator<StockLevel> BY_HEADROOM =
+            Comparator.comparingLong(StockLevel::getHeadroom).thenComparingLong(StockLevel::getRetailId);
+
+    private final int margin;
+    private final TreeSet<StockLevel> byHeadroom = new TreeSet<>(BY_HEADROOM);
+    private final Map<Long, StockLevel> byId = new HashMap<>();
+
+    NearThresholdIndex(int margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * Track an item's stock level, or stop tracking it if it is not near its threshold
+     */
+    void update(StockLevel level) {
+        remove(level.getRetailId());
+        if (level.getHeadroom() <= margin) {
+            byHeadroom.add(level);
+            byId.put(level.getRetailId(), level);
+        }
+    }
+
+    void remove(long retailId) {
+        StockLevel previous = byId.remove(retailId);
+        if (previous != null) {
+            byHeadroom.remove(previous);
+        }
+    }
+
+    void clear() {
+        byHeadroom.clear();
+        byId.clear();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * @param category a normalized category, or null for every category
+     * @param lowOnly true for only the items at or below their threshold
+     * @param limit the maximum number of items to return
+     * @return the matching items, least headroom first
+     */
+    List<StockLevel> find(String category, boolean lowOnly, int limit) {
+        List<StockLevel> levels = new ArrayList<>(Math.min(limit, byId.size()));
+        for (StockLevel level : byHeadroom) {
+            if (levels.size() == limit || (lowOnly && !level.isLow())) {
+                break;
+            }
+            if (category == null || category.equals(level.getCategory())) {
+                levels.add(level);
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,71 @@
+package com.retail.alert;
+
+import java.time.Instant;
+
+/**
+ * A retail item crossing its stock threshold
+ */
+public class StockAlert {
+
+    public enum Type {
+        LOW_STOCK,
+        OUT_OF_STOCK,
+        RESTOCKED
+    }
+
+    private final long alertId;
+    private final Type type;
+    private final long retailId;
+    private final String productName;
+    private final String category;
+    private final int quantity;
+    private final int threshold;
+    private final Instant raisedAt;
+
+    public StockAlert(long alertId, Type type, long retailId, String productName, String category,
+                      int quantity, int threshold, Instant raisedAt) {
+        this.alertId = alertId;
+        this.type = type;
+        this.retailId = retailId;
+        this.productName = productName;
+        this.category = category;
+        this.quantity = quantity;
+        this.threshold = threshold;
+        this.raisedAt = raisedAt;
+    }
+
+    public long getAlertId() {
+        return alertId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getRetailId() {
+        return retailId;
+    }
+
+    /**
+     * @return the product name, or null for alerts raised by a rule change rather than a stock change
+     */
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public Instant getRaisedAt() {
+        return raisedAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.retail.alert;
+
+/**
+ * Stock of a retail item relative to its effective threshold
+ */
+public class StockLevel {
+
+    private final long retailId;
+    private final String category;
+    private final int quantity;
+    private final int threshold;
+
+    public StockLevel(long retailId, String category, int quantity, int threshold) {
+        this.retailId = retailId;
+        this.category = category;
+        this.quantity = quantity;
+        this.threshold = threshold;
+    }
+
+    public long getRetailId() {
+        return retailId;
+    }
+
+    /**
+     * @return the normalized category
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return how many units the item can lose before it is low on stock; zero or less means it already is
+     */
+    public long getHeadroom() {
+        return (long) quantity - threshold;
+    }
+
+    public boolean isLow() {
+        return quantity <= threshold;
+    }
+}
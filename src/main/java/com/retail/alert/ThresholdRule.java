@@ -0,0 +1,60 @@
+package com.retail.alert;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Reorder level for one retail item or for every item in a category. An item is low on stock
+ * when its quantity is at or below the threshold; a product rule takes precedence over the rule
+ * of its category.
+ */
+public class ThresholdRule {
+
+    private Long ruleId;
+
+    private Long retailId;
+
+    private String category;
+
+    @NotNull(message = "Threshold is required")
+    @Min(value = 0, message = "Threshold must be >= 0")
+    private Integer threshold;
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(Long ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    /**
+     * @return the retail item the rule applies to, or null for a category rule
+     */
+    public Long getRetailId() {
+        return retailId;
+    }
+
+    public void setRetailId(Long retailId) {
+        this.retailId = retailId;
+    }
+
+    /**
+     * @return the category the rule applies to, or null for a product rule
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+}
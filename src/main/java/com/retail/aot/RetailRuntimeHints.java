@@ -0,0 +1,48 @@
+package com.retail.aot;
+
+import com.retail.cache.InvalidationMessage;
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import com.retail.exception.GlobalExceptionHandler;
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.repository.RetailCategoryEntry;
+import com.retail.repository.RetailRepository;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for AOT-processed and GraalVM native builds. Spring's AOT engine infers most of
+ * what the application context needs; these cover types reached only through Jackson, Hibernate
+ * or exception handling at runtime.
+ */
+public class RetailRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        // Serialized by Jackson in REST responses and on the invalidation bus
+        bindings.registerReflectionHints(hints.reflection(),
+                Retail.class,
+                GlobalExceptionHandler.ErrorResponse.class,
+                RetailState.class,
+                RetailChangeEvent.class,
+                InvalidationMessage.class);
+
+        // Hibernate instantiates the entity and accesses its fields reflectively
+        hints.reflection().registerType(Retail.class, MemberCategory.values());
+
+        hints.reflection().registerType(ResourceNotFoundException.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(ResourceAlreadyExistsException.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Query derivation and projections introspect the repository interfaces
+        hints.reflection().registerType(RetailRepository.class, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+        hints.reflection().registerType(RetailCategoryEntry.class,
+                MemberCategory.INTROSPECT_PUBLIC_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
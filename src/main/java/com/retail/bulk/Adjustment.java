@@ -0,0 +1,80 @@
+package com.retail.bulk;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A relative change to a price or quantity: a percentage ({@code PERCENT}, e.g. -15 for 15% off)
+ * or a fixed amount added to the current value ({@code AMOUNT}, negative to subtract).
+ *
+ * All arithmetic is exact {@link BigDecimal} arithmetic; the job's rounding mode is applied once,
+ * to the final value.
+ */
+public class Adjustment {
+
+    public enum Mode {
+        PERCENT, AMOUNT
+    }
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @NotNull(message = "Adjustment mode is required")
+    private Mode mode;
+
+    @NotNull(message = "Adjustment value is required")
+    private BigDecimal value;
+
+    public Adjustment() {
+    }
+
+    public Adjustment(Mode mode, BigDecimal value) {
+        this.mode = mode;
+        this.value = value;
+    }
+
+    /**
+     * Apply the adjustment to a price
+     * @param price the current price
+     * @param roundingMode how to round the result to cents
+     * @return the new price with scale 2
+     */
+    public BigDecimal applyToPrice(BigDecimal price, RoundingMode roundingMode) {
+        return apply(price).setScale(2, roundingMode);
+    }
+
+    /**
+     * Apply the adjustment to a quantity
+     * @param quantity the current quantity
+     * @param roundingMode how to round the result to a whole number
+     * @return the new quantity
+     * @throws ArithmeticException if the result does not fit in an int
+     */
+    public int applyToQuantity(int quantity, RoundingMode roundingMode) {
+        return apply(BigDecimal.valueOf(quantity)).setScale(0, roundingMode).intValueExact();
+    }
+
+    private BigDecimal apply(BigDecimal current) {
+        return switch (mode) {
+            case PERCENT -> current.add(current.multiply(value).divide(HUNDRED));
+            case AMOUNT -> current.add(value);
+        };
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public void setValue(BigDecimal value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,145 @@
+package com.retail.bulk;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a bulk adjustment job. The ID range is processed in chunks, each in its own
+ * transaction, so a cancelled or failed job keeps the chunks that already committed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkAdjustmentJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String jobId;
+    private final BulkAdjustmentRequest request;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+    private final AtomicLong updatedItems = new AtomicLong();
+    private final AtomicLong skippedItems = new AtomicLong();
+    private volatile int totalChunks;
+    private volatile boolean cancelRequested;
+    private volatile String error;
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime completedAt;
+    private volatile long completedNanos;
+
+    BulkAdjustmentJob(String jobId, BulkAdjustmentRequest request) {
+        this.jobId = jobId;
+        this.request = request;
+    }
+
+    void start(int totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    void chunkCompleted(int updated, int skipped) {
+        updatedItems.addAndGet(updated);
+        skippedItems.addAndGet(skipped);
+        completedChunks.incrementAndGet();
+    }
+
+    void chunkFailed(String message) {
+        if (error == null) {
+            error = message;
+        }
+        failedChunks.incrementAndGet();
+        completedChunks.incrementAndGet();
+    }
+
+    void finish() {
+        Status outcome;
+        if (failedChunks.get() > 0) {
+            outcome = Status.FAILED;
+        } else if (cancelRequested && completedChunks.get() < totalChunks) {
+            outcome = Status.CANCELLED;
+        } else {
+            outcome = Status.COMPLETED;
+        }
+        completedAt = LocalDateTime.now();
+        completedNanos = System.nanoTime();
+        status = outcome;
+    }
+
+    /**
+     * Ask the job to stop; chunks already running finish, chunks not yet started are skipped
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    @JsonIgnore
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return status != Status.RUNNING;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public BulkAdjustmentRequest getRequest() {
+        return request;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    public int getFailedChunks() {
+        return failedChunks.get();
+    }
+
+    public long getUpdatedItems() {
+        return updatedItems.get();
+    }
+
+    public long getSkippedItems() {
+        return skippedItems.get();
+    }
+
+    /**
+     * @return the share of chunks processed, from 0 to 100
+     */
+    public double getProgressPercent() {
+        int total = totalChunks;
+        return total == 0 ? (isDone() ? 100.0 : 0.0) : 100.0 * completedChunks.get() / total;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    long getCompletedNanos() {
+        return completedNanos;
+    }
+}
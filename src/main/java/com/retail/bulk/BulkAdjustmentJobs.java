@@ -0,0 +1,232 @@
+package com.retail.bulk;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import com.retail.repository.RetailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs bulk price and quantity adjustments server-side instead of one PUT per product.
+ *
+ * The ID range of the table is cut into chunks of {@code retail.bulk.chunk-size} IDs and processed
+ * by fork-join workers, each chunk in its own transaction: the chunk's rows are read with a write
+ * lock, adjusted and flushed, and a change event is published per item, so caches, the category
+ * index and the snapshot stay current exactly as for single-item updates. Parallelism is bounded by
+ * {@code retail.bulk.parallelism}, which should stay well below the connection pool size.
+ */
+@Component
+public class BulkAdjustmentJobs implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkAdjustmentJobs.class);
+
+    // Largest value of a NUMERIC(10, 2) price column
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final RetailRepository retailRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final long retentionNanos;
+    private final ForkJoinPool pool;
+
+    private final Map<String, BulkAdjustmentJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BulkAdjustmentJobs(RetailRepository retailRepository,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${retail.bulk.parallelism:4}") int parallelism,
+                              @Value("${retail.bulk.chunk-size:500}") int chunkSize,
+                              @Value("${retail.bulk.retention:1h}") Duration retention) {
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk parallelism and chunk size must be >= 1");
+        }
+        this.retailRepository = retailRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.retentionNanos = retention.toNanos();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Start a bulk adjustment job
+     * @param request what to adjust
+     * @return the running job
+     * @throws IllegalArgumentException if the request adjusts nothing or has a fractional quantity amount
+     */
+    public BulkAdjustmentJob submit(BulkAdjustmentRequest request) {
+        if (request.getPrice() == null && request.getQuantity() == null) {
+            throw new IllegalArgumentException("A bulk adjustment needs a price or quantity adjustment");
+        }
+        if (request.getRoundingMode() == null) {
+            throw new IllegalArgumentException("Rounding mode is required");
+        }
+        Adjustment quantity = request.getQuantity();
+        if (quantity != null && quantity.getMode() == Adjustment.Mode.AMOUNT && quantity.getValue() != null
+                && quantity.getValue().stripTrailingZeros().scale() > 0) {
+            throw new IllegalArgumentException("A quantity amount must be a whole number");
+        }
+        purgeExpired();
+
+        BulkAdjustmentJob job = new BulkAdjustmentJob(UUID.randomUUID().toString(), request);
+        jobs.put(job.getJobId(), job);
+        pool.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * Get a bulk adjustment job by ID
+     * @param jobId the job ID
+     * @return the job, or empty if it is unknown or finished more than {@code retail.bulk.retention} ago
+     */
+    public Optional<BulkAdjustmentJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    void run(BulkAdjustmentJob job) {
+        try {
+            Long minId = retailRepository.findMinId();
+            Long maxId = retailRepository.findMaxId();
+            if (minId != null && maxId != null) {
+                long chunks = (maxId - minId) / chunkSize + 1;
+                if (chunks > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("ID range too large for chunk size " + chunkSize);
+                }
+                job.start((int) chunks);
+                new ChunkRange(job, minId, 0, (int) chunks).invoke();
+            }
+        } catch (RuntimeException ex) {
+            log.error("Bulk adjustment job {} failed", job.getJobId(), ex);
+            job.chunkFailed(ex.getMessage());
+        }
+        job.finish();
+        log.info("Bulk adjustment job {} {}: {} items updated, {} skipped", job.getJobId(),
+                job.getStatus(), job.getUpdatedItems(), job.getSkippedItems());
+    }
+
+    private void processChunk(BulkAdjustmentJob job, long fromId, long toId) {
+        if (job.isCancelRequested()) {
+            return;
+        }
+        BulkAdjustmentRequest request = job.getRequest();
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                List<Retail> retails = retailRepository.findInIdRangeForUpdate(fromId, toId, request.getCategory());
+                List<RetailState> befores = new ArrayList<>();
+                List<Retail> changed = new ArrayList<>();
+                int skipped = 0;
+                for (Retail retail : retails) {
+                    RetailState before = RetailState.of(retail);
+                    if (adjust(retail, request)) {
+                        befores.add(before);
+                        changed.add(retail);
+                    } else {
+                        skipped++;
+                    }
+                }
+                // Save explicitly for repositories without dirty checking, then flush so
+                // @PreUpdate has stamped updatedAt before the changes are captured
+                retailRepository.saveAll(changed);
+                retailRepository.flush();
+                for (int i = 0; i < changed.size(); i++) {
+                    eventPublisher.publishEvent(RetailChangeEvent.updated(befores.get(i), RetailState.of(changed.get(i))));
+                }
+                return new int[]{changed.size(), skipped};
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Bulk adjustment job {} failed on IDs {}-{}", job.getJobId(), fromId, toId, ex);
+            job.chunkFailed("IDs " + fromId + "-" + toId + ": " + ex.getMessage());
+            return;
+        }
+        job.chunkCompleted(counts[0], counts[1]);
+    }
+
+    /**
+     * Apply the adjustments to a managed entity
+     * @return false, leaving the entity untouched, if the result would be an invalid price or quantity
+     */
+    static boolean adjust(Retail retail, BulkAdjustmentRequest request) {
+        BigDecimal price = retail.getPrice();
+        int quantity = retail.getQuantity();
+        try {
+            if (request.getPrice() != null) {
+                price = request.getPrice().applyToPrice(price, request.getRoundingMode());
+            }
+            if (request.getQuantity() != null) {
+                quantity = request.getQuantity().applyToQuantity(quantity, request.getRoundingMode());
+            }
+        } catch (ArithmeticException ex) {
+            return false;
+        }
+        if (price.signum() <= 0 || price.compareTo(MAX_PRICE) > 0 || quantity < 0) {
+            return false;
+        }
+        retail.setPrice(price);
+        retail.setQuantity(quantity);
+        return true;
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.isDone() && now - job.getCompletedNanos() > retentionNanos);
+    }
+
+    @Override
+    public void close() {
+        jobs.values().forEach(BulkAdjustmentJob::cancel);
+        pool.shutdown();
+    }
+
+    /**
+     * Processes chunks [from, to) of a job, splitting until a single chunk remains
+     */
+    private final class ChunkRange extends RecursiveAction {
+
+        private final BulkAdjustmentJob job;
+        private final long minId;
+        private final int from;
+        private final int to;
+
+        ChunkRange(BulkAdjustmentJob job, long minId, int from, int to) {
+            this.job = job;
+            this.minId = minId;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (job.isCancelRequested()) {
+                return;
+            }
+            if (to - from == 1) {
+                long fromId = minId + (long) from * chunkSize;
+                processChunk(job, fromId, fromId + chunkSize - 1);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkRange(job, minId, from, middle), new ChunkRange(job, minId, middle, to));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.retail.bulk;
+
+import jakarta.validation.Valid;
+
+import java.math.RoundingMode;
+
+/**
+ * Body of a bulk adjustment job: which items to change and how. A null category selects every item.
+ */
+public class BulkAdjustmentRequest {
+
+    private String category;
+
+    @Valid
+    private Adjustment price;
+
+    @Valid
+    private Adjustment quantity;
+
+    private RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Adjustment getPrice() {
+        return price;
+    }
+
+    public void setPrice(Adjustment price) {
+        this.price = price;
+    }
+
+    public Adjustment getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Adjustment quantity) {
+        this.quantity = quantity;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    public void setRoundingMode(RoundingMode roundingMode) {
+        this.roundingMode = roundingMode;
+    }
+}
@@ -0,0 +1,78 @@
+package com.retail.cache;
+
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailResyncEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps per-node caches coherent across a cluster. Every change committed on this node is
+ * broadcast on the {@link InvalidationBus} with a per-node sequence number; every change received
+ * from a peer is republished locally as a {@link RetailChangeEvent} attributed to that peer, so the
+ * cache, category index and snapshot apply it exactly as they would a local change.
+ *
+ * A gap or reordering in a peer's sequence means changes were lost, so a {@link RetailResyncEvent}
+ * is published instead and holders of derived state reload from the database.
+ */
+@Component
+public class CacheCoherenceCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheCoherenceCoordinator.class);
+
+    private final InvalidationBus invalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final Map<String, Long> lastSequenceByNode = new ConcurrentHashMap<>();
+    private long sequence;
+
+    @Autowired
+    public CacheCoherenceCoordinator(InvalidationBus invalidationBus,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${retail.cache.node-id:}") String nodeId) {
+        this.invalidationBus = invalidationBus;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        invalidationBus.subscribe(this::receive);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRetailChange(RetailChangeEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        broadcast(event);
+    }
+
+    private synchronized void broadcast(RetailChangeEvent event) {
+        // Numbering and sending under one lock keeps the wire order equal to the sequence order
+        invalidationBus.publish(new InvalidationMessage(nodeId, ++sequence, event));
+    }
+
+    void receive(InvalidationMessage message) {
+        if (nodeId.equals(message.getNodeId())) {
+            return;
+        }
+        Long previous = lastSequenceByNode.put(message.getNodeId(), message.getSequence());
+        if (previous != null && message.getSequence() != previous + 1) {
+            log.warn("Invalidation messages from node {} out of sequence (expected {}, got {}); resynchronizing",
+                    message.getNodeId(), previous + 1, message.getSequence());
+            eventPublisher.publishEvent(new RetailResyncEvent(
+                    "Lost or reordered changes from node " + message.getNodeId()));
+            return;
+        }
+        eventPublisher.publishEvent(message.getChange().withOrigin(message.getNodeId()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.retail.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport that carries {@link InvalidationMessage}s between the nodes of a cluster.
+ * Delivery may be unreliable; receivers detect loss through per-node sequence numbers.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Send a message to every node, possibly including the sender
+     * @param message the message
+     */
+    void publish(InvalidationMessage message);
+
+    /**
+     * Register a receiver for messages from any node
+     * @param listener the receiver
+     */
+    void subscribe(Consumer<InvalidationMessage> listener);
+}
@@ -0,0 +1,46 @@
+package com.retail.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.retail.event.RetailChangeEvent;
+
+/**
+ * A committed change as broadcast to peer nodes. The sequence number increases by one for every
+ * message a node sends, so a receiver can tell when it has missed some.
+ */
+public class InvalidationMessage {
+
+    private final String nodeId;
+    private final long sequence;
+    private final RetailChangeEvent change;
+
+    @JsonCreator
+    public InvalidationMessage(@JsonProperty("nodeId") String nodeId,
+                               @JsonProperty("sequence") long sequence,
+                               @JsonProperty("change") RetailChangeEvent change) {
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.change = change;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public RetailChangeEvent getChange() {
+        return change;
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationMessage{" +
+                "nodeId='" + nodeId + '\'' +
+                ", sequence=" + sequence +
+                ", change=" + change +
+                '}';
+    }
+}
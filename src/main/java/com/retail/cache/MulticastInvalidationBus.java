@@ -0,0 +1,109 @@
+package com.retail.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts messages as JSON datagrams to a UDP multicast group. Datagrams can be lost or
+ * reordered; receivers rely on sequence numbers to notice and resynchronize.
+ */
+public class MulticastInvalidationBus implements InvalidationBus, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MulticastInvalidationBus.class);
+    private static final int MAX_DATAGRAM_BYTES = 65_507;
+
+    private final ObjectMapper objectMapper;
+    private final InetSocketAddress group;
+    private final MulticastSocket socket;
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    /**
+     * @param objectMapper the mapper used to encode messages
+     * @param groupAddress the multicast group, e.g. 239.255.42.99
+     * @param port the UDP port
+     * @param interfaceName the network interface to join on, or null for the system default
+     * @param timeToLive the multicast TTL; 1 keeps datagrams on the local network
+     */
+    public MulticastInvalidationBus(ObjectMapper objectMapper, String groupAddress, int port,
+                                    String interfaceName, int timeToLive) {
+        this.objectMapper = objectMapper;
+        try {
+            this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+            this.socket = new MulticastSocket(port);
+            socket.setTimeToLive(timeToLive);
+            NetworkInterface networkInterface = interfaceName == null || interfaceName.isBlank()
+                    ? null
+                    : NetworkInterface.getByName(interfaceName);
+            socket.joinGroup(group, networkInterface);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot join invalidation multicast group " + groupAddress + ":" + port, e);
+        }
+        this.receiver = new Thread(this::receiveLoop, "invalidation-bus-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(message);
+            if (payload.length > MAX_DATAGRAM_BYTES) {
+                log.warn("Invalidation message for {} is too large to send ({} bytes)",
+                        message.getChange().getRetailId(), payload.length);
+                return;
+            }
+            socket.send(new DatagramPacket(payload, payload.length, group));
+        } catch (IOException e) {
+            // Peers will see a sequence gap and resynchronize
+            log.warn("Failed to broadcast invalidation message {}: {}", message.getSequence(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        socket.close();
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_DATAGRAM_BYTES];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                InvalidationMessage message = objectMapper.readValue(
+                        packet.getData(), packet.getOffset(), packet.getLength(), InvalidationMessage.class);
+                for (Consumer<InvalidationMessage> listener : listeners) {
+                    listener.accept(message);
+                }
+            } catch (SocketException e) {
+                if (running) {
+                    log.error("Invalidation bus socket failed", e);
+                }
+                return;
+            } catch (Exception e) {
+                log.warn("Dropping undeliverable invalidation datagram: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.retail.cache;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailResyncEvent;
+import com.retail.event.RetailState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node cache of retail items by ID. Entries are immutable {@link RetailState}s and every hit
+ * returns a fresh, detached {@link Retail}, so callers cannot corrupt cached data.
+ *
+ * Entries are evicted on every committed change, local or replayed from a peer. To stop a slow
+ * database read from re-inserting a value that was invalidated while it was in flight, loaders
+ * take a token with {@link #loadToken()} before reading and the put is dropped if any
+ * invalidation happened since.
+ */
+@Component
+public class RetailCache {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RetailCache(@Value("${retail.cache.enabled:true}") boolean enabled,
+                       @Value("${retail.cache.max-size:100000}") int maxSize,
+                       @Value("${retail.cache.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @param id the retail item ID
+     * @return a detached copy of the cached item, or empty on a miss
+     */
+    public Optional<Retail> get(Long id) {
+        if (!enabled || id == null) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(id, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.state.toRetail());
+    }
+
+    /**
+     * @return a token to pass to {@link #put(Retail, long)} after reading from the database
+     */
+    public long loadToken() {
+        return invalidations.get();
+    }
+
+    /**
+     * Cache a retail item read from the database, unless an invalidation happened after the token was taken
+     * @param retail the retail item
+     * @param token the value of {@link #loadToken()} taken before the read
+     */
+    public void put(Retail retail, long token) {
+        if (!enabled || retail == null || retail.getId() == null) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evictSome();
+        }
+        entries.put(retail.getId(), new Entry(RetailState.of(retail), System.nanoTime()));
+        if (invalidations.get() != token) {
+            // Lost a race with a writer: the value may predate its change
+            entries.remove(retail.getId());
+        }
+    }
+
+    public void evict(Long id) {
+        invalidations.incrementAndGet();
+        entries.remove(id);
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRetailChange(RetailChangeEvent event) {
+        if (event.getType() == RetailChangeEvent.Type.CLEARED) {
+            clear();
+        } else {
+            evict(event.getRetailId());
+        }
+    }
+
+    @EventListener
+    public void onResync(RetailResyncEvent event) {
+        clear();
+    }
+
+    private void evictSome() {
+        // Drop roughly a tenth of the entries in iteration order; cheaper than tracking recency
+        int toEvict = Math.max(1, maxSize / 10);
+        Iterator<Long> ids = entries.keySet().iterator();
+        while (toEvict-- > 0 && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+        }
+    }
+
+    private static final class Entry {
+        private final RetailState state;
+        private final long loadedAt;
+
+        private Entry(RetailState state, long loadedAt) {
+            this.state = state;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.retail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.cache.InvalidationBus;
+import com.retail.cache.LocalInvalidationBus;
+import com.retail.cache.MulticastInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the transport for cache invalidation messages with {@code retail.cache.bus}:
+ * {@code local} (default, single node) or {@code multicast} (UDP multicast between nodes).
+ */
+@Configuration
+public class CacheCoherenceConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "retail.cache.bus", havingValue = "local", matchIfMissing = true)
+    public InvalidationBus localInvalidationBus() {
+        return new LocalInvalidationBus();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "retail.cache.bus", havingValue = "multicast")
+    public InvalidationBus multicastInvalidationBus(ObjectMapper objectMapper,
+                                                    @Value("${retail.cache.multicast.group:239.255.42.99}") String group,
+                                                    @Value("${retail.cache.multicast.port:45588}") int port,
+                                                    @Value("${retail.cache.multicast.interface:}") String networkInterface,
+                                                    @Value("${retail.cache.multicast.ttl:1}") int timeToLive) {
+        return new MulticastInvalidationBus(objectMapper, group, port, networkInterface, timeToLive);
+    }
+}
@@ -0,0 +1,38 @@
+package com.retail.config;
+
+import com.retail.grpc.RetailCatalogGrpcService;
+import com.retail.grpc.RetailGrpcServer;
+import com.retail.service.RetailService;
+import com.retail.snapshot.CatalogSnapshot;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serves the retail catalog over gRPC on {@code retail.grpc.port} when {@code retail.grpc.enabled=true}
+ */
+@Configuration
+@ConditionalOnProperty(name = "retail.grpc.enabled", havingValue = "true")
+public class GrpcConfig {
+
+    @Bean
+    public RetailCatalogGrpcService retailCatalogGrpcService(RetailService retailService,
+                                                             CatalogSnapshot catalogSnapshot,
+                                                             Validator validator,
+                                                             @Value("${retail.grpc.stream-page-size:500}") int streamPageSize) {
+        return new RetailCatalogGrpcService(retailService, catalogSnapshot, validator, streamPageSize);
+    }
+
+    @Bean
+    public RetailGrpcServer retailGrpcServer(RetailCatalogGrpcService retailCatalogGrpcService,
+                                             @Value("${retail.grpc.port:9090}") int port,
+                                             @Value("${retail.grpc.max-concurrent-calls-per-connection:100}") int maxConcurrentCalls,
+                                             @Value("${retail.grpc.shutdown-grace-period:10s}") Duration shutdownGracePeriod) {
+        return new RetailGrpcServer(List.of(retailCatalogGrpcService), port, maxConcurrentCalls, shutdownGracePeriod);
+    }
+}
@@ -0,0 +1,43 @@
+package com.retail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.idempotency.IdempotencyFilter;
+import com.retail.idempotency.IdempotencyProperties;
+import com.retail.idempotency.IdempotencyStore;
+import com.retail.ratelimit.ClientIdentityResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Registers the Idempotency-Key filter on the retail write endpoints, ahead of load shedding, so
+ * replayed retries are answered without taking a rate limit permit or a concurrency slot
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "retail.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyProperties properties,
+                                                                       ObjectMapper objectMapper,
+                                                                       MeterRegistry meterRegistry,
+                                                                       @Value("${retail.api-keys:}") List<String> apiKeys) {
+        IdempotencyStore store = new IdempotencyStore(properties.getTtl().toNanos(), properties.getMaxEntries(),
+                properties.getMaxTotalBytes(), System::nanoTime);
+        IdempotencyFilter filter = new IdempotencyFilter(properties,
+                new ClientIdentityResolver(properties.getClientHeader(), apiKeys), store, objectMapper, meterRegistry);
+
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/retails/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
@@ -0,0 +1,48 @@
+package com.retail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.ratelimit.AdaptiveConcurrencyLimiter;
+import com.retail.ratelimit.ClientIdentityResolver;
+import com.retail.ratelimit.ClientRateLimiters;
+import com.retail.ratelimit.LoadSheddingFilter;
+import com.retail.ratelimit.LoadSheddingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Registers the load shedding filter ahead of Spring Security, so rejected requests cost as little as possible
+ */
+@Configuration
+@EnableConfigurationProperties(LoadSheddingProperties.class)
+@ConditionalOnProperty(prefix = "retail.load-shedding", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(LoadSheddingProperties properties,
+                                                                         ObjectMapper objectMapper,
+                                                                         MeterRegistry meterRegistry,
+                                                                         @Value("${retail.api-keys:}") List<String> apiKeys) {
+        LoadSheddingProperties.Concurrency concurrency = properties.getConcurrency();
+        AdaptiveConcurrencyLimiter concurrencyLimiter = concurrency.isEnabled()
+                ? new AdaptiveConcurrencyLimiter(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                        concurrency.getMaxLimit(), concurrency.getRttTolerance(), System::nanoTime)
+                : null;
+        LoadSheddingFilter filter = new LoadSheddingFilter(
+                new ClientIdentityResolver(properties.getClientHeader(), apiKeys),
+                new ClientRateLimiters(properties, System::nanoTime),
+                concurrencyLimiter, objectMapper, meterRegistry);
+
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,58 @@
+package com.retail.config;
+
+import com.retail.profiler.ProfilerProperties;
+import com.retail.profiler.ProfilingDataSource;
+import com.retail.profiler.ProfilingScopeFilter;
+import com.retail.profiler.QueryProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Profiles the SQL run against the application data source when {@code retail.profiler.enabled}.
+ * Only the bean named {@code dataSource} is wrapped; with read replica routing that is the proxy in
+ * front of every pool, so each statement is recorded once whichever pool runs it. Shard pools are
+ * wrapped where they are built, in {@link ShardingConfig}.
+ */
+@Configuration
+@EnableConfigurationProperties(ProfilerProperties.class)
+@ConditionalOnProperty(prefix = "retail.profiler", name = "enabled", havingValue = "true")
+public class QueryProfilerConfig {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public QueryProfiler queryProfiler(ProfilerProperties properties) {
+        return new QueryProfiler(properties);
+    }
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<QueryProfiler> queryProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource, queryProfiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<ProfilingScopeFilter> profilingScopeFilter(QueryProfiler queryProfiler) {
+        FilterRegistrationBean<ProfilingScopeFilter> registration =
+                new FilterRegistrationBean<>(new ProfilingScopeFilter(queryProfiler));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 3);
+        return registration;
+    }
+}
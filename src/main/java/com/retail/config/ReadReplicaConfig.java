@@ -0,0 +1,78 @@
+package com.retail.config;
+
+import com.retail.datasource.HeartbeatLagProbe;
+import com.retail.datasource.ReplicaHealthMonitor;
+import com.retail.datasource.ReplicaLagProbe;
+import com.retail.datasource.ReplicaRoutingDataSource;
+import com.retail.datasource.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to replica pools when {@code retail.datasource.routing.enabled=true}.
+ * The primary pool is built from {@code spring.datasource.*}; replicas from
+ * {@code retail.datasource.routing.replicas[n].*}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "retail.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaRoutingProperties routingProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int index = 0;
+        for (ReplicaRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            String name = replica.getName() != null ? replica.getName() : "replica-" + index;
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword())
+                    .build();
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            replicas.put(name, pool);
+            index++;
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    /**
+     * The data source used by JPA: defers fetching a physical connection until the first statement,
+     * by which time the transaction's read-only flag decides the route
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                     ReplicaRoutingProperties routingProperties) {
+        ReplicaLagProbe lagProbe = routingProperties.getLagProbe() == ReplicaRoutingProperties.LagProbeType.HEARTBEAT
+                ? new HeartbeatLagProbe()
+                : ReplicaLagProbe.NONE;
+        return new ReplicaHealthMonitor(replicaRoutingDataSource, lagProbe,
+                routingProperties.getMaxLag(), routingProperties.getHealthCheckInterval());
+    }
+}
@@ -0,0 +1,74 @@
+package com.retail.config;
+
+import com.retail.profiler.ProfilingDataSource;
+import com.retail.profiler.QueryProfiler;
+import com.retail.shard.ShardDirectory;
+import com.retail.shard.ShardRebalancer;
+import com.retail.shard.ShardRouter;
+import com.retail.shard.ShardedRetailRepository;
+import com.retail.shard.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores retail items across the databases listed in {@code retail.sharding.shards} when
+ * {@code retail.sharding.enabled=true}. The sharded repository is the primary
+ * {@link com.retail.repository.RetailRepository}; the shard directory stays in the primary database.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "retail.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardDirectory shardDirectory(DataSource dataSource) {
+        return new ShardDirectory(dataSource);
+    }
+
+    @Bean(initMethod = "initialize", destroyMethod = "close")
+    public ShardRouter shardRouter(ShardingProperties shardingProperties,
+                                   DataSourceProperties dataSourceProperties,
+                                   ShardDirectory shardDirectory,
+                                   ObjectProvider<QueryProfiler> queryProfiler) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        int index = 0;
+        for (ShardingProperties.Shard shard : shardingProperties.getShards()) {
+            String name = shard.getName() != null ? shard.getName() : "shard-" + index;
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.getUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.getPassword())
+                    .build();
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            QueryProfiler profiler = queryProfiler.getIfAvailable();
+            shards.put(name, profiler != null ? new ProfilingDataSource(pool, profiler) : pool);
+            index++;
+        }
+        return new ShardRouter(shards, shardDirectory, shardingProperties.getBuckets(),
+                shardingProperties.getScatterThreads());
+    }
+
+    @Bean
+    @Primary
+    public ShardedRetailRepository shardedRetailRepository(ShardRouter shardRouter, ShardDirectory shardDirectory) {
+        return new ShardedRetailRepository(shardRouter, shardDirectory);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardRouter shardRouter) {
+        return new ShardRebalancer(shardRouter);
+    }
+}
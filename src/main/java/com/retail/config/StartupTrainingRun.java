@@ -0,0 +1,32 @@
+package com.retail.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exits as soon as the application is ready when {@code retail.startup.exit-after-ready=true}.
+ * Used by the fast-startup build for its class data sharing training run: the JVM dumps the
+ * archive of every class loaded during startup when it exits.
+ *
+ * The property is read at runtime rather than through a condition, so the switch keeps working
+ * in AOT-processed builds where bean conditions are fixed at build time.
+ */
+@Component
+public class StartupTrainingRun {
+
+    private final boolean exitAfterReady;
+
+    public StartupTrainingRun(@Value("${retail.startup.exit-after-ready:false}") boolean exitAfterReady) {
+        this.exitAfterReady = exitAfterReady;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (exitAfterReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
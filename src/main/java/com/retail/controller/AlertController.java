@@ -0,0 +1,93 @@
+package com.retail.controller;
+
+import com.retail.alert.AlertFeed;
+import com.retail.alert.LowStockAlerts;
+import com.retail.alert.StockAlert;
+import com.retail.alert.StockLevel;
+import com.retail.alert.ThresholdRule;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/alerts")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(prefix = "retail.alerts", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AlertController {
+
+    private final LowStockAlerts lowStockAlerts;
+    private final AlertFeed alertFeed;
+
+    @Autowired
+    public AlertController(LowStockAlerts lowStockAlerts, AlertFeed alertFeed) {
+        this.lowStockAlerts = lowStockAlerts;
+        this.alertFeed = alertFeed;
+    }
+
+    /**
+     * Get all threshold rules
+     * GET /api/v1/alerts/rules
+     */
+    @GetMapping("/rules")
+    public ResponseEntity<List<ThresholdRule>> getRules() {
+        return new ResponseEntity<>(lowStockAlerts.getRules(), HttpStatus.OK);
+    }
+
+    /**
+     * Add a threshold rule for a product or a category, replacing any existing rule for it
+     * POST /api/v1/alerts/rules
+     */
+    @PostMapping("/rules")
+    public ResponseEntity<ThresholdRule> addRule(@Valid @RequestBody ThresholdRule rule) {
+        return new ResponseEntity<>(lowStockAlerts.addRule(rule), HttpStatus.CREATED);
+    }
+
+    /**
+     * Remove a threshold rule
+     * DELETE /api/v1/alerts/rules/{ruleId}
+     */
+    @DeleteMapping("/rules/{ruleId}")
+    public ResponseEntity<Void> removeRule(@PathVariable Long ruleId) {
+        lowStockAlerts.removeRule(ruleId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * Get the items at, below or near their threshold, most urgent first
+     * GET /api/v1/alerts/stock-levels?category=&lowOnly=&limit=
+     */
+    @GetMapping("/stock-levels")
+    public ResponseEntity<List<StockLevel>> getStockLevels(@RequestParam(required = false) String category,
+                                                           @RequestParam(defaultValue = "false") boolean lowOnly,
+                                                           @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(lowStockAlerts.findStockLevels(category, lowOnly, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Get the most recent alerts, newest first
+     * GET /api/v1/alerts?limit=
+     */
+    @GetMapping
+    public ResponseEntity<List<StockAlert>> getRecentAlerts(@RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        return new ResponseEntity<>(alertFeed.recent(limit), HttpStatus.OK);
+    }
+
+    /**
+     * Stream alerts as server-sent events as they are raised
+     * GET /api/v1/alerts/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts() {
+        return alertFeed.subscribe();
+    }
+}
@@ -0,0 +1,64 @@
+package com.retail.controller;
+
+import com.retail.bulk.BulkAdjustmentJob;
+import com.retail.bulk.BulkAdjustmentJobs;
+import com.retail.bulk.BulkAdjustmentRequest;
+import com.retail.exception.ResourceNotFoundException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/retails/bulk-adjustments")
+@CrossOrigin(origins = "*")
+public class BulkAdjustmentController {
+
+    private final BulkAdjustmentJobs bulkAdjustmentJobs;
+
+    @Autowired
+    public BulkAdjustmentController(BulkAdjustmentJobs bulkAdjustmentJobs) {
+        this.bulkAdjustmentJobs = bulkAdjustmentJobs;
+    }
+
+    /**
+     * Start a bulk price and/or quantity adjustment
+     * POST /api/v1/retails/bulk-adjustments
+     */
+    @PostMapping
+    public ResponseEntity<BulkAdjustmentJob> startBulkAdjustment(@Valid @RequestBody BulkAdjustmentRequest request) {
+        BulkAdjustmentJob job = bulkAdjustmentJobs.submit(request);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create("/api/v1/retails/bulk-adjustments/" + job.getJobId()));
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Get the progress of a bulk adjustment
+     * GET /api/v1/retails/bulk-adjustments/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkAdjustmentJob> getBulkAdjustment(@PathVariable String jobId) {
+        return new ResponseEntity<>(findJobOrThrow(jobId), HttpStatus.OK);
+    }
+
+    /**
+     * Cancel a bulk adjustment; chunks already committed stay applied
+     * POST /api/v1/retails/bulk-adjustments/{jobId}/cancel
+     */
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<BulkAdjustmentJob> cancelBulkAdjustment(@PathVariable String jobId) {
+        BulkAdjustmentJob job = findJobOrThrow(jobId);
+        job.cancel();
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+    }
+
+    private BulkAdjustmentJob findJobOrThrow(String jobId) {
+        return bulkAdjustmentJobs.findJob(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("BulkAdjustmentJob", "jobId", jobId));
+    }
+}
@@ -0,0 +1,85 @@
+package com.retail.controller;
+
+import com.retail.history.CategoryHistoryRollup;
+import com.retail.history.HistoryPoint;
+import com.retail.history.HistoryResolution;
+import com.retail.history.HistoryRollup;
+import com.retail.history.PriceStockHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/retails")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(prefix = "retail.history", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class HistoryController {
+
+    private static final int MAX_POINTS = 10_000;
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(30);
+
+    private final PriceStockHistory priceStockHistory;
+
+    @Autowired
+    public HistoryController(PriceStockHistory priceStockHistory) {
+        this.priceStockHistory = priceStockHistory;
+    }
+
+    /**
+     * Get the recorded price and quantity changes of a retail item, oldest first
+     * GET /api/v1/retails/{id}/history?from=&to=&limit=
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<HistoryPoint>> getHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (limit > MAX_POINTS) {
+            throw new IllegalArgumentException("Limit must be <= " + MAX_POINTS + ", use the rollups for longer ranges");
+        }
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+        return new ResponseEntity<>(priceStockHistory.getPoints(id, start, end, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Get the hourly or daily price and stock rollups of a retail item
+     * GET /api/v1/retails/{id}/history/rollups?resolution=hour|day&from=&to=
+     */
+    @GetMapping("/{id}/history/rollups")
+    public ResponseEntity<List<HistoryRollup>> getHistoryRollups(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "day") String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+        return new ResponseEntity<>(
+                priceStockHistory.getRollups(id, HistoryResolution.parse(resolution), start, end), HttpStatus.OK);
+    }
+
+    /**
+     * Get the hourly or daily price and stock rollups of a category
+     * GET /api/v1/retails/category/{category}/history/rollups?resolution=hour|day&from=&to=
+     */
+    @GetMapping("/category/{category}/history/rollups")
+    public ResponseEntity<List<CategoryHistoryRollup>> getCategoryHistoryRollups(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "day") String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+        return new ResponseEntity<>(
+                priceStockHistory.getCategoryRollups(category, HistoryResolution.parse(resolution), start, end),
+                HttpStatus.OK);
+    }
+}
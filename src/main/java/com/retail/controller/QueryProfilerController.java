@@ -0,0 +1,63 @@
+package com.retail.controller;
+
+import com.retail.profiler.NPlusOneIncident;
+import com.retail.profiler.QueryProfiler;
+import com.retail.profiler.QueryShapeStats;
+import com.retail.profiler.SlowQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/queries")
+@ConditionalOnProperty(prefix = "retail.profiler", name = "enabled", havingValue = "true")
+public class QueryProfilerController {
+
+    private final QueryProfiler queryProfiler;
+
+    @Autowired
+    public QueryProfilerController(QueryProfiler queryProfiler) {
+        this.queryProfiler = queryProfiler;
+    }
+
+    /**
+     * Get execution totals per query shape, highest total time first
+     * GET /api/v1/admin/queries?limit=50
+     */
+    @GetMapping
+    public ResponseEntity<List<QueryShapeStats>> getShapes(@RequestParam(defaultValue = "50") int limit) {
+        return new ResponseEntity<>(queryProfiler.findShapes(limit), HttpStatus.OK);
+    }
+
+    /**
+     * Get the most recent executions over the slow threshold
+     * GET /api/v1/admin/queries/slow?limit=50
+     */
+    @GetMapping("/slow")
+    public ResponseEntity<List<SlowQuery>> getSlowQueries(@RequestParam(defaultValue = "50") int limit) {
+        return new ResponseEntity<>(queryProfiler.findSlowQueries(limit), HttpStatus.OK);
+    }
+
+    /**
+     * Get the most recent requests that repeated a SELECT shape
+     * GET /api/v1/admin/queries/n-plus-one?limit=50
+     */
+    @GetMapping("/n-plus-one")
+    public ResponseEntity<List<NPlusOneIncident>> getNPlusOneIncidents(@RequestParam(defaultValue = "50") int limit) {
+        return new ResponseEntity<>(queryProfiler.findNPlusOneIncidents(limit), HttpStatus.OK);
+    }
+
+    /**
+     * Discard all totals and logs
+     * DELETE /api/v1/admin/queries
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        queryProfiler.reset();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
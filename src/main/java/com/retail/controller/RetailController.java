@@ -1,33 +1,53 @@
 package com.retail.controller;
 
 import com.retail.entity.Retail;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.ingest.AsyncWriteIngestion;
+import com.retail.ingest.WriteOperation;
 import com.retail.service.RetailService;
+import com.retail.snapshot.CatalogSnapshot;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/retails")
 @CrossOrigin(origins = "*")
 public class RetailController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final RetailService retailService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final AsyncWriteIngestion asyncWriteIngestion;
 
     @Autowired
-    public RetailController(RetailService retailService) {
+    public RetailController(RetailService retailService,
+                            CatalogSnapshot catalogSnapshot,
+                            AsyncWriteIngestion asyncWriteIngestion) {
         this.retailService = retailService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.asyncWriteIngestion = asyncWriteIngestion;
     }
 
     /**
      * Create a new retail item
      * POST /api/v1/retails
+     * Answers 202 Accepted with a write operation when asynchronous writes are enabled
      */
     @PostMapping
-    public ResponseEntity<Retail> createRetail(@Valid @RequestBody Retail retail) {
+    public ResponseEntity<?> createRetail(@Valid @RequestBody Retail retail) {
+        if (asyncWriteIngestion.isEnabled()) {
+            return accepted(asyncWriteIngestion.submitCreate(retail));
+        }
         Retail createdRetail = retailService.createRetail(retail);
         return new ResponseEntity<>(createdRetail, HttpStatus.CREATED);
     }
@@ -38,7 +58,9 @@ public class RetailController {
      */
     @GetMapping
     public ResponseEntity<List<Retail>> getAllRetails() {
-        List<Retail> retails = retailService.getAllRetails();
+        List<Retail> retails = catalogSnapshot.isServing()
+                ? catalogSnapshot.findAll()
+                : retailService.getAllRetails();
         return new ResponseEntity<>(retails, HttpStatus.OK);
     }
 
@@ -48,7 +70,8 @@ public class RetailController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<Retail> getRetailById(@PathVariable Long id) {
-        Retail retail = retailService.getRetailById(id);
+        Retail retail = catalogSnapshot.findById(id)
+                .orElseGet(() -> retailService.getRetailById(id));
         return new ResponseEntity<>(retail, HttpStatus.OK);
     }
 
@@ -58,27 +81,57 @@ public class RetailController {
      */
     @GetMapping("/product/{productName}")
     public ResponseEntity<Retail> getRetailByProductName(@PathVariable String productName) {
-        Retail retail = retailService.getRetailByProductName(productName);
+        Retail retail = catalogSnapshot.findByProductName(productName)
+                .orElseGet(() -> retailService.getRetailByProductName(productName));
         return new ResponseEntity<>(retail, HttpStatus.OK);
     }
 
     /**
-     * Get retail items by category
-     * GET /api/v1/retails/category/{category}
+     * Get retail items by category, optionally one page at a time
+     * GET /api/v1/retails/category/{category}?page={page}&size={size}
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Retail>> getRetailsByCategory(@PathVariable String category) {
-        List<Retail> retails = retailService.getRetailsByCategory(category);
+    public ResponseEntity<List<Retail>> getRetailsByCategory(@PathVariable String category,
+                                                             @RequestParam(required = false) Integer page,
+                                                             @RequestParam(required = false) Integer size) {
+        if (page == null && size == null) {
+            List<Retail> retails = catalogSnapshot.findByCategory(category, 0, Integer.MAX_VALUE)
+                    .orElseGet(() -> retailService.getRetailsByCategory(category));
+            return new ResponseEntity<>(retails, HttpStatus.OK);
+        }
+
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be >= 1");
+        }
+        List<Retail> retails = catalogSnapshot.findByCategory(category, (long) pageNumber * pageSize, pageSize)
+                .orElseGet(() -> retailService.getRetailsByCategory(category, pageNumber, pageSize));
         return new ResponseEntity<>(retails, HttpStatus.OK);
     }
 
+    /**
+     * Count retail items in a category
+     * GET /api/v1/retails/category/{category}/count
+     */
+    @GetMapping("/category/{category}/count")
+    public ResponseEntity<Map<String, Object>> countRetailsByCategory(@PathVariable String category) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("category", category);
+        body.put("count", retailService.countRetailsByCategory(category));
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
     /**
      * Update an existing retail item
      * PUT /api/v1/retails/{id}
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Retail> updateRetail(@PathVariable Long id, 
-                                                @Valid @RequestBody Retail retailDetails) {
+    public ResponseEntity<?> updateRetail(@PathVariable Long id,
+                                          @Valid @RequestBody Retail retailDetails) {
+        if (asyncWriteIngestion.isEnabled()) {
+            return accepted(asyncWriteIngestion.submitUpdate(id, retailDetails));
+        }
         Retail updatedRetail = retailService.updateRetail(id, retailDetails);
         return new ResponseEntity<>(updatedRetail, HttpStatus.OK);
     }
@@ -88,27 +141,25 @@ public class RetailController {
      * PATCH /api/v1/retails/{id}
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Retail> partialUpdateRetail(@PathVariable Long id, 
-                                                       @RequestBody Retail retailDetails) {
-        Retail existingRetail = retailService.getRetailById(id);
-
-        if (retailDetails.getProductName() != null) {
-            existingRetail.setProductName(retailDetails.getProductName());
-        }
-        if (retailDetails.getCategory() != null) {
-            existingRetail.setCategory(retailDetails.getCategory());
-        }
-        if (retailDetails.getPrice() != null) {
-            existingRetail.setPrice(retailDetails.getPrice());
-        }
-        if (retailDetails.getQuantity() != null) {
-            existingRetail.setQuantity(retailDetails.getQuantity());
-        }
-        if (retailDetails.getDescription() != null) {
-            existingRetail.setDescription(retailDetails.getDescription());
+    public ResponseEntity<?> partialUpdateRetail(@PathVariable Long id,
+                                                 @RequestBody Retail retailDetails) {
+        if (asyncWriteIngestion.isEnabled()) {
+            return accepted(asyncWriteIngestion.submitPatch(id, retailDetails));
         }
+        Retail updatedRetail = retailService.patchRetail(id, retailDetails);
+        return new ResponseEntity<>(updatedRetail, HttpStatus.OK);
+    }
 
-        Retail updatedRetail = retailService.updateRetail(id, existingRetail);
+    /**
+     * Add to or take from the stock of a retail item
+     * POST /api/v1/retails/{id}/stock?delta={delta}
+     */
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<?> adjustStock(@PathVariable Long id, @RequestParam int delta) {
+        if (asyncWriteIngestion.isEnabled()) {
+            return accepted(asyncWriteIngestion.submitStockAdjustment(id, delta));
+        }
+        Retail updatedRetail = retailService.adjustStock(id, delta);
         return new ResponseEntity<>(updatedRetail, HttpStatus.OK);
     }
 
@@ -117,7 +168,10 @@ public class RetailController {
      * DELETE /api/v1/retails/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRetail(@PathVariable Long id) {
+    public ResponseEntity<?> deleteRetail(@PathVariable Long id) {
+        if (asyncWriteIngestion.isEnabled()) {
+            return accepted(asyncWriteIngestion.submitDelete(id));
+        }
         retailService.deleteRetail(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -142,7 +196,21 @@ public class RetailController {
         return exists ? new ResponseEntity<>(HttpStatus.OK) 
                       : new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
-}
-
 
+    /**
+     * Get the state of an asynchronous write operation
+     * GET /api/v1/retails/operations/{operationId}
+     */
+    @GetMapping("/operations/{operationId}")
+    public ResponseEntity<WriteOperation> getWriteOperation(@PathVariable String operationId) {
+        WriteOperation operation = asyncWriteIngestion.findOperation(operationId)
+                .orElseThrow(() -> new ResourceNotFoundException("WriteOperation", "operationId", operationId));
+        return new ResponseEntity<>(operation, HttpStatus.OK);
+    }
 
+    private ResponseEntity<WriteOperation> accepted(WriteOperation operation) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create("/api/v1/retails/operations/" + operation.getOperationId()));
+        return new ResponseEntity<>(operation, headers, HttpStatus.ACCEPTED);
+    }
+}
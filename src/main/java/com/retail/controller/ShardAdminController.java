@@ -0,0 +1,51 @@
+package com.retail.controller;
+
+import com.retail.shard.ShardRebalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/shards")
+@ConditionalOnProperty(prefix = "retail.sharding", name = "enabled", havingValue = "true")
+public class ShardAdminController {
+
+    private final ShardRebalancer shardRebalancer;
+
+    @Autowired
+    public ShardAdminController(ShardRebalancer shardRebalancer) {
+        this.shardRebalancer = shardRebalancer;
+    }
+
+    /**
+     * Get the buckets and row count of each shard
+     * GET /api/v1/admin/shards
+     */
+    @GetMapping
+    public ResponseEntity<List<ShardRebalancer.ShardStatus>> getShards() {
+        return new ResponseEntity<>(shardRebalancer.status(), HttpStatus.OK);
+    }
+
+    /**
+     * Spread buckets evenly over the configured shards
+     * POST /api/v1/admin/shards/rebalance
+     */
+    @PostMapping("/rebalance")
+    public ResponseEntity<List<ShardRebalancer.BucketMove>> rebalance() {
+        return new ResponseEntity<>(shardRebalancer.rebalance(), HttpStatus.OK);
+    }
+
+    /**
+     * Move one bucket to another shard
+     * POST /api/v1/admin/shards/buckets/{bucket}/move?target={shard}
+     */
+    @PostMapping("/buckets/{bucket}/move")
+    public ResponseEntity<ShardRebalancer.BucketMove> moveBucket(@PathVariable int bucket,
+                                                                 @RequestParam String target) {
+        return new ResponseEntity<>(shardRebalancer.moveBucket(bucket, target), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,59 @@
+package com.retail.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Writes the current time into a single-row heartbeat table on the primary and compares it with
+ * the value each replica has applied. Both timestamps come from this JVM's clock, so database
+ * clock skew does not distort the measurement.
+ */
+public class HeartbeatLagProbe implements ReplicaLagProbe {
+
+    static final String TABLE = "replication_heartbeat";
+
+    private volatile long lastBeatMillis;
+
+    @Override
+    public void beforeProbe(DataSource primary) {
+        long now = System.currentTimeMillis();
+        try (Connection connection = primary.getConnection()) {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE
+                        + " (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+            }
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE " + TABLE + " SET beat_millis = ? WHERE id = 1")) {
+                update.setLong(1, now);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "INSERT INTO " + TABLE + " (id, beat_millis) VALUES (1, ?)")) {
+                        insert.setLong(1, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            lastBeatMillis = now;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot write replication heartbeat to the primary", e);
+        }
+    }
+
+    @Override
+    public Duration lag(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT beat_millis FROM " + TABLE + " WHERE id = 1")) {
+            if (!resultSet.next()) {
+                throw new SQLException("Replica has not received a heartbeat yet");
+            }
+            return Duration.ofMillis(Math.max(0L, lastBeatMillis - resultSet.getLong(1)));
+        }
+    }
+}
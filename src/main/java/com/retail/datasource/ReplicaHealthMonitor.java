@@ -0,0 +1,105 @@
+package com.retail.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically decides which replicas may serve reads: a replica is available when it answers a
+ * validity check and its lag, as measured by the {@link ReplicaLagProbe}, is within the limit.
+ */
+public class ReplicaHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaLagProbe lagProbe;
+    private final Duration maxLag;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource, ReplicaLagProbe lagProbe,
+                                Duration maxLag, Duration interval) {
+        this.routingDataSource = routingDataSource;
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        this.interval = interval;
+    }
+
+    public void start() {
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Probe every replica once and publish the available set to the routing data source
+     */
+    public void check() {
+        try {
+            lagProbe.beforeProbe(routingDataSource.getPrimary());
+        } catch (RuntimeException e) {
+            log.warn("Replica lag probe could not run; routing all reads to the primary: {}", e.getMessage());
+            update(List.of());
+            return;
+        }
+
+        List<String> available = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            if (isHealthy(replica.getKey(), replica.getValue())) {
+                available.add(replica.getKey());
+            }
+        }
+        update(available);
+    }
+
+    private boolean isHealthy(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(1)) {
+                log.debug("Replica {} failed its validity check", name);
+                return false;
+            }
+        } catch (Exception e) {
+            log.debug("Replica {} is unreachable: {}", name, e.getMessage());
+            return false;
+        }
+        try {
+            Duration lag = lagProbe.lag(replica);
+            if (lag.compareTo(maxLag) > 0) {
+                log.debug("Replica {} lags by {} ms", name, lag.toMillis());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.debug("Replica {} lag is unknown: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void update(List<String> available) {
+        List<String> previous = routingDataSource.getAvailableReplicas();
+        routingDataSource.setAvailableReplicas(available);
+        if (!previous.equals(available)) {
+            log.info("Replicas available for reads changed from {} to {}", previous, available);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.retail.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Measures how far a replica trails the primary
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /** Treats every reachable replica as fully caught up. */
+    ReplicaLagProbe NONE = replica -> Duration.ZERO;
+
+    /**
+     * Called once per health check, before any replica is probed
+     * @param primary the primary data source
+     */
+    default void beforeProbe(DataSource primary) {
+    }
+
+    /**
+     * @param replica the replica data source
+     * @return the replica's lag behind the primary
+     * @throws Exception if the lag cannot be determined; the replica is then treated as unhealthy
+     */
+    Duration lag(DataSource replica) throws Exception;
+}
@@ -0,0 +1,124 @@
+package com.retail.event;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * Published by {@link com.retail.service.RetailService} for every mutation of the catalog.
+ * Listeners that maintain derived, in-memory views should consume it after commit.
+ *
+ * Events replayed from a peer node carry that node's ID as their origin; local events have none.
+ */
+public class RetailChangeEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        CLEARED
+    }
+
+    private final Type type;
+    private final Long retailId;
+    private final RetailState before;
+    private final RetailState after;
+    private final Instant occurredAt;
+    private final String origin;
+
+    public RetailChangeEvent(Type type, Long retailId, RetailState before, RetailState after, Instant occurredAt) {
+        this(type, retailId, before, after, occurredAt, null);
+    }
+
+    @JsonCreator
+    public RetailChangeEvent(@JsonProperty("type") Type type,
+                             @JsonProperty("retailId") Long retailId,
+                             @JsonProperty("before") RetailState before,
+                             @JsonProperty("after") RetailState after,
+                             @JsonProperty("occurredAt") Instant occurredAt,
+                             @JsonProperty("origin") String origin) {
+        this.type = type;
+        this.retailId = retailId;
+        this.before = before;
+        this.after = after;
+        this.occurredAt = occurredAt;
+        this.origin = origin;
+    }
+
+    public static RetailChangeEvent created(RetailState after) {
+        return new RetailChangeEvent(Type.CREATED, after.getId(), null, after, Instant.now());
+    }
+
+    public static RetailChangeEvent updated(RetailState before, RetailState after) {
+        return new RetailChangeEvent(Type.UPDATED, after.getId(), before, after, Instant.now());
+    }
+
+    public static RetailChangeEvent deleted(RetailState before) {
+        return new RetailChangeEvent(Type.DELETED, before.getId(), before, null, Instant.now());
+    }
+
+    public static RetailChangeEvent cleared() {
+        return new RetailChangeEvent(Type.CLEARED, null, null, null, Instant.now());
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getRetailId() {
+        return retailId;
+    }
+
+    /**
+     * @return the state before the change, or null for creations and clears
+     */
+    public RetailState getBefore() {
+        return before;
+    }
+
+    /**
+     * @return the state after the change, or null for deletions and clears
+     */
+    public RetailState getAfter() {
+        return after;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    /**
+     * @return the ID of the node the change was made on, or null if it was made on this node
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return true if the change was made on another node and replayed here
+     */
+    @JsonIgnore
+    public boolean isRemote() {
+        return origin != null;
+    }
+
+    /**
+     * @param origin the ID of the node the change was made on
+     * @return a copy of this event attributed to that node
+     */
+    public RetailChangeEvent withOrigin(String origin) {
+        return new RetailChangeEvent(type, retailId, before, after, occurredAt, origin);
+    }
+
+    @Override
+    public String toString() {
+        return "RetailChangeEvent{" +
+                "type=" + type +
+                ", retailId=" + retailId +
+                ", occurredAt=" + occurredAt +
+                ", origin='" + origin + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.retail.event;
+
+/**
+ * Published when this node may have missed {@link RetailChangeEvent}s from a peer, for example
+ * after a gap in a peer's message sequence. Holders of derived, in-memory state should discard or
+ * rebuild it from the database.
+ */
+public class RetailResyncEvent {
+
+    private final String reason;
+
+    public RetailResyncEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "RetailResyncEvent{" +
+                "reason='" + reason + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,117 @@
+package com.retail.event;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.retail.entity.Retail;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a retail item's persistent fields, taken at the moment a change is published.
+ * Listeners receive this instead of the managed entity so they never observe later mutations.
+ */
+public final class RetailState {
+
+    private final Long id;
+    private final String productName;
+    private final String category;
+    private final BigDecimal price;
+    private final Integer quantity;
+    private final String description;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    @JsonCreator
+    public RetailState(@JsonProperty("id") Long id,
+                       @JsonProperty("productName") String productName,
+                       @JsonProperty("category") String category,
+                       @JsonProperty("price") BigDecimal price,
+                       @JsonProperty("quantity") Integer quantity,
+                       @JsonProperty("description") String description,
+                       @JsonProperty("createdAt") LocalDateTime createdAt,
+                       @JsonProperty("updatedAt") LocalDateTime updatedAt) {
+        this.id = id;
+        this.productName = productName;
+        this.category = category;
+        this.price = price;
+        this.quantity = quantity;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Capture the current field values of a retail item
+     * @param retail the retail item
+     * @return the captured state
+     */
+    public static RetailState of(Retail retail) {
+        return new RetailState(
+                retail.getId(),
+                retail.getProductName(),
+                retail.getCategory(),
+                retail.getPrice(),
+                retail.getQuantity(),
+                retail.getDescription(),
+                retail.getCreatedAt(),
+                retail.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Build a detached retail item carrying this state
+     * @return a new, unmanaged retail item
+     */
+    public Retail toRetail() {
+        Retail retail = new Retail(productName, category, price, quantity);
+        retail.setId(id);
+        retail.setDescription(description);
+        retail.setCreatedAt(createdAt);
+        retail.setUpdatedAt(updatedAt);
+        return retail;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RetailState{" +
+                "id=" + id +
+                ", productName='" + productName + '\'' +
+                ", category='" + category + '\'' +
+                ", price=" + price +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.retail.grpc;
+
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.ResourceNotFoundException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * gRPC counterpart of {@link com.retail.exception.GlobalExceptionHandler}: maps service exceptions
+ * to the status codes matching the HTTP statuses the REST API returns for them.
+ */
+final class GrpcStatusMapper {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcStatusMapper.class);
+
+    private GrpcStatusMapper() {
+    }
+
+    static StatusRuntimeException toStatusException(Throwable ex) {
+        if (ex instanceof StatusRuntimeException statusException) {
+            return statusException;
+        }
+        if (ex instanceof ResourceNotFoundException) {
+            return Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof ResourceAlreadyExistsException) {
+            return Status.ALREADY_EXISTS.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        log.error("Unexpected error in gRPC call", ex);
+        return Status.INTERNAL
+                .withDescription("An unexpected error occurred: " + ex.getMessage())
+                .withCause(ex)
+                .asRuntimeException();
+    }
+}
@@ -0,0 +1,213 @@
+package com.retail.grpc;
+
+import com.google.protobuf.Empty;
+import com.retail.entity.Retail;
+import com.retail.grpc.proto.AdjustStockRequest;
+import com.retail.grpc.proto.BatchGetRetailsRequest;
+import com.retail.grpc.proto.BatchGetRetailsResponse;
+import com.retail.grpc.proto.CreateRetailRequest;
+import com.retail.grpc.proto.DeleteRetailRequest;
+import com.retail.grpc.proto.GetRetailRequest;
+import com.retail.grpc.proto.ListRetailsByCategoryRequest;
+import com.retail.grpc.proto.RetailCatalogGrpc;
+import com.retail.grpc.proto.RetailItem;
+import com.retail.grpc.proto.UpdateRetailRequest;
+import com.retail.service.RetailService;
+import com.retail.snapshot.CatalogSnapshot;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * gRPC implementation of the retail catalog. Shares {@link RetailService} and the catalog snapshot
+ * with {@link com.retail.controller.RetailController}, so both APIs see the same data, caches and
+ * change events.
+ */
+public class RetailCatalogGrpcService extends RetailCatalogGrpc.RetailCatalogImplBase {
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private final RetailService retailService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final Validator validator;
+    private final int streamPageSize;
+
+    public RetailCatalogGrpcService(RetailService retailService,
+                                    CatalogSnapshot catalogSnapshot,
+                                    Validator validator,
+                                    int streamPageSize) {
+        if (streamPageSize < 1) {
+            throw new IllegalArgumentException("Stream page size must be >= 1");
+        }
+        this.retailService = retailService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.validator = validator;
+        this.streamPageSize = streamPageSize;
+    }
+
+    @Override
+    public void getRetail(GetRetailRequest request, StreamObserver<RetailItem> responseObserver) {
+        respond(responseObserver, () -> RetailProtoMapper.toItem(catalogSnapshot.findById(request.getId())
+                .orElseGet(() -> retailService.getRetailById(request.getId()))));
+    }
+
+    @Override
+    public void batchGetRetails(BatchGetRetailsRequest request,
+                                StreamObserver<BatchGetRetailsResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            List<Long> ids = request.getIdsList();
+            if (ids.size() > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " IDs can be requested at once");
+            }
+            Map<Long, Retail> found = new HashMap<>();
+            if (catalogSnapshot.isServing()) {
+                for (Long id : ids) {
+                    catalogSnapshot.findById(id).ifPresent(retail -> found.put(id, retail));
+                }
+            } else {
+                for (Retail retail : retailService.getRetailsByIds(ids)) {
+                    found.put(retail.getId(), retail);
+                }
+            }
+
+            BatchGetRetailsResponse.Builder response = BatchGetRetailsResponse.newBuilder();
+            for (Long id : ids) {
+                Retail retail = found.get(id);
+                if (retail != null) {
+                    response.addItems(RetailProtoMapper.toItem(retail));
+                } else {
+                    response.addMissingIds(id);
+                }
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public void listRetailsByCategory(ListRetailsByCategoryRequest request,
+                                      StreamObserver<RetailItem> responseObserver) {
+        ServerCallStreamObserver<RetailItem> call = (ServerCallStreamObserver<RetailItem>) responseObserver;
+        CategoryStream stream = new CategoryStream(request.getCategory(), call);
+        // Without a cancel handler, onNext on a cancelled call throws instead of being ignored
+        call.setOnCancelHandler(stream::cancel);
+        call.setOnReadyHandler(stream::drain);
+    }
+
+    @Override
+    public void createRetail(CreateRetailRequest request, StreamObserver<RetailItem> responseObserver) {
+        respond(responseObserver, () -> RetailProtoMapper.toItem(
+                retailService.createRetail(validated(RetailProtoMapper.toRetail(request.getRetail())))));
+    }
+
+    @Override
+    public void updateRetail(UpdateRetailRequest request, StreamObserver<RetailItem> responseObserver) {
+        respond(responseObserver, () -> RetailProtoMapper.toItem(
+                retailService.updateRetail(request.getId(), validated(RetailProtoMapper.toRetail(request.getRetail())))));
+    }
+
+    @Override
+    public void deleteRetail(DeleteRetailRequest request, StreamObserver<Empty> responseObserver) {
+        respond(responseObserver, () -> {
+            retailService.deleteRetail(request.getId());
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    @Override
+    public void adjustStock(AdjustStockRequest request, StreamObserver<RetailItem> responseObserver) {
+        respond(responseObserver, () -> RetailProtoMapper.toItem(
+                retailService.adjustStock(request.getId(), request.getDelta())));
+    }
+
+    /**
+     * Apply the bean validation constraints that @Valid enforces on the REST API
+     */
+    private Retail validated(Retail retail) {
+        Set<ConstraintViolation<Retail>> violations = validator.validate(retail);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Validation failed: " + violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return retail;
+    }
+
+    private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(GrpcStatusMapper.toStatusException(ex));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Streams a category one page at a time, fetching the next page only when the client has
+     * drained the previous one, so a slow consumer never makes the server buffer the whole category.
+     */
+    private final class CategoryStream {
+
+        private final String category;
+        private final ServerCallStreamObserver<RetailItem> call;
+        private final ArrayDeque<Retail> buffer = new ArrayDeque<>();
+        private int nextPage;
+        private boolean exhausted;
+        private boolean done;
+
+        CategoryStream(String category, ServerCallStreamObserver<RetailItem> call) {
+            this.category = category;
+            this.call = call;
+        }
+
+        synchronized void cancel() {
+            done = true;
+        }
+
+        synchronized void drain() {
+            if (done) {
+                return;
+            }
+            try {
+                while (call.isReady()) {
+                    if (buffer.isEmpty()) {
+                        if (exhausted) {
+                            done = true;
+                            call.onCompleted();
+                            return;
+                        }
+                        fetchNextPage();
+                        continue;
+                    }
+                    call.onNext(RetailProtoMapper.toItem(buffer.poll()));
+                }
+            } catch (RuntimeException ex) {
+                done = true;
+                call.onError(GrpcStatusMapper.toStatusException(ex));
+            }
+        }
+
+        private void fetchNextPage() {
+            int page = nextPage++;
+            Optional<List<Retail>> fromSnapshot =
+                    catalogSnapshot.findByCategory(category, (long) page * streamPageSize, streamPageSize);
+            List<Retail> retails = fromSnapshot
+                    .orElseGet(() -> retailService.getRetailsByCategory(category, page, streamPageSize));
+            buffer.addAll(retails);
+            exhausted = retails.size() < streamPageSize;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.retail.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC services on their own HTTP/2 port inside the application process. Started after
+ * the application context is refreshed and stopped, with a grace period for in-flight calls,
+ * before the beans it uses are destroyed.
+ */
+public class RetailGrpcServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(RetailGrpcServer.class);
+
+    private final List<BindableService> services;
+    private final int port;
+    private final int maxConcurrentCallsPerConnection;
+    private final Duration shutdownGracePeriod;
+    private volatile Server server;
+
+    public RetailGrpcServer(List<BindableService> services,
+                            int port,
+                            int maxConcurrentCallsPerConnection,
+                            Duration shutdownGracePeriod) {
+        this.services = services;
+        this.port = port;
+        this.maxConcurrentCallsPerConnection = maxConcurrentCallsPerConnection;
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+
+    @Override
+    public void start() {
+        NettyServerBuilder builder = NettyServerBuilder.forPort(port)
+                .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection);
+        services.forEach(builder::addService);
+        try {
+            server = builder.build().start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, ex);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Get the port the server is listening on; differs from the configured port when that is 0
+     * @return the bound port, or -1 if the server is not running
+     */
+    public int getPort() {
+        Server running = server;
+        return running != null ? running.getPort() : -1;
+    }
+}
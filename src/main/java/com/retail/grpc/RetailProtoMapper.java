@@ -0,0 +1,61 @@
+package com.retail.grpc;
+
+import com.google.protobuf.Timestamp;
+import com.retail.entity.Retail;
+import com.retail.grpc.proto.RetailFields;
+import com.retail.grpc.proto.RetailItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Converts between the {@link Retail} entity and its protobuf messages. Prices travel as cents and
+ * timestamps as instants in the server's time zone, which is the zone the entity stamps them in.
+ */
+final class RetailProtoMapper {
+
+    private RetailProtoMapper() {
+    }
+
+    static RetailItem toItem(Retail retail) {
+        RetailItem.Builder item = RetailItem.newBuilder()
+                .setId(retail.getId())
+                .setProductName(retail.getProductName())
+                .setCategory(retail.getCategory())
+                .setPriceCents(retail.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact())
+                .setQuantity(retail.getQuantity());
+        if (retail.getDescription() != null) {
+            item.setDescription(retail.getDescription());
+        }
+        if (retail.getCreatedAt() != null) {
+            item.setCreatedAt(toTimestamp(retail.getCreatedAt()));
+        }
+        if (retail.getUpdatedAt() != null) {
+            item.setUpdatedAt(toTimestamp(retail.getUpdatedAt()));
+        }
+        return item.build();
+    }
+
+    static Retail toRetail(RetailFields fields) {
+        Retail retail = new Retail(
+                fields.getProductName(),
+                fields.getCategory(),
+                BigDecimal.valueOf(fields.getPriceCents(), 2),
+                fields.getQuantity());
+        if (fields.hasDescription()) {
+            retail.setDescription(fields.getDescription());
+        }
+        return retail;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        Instant instant = time.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.retail.history;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Aggregated price and stock movement of all retail items in a category over one time bucket
+ */
+public class CategoryHistoryRollup {
+
+    private final Instant bucketStart;
+    private final long changes;
+    private final BigDecimal lowPrice;
+    private final BigDecimal highPrice;
+    private final long quantityChange;
+
+    public CategoryHistoryRollup(Instant bucketStart, long changes,
+                                 BigDecimal lowPrice, BigDecimal highPrice, long quantityChange) {
+        this.bucketStart = bucketStart;
+        this.changes = changes;
+        this.lowPrice = lowPrice;
+        this.highPrice = highPrice;
+        this.quantityChange = quantityChange;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    /**
+     * @return the number of recorded changes in the category in the bucket
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the lowest price any item in the category had in the bucket
+     */
+    public BigDecimal getLowPrice() {
+        return lowPrice;
+    }
+
+    /**
+     * @return the highest price any item in the category had in the bucket
+     */
+    public BigDecimal getHighPrice() {
+        return highPrice;
+    }
+
+    /**
+     * @return the net change in stock across the category over the bucket
+     */
+    public long getQuantityChange() {
+        return quantityChange;
+    }
+}
@@ -0,0 +1,157 @@
+package com.retail.history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a run of history points for one retail item.
+ *
+ * Each point is stored as the difference from the previous point in timestamp (milliseconds),
+ * price (cents) and quantity, zigzag-encoded so small negative changes stay small, and written
+ * as a varint. A typical price or stock change therefore costs 3-6 bytes instead of the 20 of a
+ * fixed-width row.
+ */
+public final class HistoryChunkCodec {
+
+    private static final byte VERSION = 1;
+
+    private HistoryChunkCodec() {
+    }
+
+    /**
+     * Encode points, which must be ordered by timestamp
+     * @param timestamps epoch milliseconds of each point
+     * @param prices price in cents of each point
+     * @param quantities quantity of each point
+     * @param count the number of points to encode
+     * @return the encoded chunk
+     */
+    public static byte[] encode(long[] timestamps, long[] prices, long[] quantities, int count) {
+        Writer writer = new Writer(8 + count * 6);
+        writer.buffer[writer.length++] = VERSION;
+        writer.writeVarint(count);
+        long previousTimestamp = 0;
+        long previousPrice = 0;
+        long previousQuantity = 0;
+        for (int i = 0; i < count; i++) {
+            writer.writeVarint(zigzag(timestamps[i] - previousTimestamp));
+            writer.writeVarint(zigzag(prices[i] - previousPrice));
+            writer.writeVarint(zigzag(quantities[i] - previousQuantity));
+            previousTimestamp = timestamps[i];
+            previousPrice = prices[i];
+            previousQuantity = quantities[i];
+        }
+        return Arrays.copyOf(writer.buffer, writer.length);
+    }
+
+    /**
+     * Decode a chunk produced by {@link #encode}
+     * @param chunk the encoded chunk
+     * @return the points in the order they were encoded
+     */
+    public static List<Point> decode(byte[] chunk) {
+        Reader reader = new Reader(chunk);
+        if (reader.readByte() != VERSION) {
+            throw new IllegalStateException("Unsupported history chunk version");
+        }
+        int count = (int) reader.readVarint();
+        List<Point> points = new ArrayList<>(count);
+        long timestamp = 0;
+        long price = 0;
+        long quantity = 0;
+        for (int i = 0; i < count; i++) {
+            timestamp += unzigzag(reader.readVarint());
+            price += unzigzag(reader.readVarint());
+            quantity += unzigzag(reader.readVarint());
+            points.add(new Point(timestamp, price, quantity));
+        }
+        return points;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * A decoded point: epoch milliseconds, price in cents and quantity
+     */
+    public static final class Point {
+
+        private final long timestamp;
+        private final long priceCents;
+        private final long quantity;
+
+        public Point(long timestamp, long priceCents, long quantity) {
+            this.timestamp = timestamp;
+            this.priceCents = priceCents;
+            this.quantity = quantity;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getPriceCents() {
+            return priceCents;
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int length;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeVarint(long value) {
+            if (buffer.length - length < 10) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2 + 10);
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 63) {
+                    throw new IllegalStateException("Malformed varint in history chunk");
+                }
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
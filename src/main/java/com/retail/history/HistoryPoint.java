@@ -0,0 +1,32 @@
+package com.retail.history;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The price and quantity of a retail item as recorded by one change
+ */
+public class HistoryPoint {
+
+    private final Instant timestamp;
+    private final BigDecimal price;
+    private final long quantity;
+
+    public HistoryPoint(Instant timestamp, BigDecimal price, long quantity) {
+        this.timestamp = timestamp;
+        this.price = price;
+        this.quantity = quantity;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+}
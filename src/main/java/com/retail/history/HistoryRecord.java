@@ -0,0 +1,56 @@
+package com.retail.history;
+
+/**
+ * One committed price or stock change waiting to be written to the history store
+ */
+final class HistoryRecord {
+
+    private final long retailId;
+    private final String category;
+    private final long timestamp;
+    private final long priceCents;
+    private final long quantity;
+    private final long quantityChange;
+
+    HistoryRecord(long retailId, String category, long timestamp, long priceCents, long quantity, long quantityChange) {
+        this.retailId = retailId;
+        this.category = category;
+        this.timestamp = timestamp;
+        this.priceCents = priceCents;
+        this.quantity = quantity;
+        this.quantityChange = quantityChange;
+    }
+
+    long getRetailId() {
+        return retailId;
+    }
+
+    /**
+     * @return the normalized category the item was in when it changed
+     */
+    String getCategory() {
+        return category;
+    }
+
+    /**
+     * @return epoch milliseconds of the change
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    long getPriceCents() {
+        return priceCents;
+    }
+
+    long getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return the quantity after the change minus the quantity before it
+     */
+    long getQuantityChange() {
+        return quantityChange;
+    }
+}
@@ -0,0 +1,42 @@
+package com.retail.history;
+
+import java.util.Locale;
+
+/**
+ * Time bucket sizes of the history rollups. Buckets are aligned to UTC.
+ */
+public enum HistoryResolution {
+
+    HOUR(3_600_000L),
+    DAY(86_400_000L);
+
+    private final long bucketMillis;
+
+    HistoryResolution(long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * @param epochMillis a point in time
+     * @return the start of the bucket containing it
+     */
+    public long bucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, bucketMillis) * bucketMillis;
+    }
+
+    /**
+     * Parse a resolution as supplied by a client (case-insensitive)
+     * @throws IllegalArgumentException if the resolution is unknown
+     */
+    public static HistoryResolution parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown history resolution '" + value + "', expected hour or day");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.retail.history;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Aggregated price and stock movement of one retail item over one time bucket
+ */
+public class HistoryRollup {
+
+    private final Instant bucketStart;
+    private final long changes;
+    private final BigDecimal openPrice;
+    private final BigDecimal highPrice;
+    private final BigDecimal lowPrice;
+    private final BigDecimal closePrice;
+    private final long minQuantity;
+    private final long maxQuantity;
+    private final long closeQuantity;
+    private final long quantityChange;
+
+    public HistoryRollup(Instant bucketStart, long changes,
+                         BigDecimal openPrice, BigDecimal highPrice, BigDecimal lowPrice, BigDecimal closePrice,
+                         long minQuantity, long maxQuantity, long closeQuantity, long quantityChange) {
+        this.bucketStart = bucketStart;
+        this.changes = changes;
+        this.openPrice = openPrice;
+        this.highPrice = highPrice;
+        this.lowPrice = lowPrice;
+        this.closePrice = closePrice;
+        this.minQuantity = minQuantity;
+        this.maxQuantity = maxQuantity;
+        this.closeQuantity = closeQuantity;
+        this.quantityChange = quantityChange;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    /**
+     * @return the number of recorded changes in the bucket
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    public BigDecimal getOpenPrice() {
+        return openPrice;
+    }
+
+    public BigDecimal getHighPrice() {
+        return highPrice;
+    }
+
+    public BigDecimal getLowPrice() {
+        return lowPrice;
+    }
+
+    public BigDecimal getClosePrice() {
+        return closePrice;
+    }
+
+    public long getMinQuantity() {
+        return minQuantity;
+    }
+
+    public long getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    public long getCloseQuantity() {
+        return closeQuantity;
+    }
+
+    /**
+     * @return the net change in quantity over the bucket
+     */
+    public long getQuantityChange() {
+        return quantityChange;
+    }
+}
@@ -0,0 +1,367 @@
+package com.retail.history;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * JDBC storage of the price and stock history, in the primary database.
+ *
+ * Raw changes are appended as {@link HistoryChunkCodec}-encoded chunks, one row per retail item per
+ * write and at most {@link #MAX_CHUNK_SPAN_MILLIS} apart, and are never updated. Hourly and daily
+ * rollups per item and per category are folded in by the same write, so range queries over long
+ * periods read one small row per bucket instead of decoding every change.
+ *
+ * Rollups are merged by an UPDATE, then an INSERT of the buckets it found no row for. With several
+ * nodes sharing the database, another node may insert the same bucket in between; the INSERT then
+ * fails with a duplicate key and the caller retries the whole write.
+ */
+public class HistoryStore {
+
+    /**
+     * The longest time between the first and last change of a chunk. Bounding it lets range
+     * queries bound {@code first_at} from both sides and stay on the {@code (retail_id, first_at)}
+     * index instead of scanning every older chunk of the item
+     */
+    static final long MAX_CHUNK_SPAN_MILLIS = 3_600_000L;
+
+    private static final String UPDATE_ROLLUP = "UPDATE retail_history_rollups SET "
+            + "changes = changes + ?, "
+            + "open_price = CASE WHEN first_at > ? THEN ? ELSE open_price END, "
+            + "first_at = LEAST(first_at, ?), "
+            + "close_price = CASE WHEN last_at <= ? THEN ? ELSE close_price END, "
+            + "close_quantity = CASE WHEN last_at <= ? THEN ? ELSE close_quantity END, "
+            + "last_at = GREATEST(last_at, ?), "
+            + "high_price = GREATEST(high_price, ?), low_price = LEAST(low_price, ?), "
+            + "min_quantity = LEAST(min_quantity, ?), max_quantity = GREATEST(max_quantity, ?), "
+            + "quantity_change = quantity_change + ? "
+            + "WHERE retail_id = ? AND resolution = ? AND bucket_start = ?";
+
+    private static final String INSERT_ROLLUP = "INSERT INTO retail_history_rollups (retail_id, resolution, "
+            + "bucket_start, changes, first_at, open_price, last_at, close_price, close_quantity, "
+            + "high_price, low_price, min_quantity, max_quantity, quantity_change) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_CATEGORY_ROLLUP = "UPDATE retail_history_category_rollups SET "
+            + "changes = changes + ?, high_price = GREATEST(high_price, ?), low_price = LEAST(low_price, ?), "
+            + "quantity_change = quantity_change + ? "
+            + "WHERE category = ? AND resolution = ? AND bucket_start = ?";
+
+    private static final String INSERT_CATEGORY_ROLLUP = "INSERT INTO retail_history_category_rollups "
+            + "(category, resolution, bucket_start, changes, high_price, low_price, quantity_change) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HistoryStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS retail_history_chunks ("
+                + "chunk_id BIGINT AUTO_INCREMENT PRIMARY KEY, retail_id BIGINT NOT NULL, "
+                + "first_at BIGINT NOT NULL, last_at BIGINT NOT NULL, point_count INT NOT NULL, "
+                + "data VARBINARY NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_history_chunks_retail "
+                + "ON retail_history_chunks (retail_id, first_at)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS retail_history_rollups ("
+                + "retail_id BIGINT NOT NULL, resolution VARCHAR(8) NOT NULL, bucket_start BIGINT NOT NULL, "
+                + "changes BIGINT NOT NULL, first_at BIGINT NOT NULL, open_price BIGINT NOT NULL, "
+                + "last_at BIGINT NOT NULL, close_price BIGINT NOT NULL, close_quantity BIGINT NOT NULL, "
+                + "high_price BIGINT NOT NULL, low_price BIGINT NOT NULL, "
+                + "min_quantity BIGINT NOT NULL, max_quantity BIGINT NOT NULL, quantity_change BIGINT NOT NULL, "
+                + "PRIMARY KEY (retail_id, resolution, bucket_start))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS retail_history_category_rollups ("
+                + "category VARCHAR(50) NOT NULL, resolution VARCHAR(8) NOT NULL, bucket_start BIGINT NOT NULL, "
+                + "changes BIGINT NOT NULL, high_price BIGINT NOT NULL, low_price BIGINT NOT NULL, "
+                + "quantity_change BIGINT NOT NULL, PRIMARY KEY (category, resolution, bucket_start))");
+    }
+
+    /**
+     * Append a batch of changes and fold them into the rollups. Call inside a transaction so the
+     * chunks and rollups are written together.
+     * @throws org.springframework.dao.DuplicateKeyException if another writer created one of the
+     *         rollup buckets concurrently; roll back and append the batch again
+     */
+    void append(List<HistoryRecord> records) {
+        Map<Long, List<HistoryRecord>> byRetail = new LinkedHashMap<>();
+        for (HistoryRecord record : records) {
+            byRetail.computeIfAbsent(record.getRetailId(), id -> new ArrayList<>()).add(record);
+        }
+        byRetail.values().forEach(changes -> changes.sort(Comparator.comparingLong(HistoryRecord::getTimestamp)));
+
+        appendChunks(byRetail);
+        for (HistoryResolution resolution : HistoryResolution.values()) {
+            mergeRollups(byRetail, resolution);
+            mergeCategoryRollups(records, resolution);
+        }
+    }
+
+    private void appendChunks(Map<Long, List<HistoryRecord>> byRetail) {
+        List<Object[]> rows = new ArrayList<>(byRetail.size());
+        byRetail.forEach((retailId, changes) -> {
+            int start = 0;
+            for (int i = 1; i <= changes.size(); i++) {
+                if (i == changes.size()
+                        || changes.get(i).getTimestamp() - changes.get(start).getTimestamp() > MAX_CHUNK_SPAN_MILLIS) {
+                    rows.add(chunkRow(retailId, changes.subList(start, i)));
+                    start = i;
+                }
+            }
+        });
+        jdbcTemplate.batchUpdate("INSERT INTO retail_history_chunks "
+                + "(retail_id, first_at, last_at, point_count, data) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private static Object[] chunkRow(long retailId, List<HistoryRecord> changes) {
+        int count = changes.size();
+        long[] timestamps = new long[count];
+        long[] prices = new long[count];
+        long[] quantities = new long[count];
+        for (int i = 0; i < count; i++) {
+            HistoryRecord record = changes.get(i);
+            timestamps[i] = record.getTimestamp();
+            prices[i] = record.getPriceCents();
+            quantities[i] = record.getQuantity();
+        }
+        return new Object[]{retailId, timestamps[0], timestamps[count - 1], count,
+                HistoryChunkCodec.encode(timestamps, prices, quantities, count)};
+    }
+
+    private void mergeRollups(Map<Long, List<HistoryRecord>> byRetail, HistoryResolution resolution) {
+        List<Rollup> rollups = new ArrayList<>();
+        byRetail.forEach((retailId, changes) -> {
+            Rollup current = null;
+            for (HistoryRecord record : changes) {
+                long bucketStart = resolution.bucketStart(record.getTimestamp());
+                if (current == null || current.bucketStart != bucketStart) {
+                    current = new Rollup(retailId, bucketStart, record);
+                    rollups.add(current);
+                } else {
+                    current.add(record);
+                }
+            }
+        });
+
+        List<Object[]> updates = new ArrayList<>(rollups.size());
+        for (Rollup r : rollups) {
+            updates.add(new Object[]{r.changes, r.firstAt, r.openPrice, r.firstAt,
+                    r.lastAt, r.closePrice, r.lastAt, r.closeQuantity, r.lastAt,
+                    r.highPrice, r.lowPrice, r.minQuantity, r.maxQuantity, r.quantityChange,
+                    r.key, resolution.name(), r.bucketStart});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_ROLLUP, updates);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Rollup r = rollups.get(i);
+                inserts.add(new Object[]{r.key, resolution.name(), r.bucketStart, r.changes,
+                        r.firstAt, r.openPrice, r.lastAt, r.closePrice, r.closeQuantity,
+                        r.highPrice, r.lowPrice, r.minQuantity, r.maxQuantity, r.quantityChange});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ROLLUP, inserts);
+        }
+    }
+
+    private void mergeCategoryRollups(List<HistoryRecord> records, HistoryResolution resolution) {
+        Map<CategoryBucket, Rollup> rollups = new LinkedHashMap<>();
+        for (HistoryRecord record : records) {
+            CategoryBucket key = new CategoryBucket(record.getCategory(), resolution.bucketStart(record.getTimestamp()));
+            Rollup rollup = rollups.get(key);
+            if (rollup == null) {
+                rollups.put(key, new Rollup(key.category, key.bucketStart, record));
+            } else {
+                rollup.add(record);
+            }
+        }
+
+        List<Rollup> merged = new ArrayList<>(rollups.values());
+        List<Object[]> updates = new ArrayList<>(merged.size());
+        for (Rollup r : merged) {
+            updates.add(new Object[]{r.changes, r.highPrice, r.lowPrice, r.quantityChange,
+                    r.key, resolution.name(), r.bucketStart});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_CATEGORY_ROLLUP, updates);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Rollup r = merged.get(i);
+                inserts.add(new Object[]{r.key, resolution.name(), r.bucketStart, r.changes,
+                        r.highPrice, r.lowPrice, r.quantityChange});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CATEGORY_ROLLUP, inserts);
+        }
+    }
+
+    /**
+     * Find the recorded changes of a retail item in a time range
+     * @param retailId the retail item ID
+     * @param from the start of the range (inclusive), epoch milliseconds
+     * @param to the end of the range (exclusive), epoch milliseconds
+     * @param limit the maximum number of points to return
+     * @return the earliest points in the range, ordered by time
+     */
+    List<HistoryPoint> findPoints(long retailId, long from, long to, int limit) {
+        List<HistoryChunkCodec.Point> points = new ArrayList<>();
+        // Chunks are written in roughly time order, so once enough points are collected the rest
+        // of the range need not be fetched or decoded. A chunk ending in the range started at most
+        // MAX_CHUNK_SPAN_MILLIS before it, which bounds the index range scanned.
+        try (Stream<byte[]> chunks = jdbcTemplate.queryForStream(
+                "SELECT data FROM retail_history_chunks WHERE retail_id = ? AND first_at >= ? AND first_at < ? "
+                        + "AND last_at >= ? ORDER BY first_at, chunk_id",
+                (rs, rowNum) -> rs.getBytes("data"), retailId, from - MAX_CHUNK_SPAN_MILLIS, to, from)) {
+            for (byte[] chunk : (Iterable<byte[]>) chunks::iterator) {
+                for (HistoryChunkCodec.Point point : HistoryChunkCodec.decode(chunk)) {
+                    if (point.getTimestamp() >= from && point.getTimestamp() < to) {
+                        points.add(point);
+                    }
+                }
+                if (points.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return points.stream()
+                .sorted(Comparator.comparingLong(HistoryChunkCodec.Point::getTimestamp))
+                .limit(limit)
+                .map(point -> new HistoryPoint(Instant.ofEpochMilli(point.getTimestamp()),
+                        toPrice(point.getPriceCents()), point.getQuantity()))
+                .toList();
+    }
+
+    /**
+     * Find the rollups of a retail item whose bucket starts in a time range
+     * @return the rollups ordered by bucket
+     */
+    List<HistoryRollup> findRollups(long retailId, HistoryResolution resolution, long from, long to) {
+        return jdbcTemplate.query(
+                "SELECT * FROM retail_history_rollups WHERE retail_id = ? AND resolution = ? "
+                        + "AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+                (rs, rowNum) -> new HistoryRollup(
+                        Instant.ofEpochMilli(rs.getLong("bucket_start")),
+                        rs.getLong("changes"),
+                        toPrice(rs.getLong("open_price")),
+                        toPrice(rs.getLong("high_price")),
+                        toPrice(rs.getLong("low_price")),
+                        toPrice(rs.getLong("close_price")),
+                        rs.getLong("min_quantity"),
+                        rs.getLong("max_quantity"),
+                        rs.getLong("close_quantity"),
+                        rs.getLong("quantity_change")),
+                retailId, resolution.name(), resolution.bucketStart(from), to);
+    }
+
+    /**
+     * Find the rollups of a normalized category whose bucket starts in a time range
+     * @return the rollups ordered by bucket
+     */
+    List<CategoryHistoryRollup> findCategoryRollups(String category, HistoryResolution resolution, long from, long to) {
+        return jdbcTemplate.query(
+                "SELECT * FROM retail_history_category_rollups WHERE category = ? AND resolution = ? "
+                        + "AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+                (rs, rowNum) -> new CategoryHistoryRollup(
+                        Instant.ofEpochMilli(rs.getLong("bucket_start")),
+                        rs.getLong("changes"),
+                        toPrice(rs.getLong("low_price")),
+                        toPrice(rs.getLong("high_price")),
+                        rs.getLong("quantity_change")),
+                category, resolution.name(), resolution.bucketStart(from), to);
+    }
+
+    private static BigDecimal toPrice(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class CategoryBucket {
+
+        private final String category;
+        private final long bucketStart;
+
+        CategoryBucket(String category, long bucketStart) {
+            this.category = category;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CategoryBucket other)) {
+                return false;
+            }
+            return bucketStart == other.bucketStart && category.equals(other.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(category, bucketStart);
+        }
+    }
+
+    /**
+     * Rollup of a run of changes in one bucket, keyed by retail ID or category
+     */
+    private static final class Rollup {
+
+        private final Object key;
+        private final long bucketStart;
+        private long changes;
+        private long firstAt;
+        private long openPrice;
+        private long lastAt;
+        private long closePrice;
+        private long closeQuantity;
+        private long highPrice;
+        private long lowPrice;
+        private long minQuantity;
+        private long maxQuantity;
+        private long quantityChange;
+
+        Rollup(Object key, long bucketStart, HistoryRecord first) {
+            this.key = key;
+            this.bucketStart = bucketStart;
+            this.firstAt = first.getTimestamp();
+            this.openPrice = first.getPriceCents();
+            this.highPrice = first.getPriceCents();
+            this.lowPrice = first.getPriceCents();
+            this.minQuantity = first.getQuantity();
+            this.maxQuantity = first.getQuantity();
+            this.lastAt = first.getTimestamp();
+            this.closePrice = first.getPriceCents();
+            this.closeQuantity = first.getQuantity();
+            this.changes = 1;
+            this.quantityChange = first.getQuantityChange();
+        }
+
+        void add(HistoryRecord record) {
+            changes++;
+            quantityChange += record.getQuantityChange();
+            highPrice = Math.max(highPrice, record.getPriceCents());
+            lowPrice = Math.min(lowPrice, record.getPriceCents());
+            minQuantity = Math.min(minQuantity, record.getQuantity());
+            maxQuantity = Math.max(maxQuantity, record.getQuantity());
+            if (record.getTimestamp() < firstAt) {
+                firstAt = record.getTimestamp();
+                openPrice = record.getPriceCents();
+            }
+            if (record.getTimestamp() >= lastAt) {
+                lastAt = record.getTimestamp();
+                closePrice = record.getPriceCents();
+                closeQuantity = record.getQuantity();
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.retail.history;
+
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import com.retail.index.CategoryIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every committed change to a retail item's price or quantity into the {@link HistoryStore}
+ * ({@code retail.history.enabled}).
+ *
+ * The after-commit listener only queues the change; a single background writer drains the queue
+ * every {@code flush-interval} and appends the batch in one transaction, so the request path never
+ * waits on history writes. If the queue is full the change is dropped from history and counted in
+ * {@code retail.history.dropped}. Changes replayed from other nodes are skipped, since the node that
+ * made them records them. History is kept when an item is deleted.
+ */
+@Component
+public class PriceStockHistory implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStockHistory.class);
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final HistoryStore store;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<HistoryRecord> queue;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    @Autowired
+    public PriceStockHistory(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${retail.history.enabled:true}") boolean enabled,
+                             @Value("${retail.history.queue-capacity:100000}") int queueCapacity,
+                             @Value("${retail.history.batch-size:5000}") int batchSize,
+                             @Value("${retail.history.flush-interval:1s}") Duration flushInterval) {
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("History queue capacity and batch size must be >= 1");
+        }
+        this.store = new HistoryStore(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("retail.history.queue.depth", queue, BlockingQueue::size)
+                .description("Price and stock changes waiting to be written to history")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("retail.history.dropped")
+                .description("Price and stock changes that could not be written to history")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRetailChange(RetailChangeEvent event) {
+        if (!enabled || event.isRemote() || event.getAfter() == null) {
+            return;
+        }
+        RetailState before = event.getBefore();
+        RetailState after = event.getAfter();
+        if (before != null
+                && Objects.equals(before.getQuantity(), after.getQuantity())
+                && before.getPrice() != null && after.getPrice() != null
+                && before.getPrice().compareTo(after.getPrice()) == 0) {
+            return;
+        }
+        long quantity = after.getQuantity() == null ? 0 : after.getQuantity();
+        long previousQuantity = before == null || before.getQuantity() == null ? 0 : before.getQuantity();
+        HistoryRecord record = new HistoryRecord(after.getId(), CategoryIndex.normalize(after.getCategory()),
+                event.getOccurredAt().toEpochMilli(), toCents(after.getPrice()), quantity, quantity - previousQuantity);
+        if (!queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Get the recorded changes of a retail item
+     * @param retailId the retail item ID
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @param limit the maximum number of points to return
+     * @return the earliest changes in the range, ordered by time
+     */
+    public List<HistoryPoint> getPoints(Long retailId, Instant from, Instant to, int limit) {
+        checkRange(from, to);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        return store.findPoints(retailId, from.toEpochMilli(), to.toEpochMilli(), limit);
+    }
+
+    /**
+     * Get the hourly or daily rollups of a retail item
+     * @param retailId the retail item ID
+     * @param resolution the bucket size
+     * @param from the start of the range; the bucket containing it is included
+     * @param to the end of the range (exclusive)
+     * @return the rollups of buckets with at least one change, ordered by time
+     */
+    public List<HistoryRollup> getRollups(Long retailId, HistoryResolution resolution, Instant from, Instant to) {
+        checkRange(from, to);
+        return store.findRollups(retailId, resolution, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Get the hourly or daily rollups of a category. A change counts towards the category the
+     * item was in when it was made.
+     * @param category the category (case-insensitive)
+     * @param resolution the bucket size
+     * @param from the start of the range; the bucket containing it is included
+     * @param to the end of the range (exclusive)
+     * @return the rollups of buckets with at least one change, ordered by time
+     */
+    public List<CategoryHistoryRollup> getCategoryRollups(String category, HistoryResolution resolution,
+                                                          Instant from, Instant to) {
+        checkRange(from, to);
+        return store.findCategoryRollups(CategoryIndex.normalize(category), resolution,
+                from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    private void checkRange(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("History range start must be before its end");
+        }
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Write everything queued so far
+     * @return the number of changes written
+     */
+    int flush() {
+        List<HistoryRecord> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+        int written = 0;
+        int drained;
+        // Keep going only while the batches are full, so a trickle of changes is written once per
+        // flush interval as one chunk per item rather than as many single-point chunks
+        do {
+            drained = queue.drainTo(batch, batchSize);
+            if (drained == 0) {
+                break;
+            }
+            try {
+                write(batch);
+                written += batch.size();
+            } catch (RuntimeException ex) {
+                log.error("Failed to write {} changes to history", batch.size(), ex);
+                dropped.increment(batch.size());
+            }
+            batch.clear();
+        } while (drained == batchSize);
+        return written;
+    }
+
+    /**
+     * Append a batch in one transaction. Another node can insert a rollup bucket between this node's
+     * UPDATE finding no row and its INSERT; the duplicate key rolls the whole batch back, and writing
+     * it again folds it into that node's row, so the batch is retried rather than dropped.
+     */
+    private void write(List<HistoryRecord> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> store.append(batch));
+                return;
+            } catch (DuplicateKeyException ex) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw ex;
+                }
+                log.debug("History rollup created concurrently, retrying batch of {} changes", batch.size());
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        store.createSchema();
+        running = true;
+        Thread thread = new Thread(this::writeLoop, "retail-history-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop the writer after it has written everything already queued
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, so the schema exists before the first request
+     * and changes made by the last requests are still written
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException ex) {
+                log.error("Unexpected error in history writer", ex);
+            }
+        }
+        flush();
+    }
+}
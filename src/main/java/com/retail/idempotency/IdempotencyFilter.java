@@ -0,0 +1,258 @@
+package com.retail.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.exception.GlobalExceptionHandler.ErrorResponse;
+import com.retail.ratelimit.ClientIdentityResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Makes write requests carrying an {@code Idempotency-Key} header safe to retry. The first request
+ * with a key is processed normally and its response is stored; a retry with the same key and the
+ * same method, URI and body is answered from the store, with an {@code Idempotent-Replayed} header,
+ * without reaching the controllers.
+ *
+ * A retry that arrives while the first request is still running gets 409 Conflict with Retry-After;
+ * reusing a key for a different request gets 422 Unprocessable Entity. Server errors, 429 and 503
+ * are not stored, so the request can be retried for real. Keys are scoped per client, identified
+ * like the rate limiter does by a configured API key or the remote address.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyProperties properties;
+    private final ClientIdentityResolver clientIdentity;
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Counter replayed;
+    private final Counter conflicts;
+    private final Counter mismatches;
+
+    public IdempotencyFilter(IdempotencyProperties properties,
+                             ClientIdentityResolver clientIdentity,
+                             IdempotencyStore store,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clientIdentity = clientIdentity;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.replayed = outcomeCounter(meterRegistry, "replayed");
+        this.conflicts = outcomeCounter(meterRegistry, "in_progress");
+        this.mismatches = outcomeCounter(meterRegistry, "mismatch");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("retail.idempotency.requests")
+                .description("Write requests with an idempotency key that did not reach a controller")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !WRITE_METHODS.contains(request.getMethod()) || request.getHeader(properties.getHeader()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(properties.getHeader());
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST,
+                    properties.getHeader() + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        if (request.getContentLengthLong() > properties.getMaxBodyBytes()) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large for an idempotent request");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(properties.getMaxBodyBytes() + 1);
+        if (body.length > properties.getMaxBodyBytes()) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large for an idempotent request");
+            return;
+        }
+
+        String key = clientIdentity.resolve(request) + '|' + idempotencyKey;
+        String fingerprint = fingerprint(request, body);
+        IdempotencyStore.Entry existing = store.begin(key, fingerprint);
+        if (existing != null) {
+            answerFromStore(existing, fingerprint, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+            stored = storeResponse(key, responseWrapper);
+        } finally {
+            if (!stored) {
+                store.release(key);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void answerFromStore(IdempotencyStore.Entry entry, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        if (!entry.getFingerprint().equals(fingerprint)) {
+            mismatches.increment();
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    properties.getHeader() + " was already used for a different request");
+            return;
+        }
+        IdempotencyStore.CachedResponse cached = entry.getResponse();
+        if (cached == null) {
+            conflicts.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            reject(response, HttpStatus.CONFLICT,
+                    "A request with this " + properties.getHeader() + " is still being processed");
+            return;
+        }
+        replayed.increment();
+        response.setStatus(cached.getStatus());
+        cached.getHeaders().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+    }
+
+    private boolean storeResponse(String key, ContentCachingResponseWrapper response) {
+        int status = response.getStatus();
+        if (status >= HttpStatus.INTERNAL_SERVER_ERROR.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value()
+                || response.getContentSize() > properties.getMaxBodyBytes()) {
+            return false;
+        }
+        Map<String, String> headers = new HashMap<>();
+        for (String name : REPLAYED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        store.complete(key, new IdempotencyStore.CachedResponse(status, headers, response.getContentAsByteArray()));
+        return true;
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.value(), message, LocalDateTime.now()));
+    }
+
+    /**
+     * Request whose body has already been read, served again from memory
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so the listener is told at once that data is
+                 * available and, once it has read it, that all data has been read
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException ex) {
+                        readListener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.retail.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for Idempotency-Key handling of the write endpoints
+ */
+@ConfigurationProperties(prefix = "retail.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    private String header = "Idempotency-Key";
+    private String clientHeader = "X-API-Key";
+    private Duration ttl = Duration.ofHours(24);
+    private int maxEntries = 100_000;
+    private int maxBodyBytes = 64 * 1024;
+    private long maxTotalBytes = 64L * 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    /**
+     * @return the header identifying the client; keys are scoped per client, identified by one of
+     * {@code retail.api-keys} or else the remote address
+     */
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    /**
+     * @return how long a response is kept for replay
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the largest request body accepted, and the largest response body stored, with a key
+     */
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * @return the most response body bytes kept for replay across all keys; the oldest keys are evicted beyond it
+     */
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    public void setMaxTotalBytes(long maxTotalBytes) {
+        this.maxTotalBytes = maxTotalBytes;
+    }
+}
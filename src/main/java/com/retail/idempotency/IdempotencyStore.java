@@ -0,0 +1,169 @@
+package com.retail.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, expiring map from idempotency key to the request it was first used with and, once
+ * that request has finished, its response.
+ *
+ * Entries are kept in insertion order and all live for the same TTL, so expired entries are always
+ * at the head and are dropped there on each access; when the store is full, or the stored response
+ * bodies together exceed the byte budget, the oldest entries are evicted. Thread-safe.
+ */
+public class IdempotencyStore {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxTotalBytes;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long totalBytes;
+
+    public IdempotencyStore(long ttlNanos, int maxEntries, long maxTotalBytes, LongSupplier clock) {
+        if (ttlNanos <= 0 || maxEntries < 1 || maxTotalBytes < 1) {
+            throw new IllegalArgumentException("Idempotency TTL, max entries and max total bytes must be positive");
+        }
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+        this.maxTotalBytes = maxTotalBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * Claim a key for a request, unless it is already in use
+     * @param key the client-scoped idempotency key
+     * @param fingerprint a digest of the request
+     * @return null if the key was claimed, or the existing entry for it
+     */
+    public synchronized Entry begin(String key, String fingerprint) {
+        long now = clock.getAsLong();
+        evictExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (entries.size() >= maxEntries) {
+            evictOldest();
+        }
+        entries.put(key, new Entry(fingerprint, now));
+        return null;
+    }
+
+    /**
+     * Store the response of a claimed key for replay, evicting the oldest other entries while the
+     * stored bodies exceed the byte budget
+     */
+    public synchronized void complete(String key, CachedResponse response) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        entry.response = response;
+        totalBytes += response.getBody().length;
+        while (totalBytes > maxTotalBytes && entries.values().iterator().next() != entry) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Release a claimed key without a response, so the request can be retried
+     */
+    public synchronized void release(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response == null) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the bytes of the response bodies currently stored
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry entry = oldest.next();
+            if (now - entry.createdNanos < ttlNanos) {
+                return;
+            }
+            oldest.remove();
+            totalBytes -= entry.bytes();
+        }
+    }
+
+    private void evictOldest() {
+        Iterator<Entry> oldest = entries.values().iterator();
+        Entry entry = oldest.next();
+        oldest.remove();
+        totalBytes -= entry.bytes();
+    }
+
+    /**
+     * A key in use: the fingerprint of the request that claimed it and, once it has finished, its response
+     */
+    public static final class Entry {
+
+        private final String fingerprint;
+        private final long createdNanos;
+        private volatile CachedResponse response;
+
+        Entry(String fingerprint, long createdNanos) {
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /**
+         * @return the response, or null while the request is still being processed
+         */
+        public CachedResponse getResponse() {
+            return response;
+        }
+
+        private long bytes() {
+            CachedResponse cached = response;
+            return cached == null ? 0 : cached.getBody().length;
+        }
+    }
+
+    /**
+     * The parts of a response replayed to a retry
+     */
+    public static final class CachedResponse {
+
+        private final int status;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        public CachedResponse(int status, Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.headers = Map.copyOf(headers);
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
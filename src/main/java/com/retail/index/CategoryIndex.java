@@ -0,0 +1,254 @@
+package com.retail.index;
+
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailResyncEvent;
+import com.retail.event.RetailState;
+import com.retail.repository.RetailCategoryEntry;
+import com.retail.repository.RetailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of category membership: normalized category to the sorted IDs of its retail items.
+ * Built once at startup and kept in sync with committed {@link RetailChangeEvent}s, so category
+ * listing, counting and pagination never need a case-insensitive scan of the retails table.
+ *
+ * Category listings are read without locking; writers serialize on the index and replace
+ * per-category sets wholesale. Each item's category is held as an ordinal in a
+ * {@link LongIntHashMap}, so the reverse mapping costs no boxed keys.
+ *
+ * A rebuild loads the table into a fresh index without holding the lock, so committing writes are
+ * not held up by the scan. Changes that arrive during the load are recorded and replayed onto the
+ * fresh index before it replaces the current one.
+ */
+@Component
+public class CategoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryIndex.class);
+
+    private final RetailRepository retailRepository;
+    private final Object rebuildLock = new Object();
+
+    private volatile State state = new State(16);
+    private List<RetailChangeEvent> changesDuringRebuild;
+    private volatile boolean ready;
+
+    @Autowired
+    public CategoryIndex(RetailRepository retailRepository) {
+        this.retailRepository = retailRepository;
+    }
+
+    /**
+     * Normalize a category the same way the repository's IgnoreCase queries compare it
+     * @param category the category as supplied by a client
+     * @return the index key
+     */
+    public static String normalize(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true once the initial load has completed and the index can answer queries
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Get the IDs of all retail items in a category
+     * @param category the category (case-insensitive)
+     * @return the IDs in ascending order, empty if the category is unknown
+     */
+    public SortedLongSet idsFor(String category) {
+        return state.idsByCategory.getOrDefault(normalize(category), SortedLongSet.EMPTY);
+    }
+
+    /**
+     * Count the retail items in a category
+     * @param category the category (case-insensitive)
+     * @return the number of retail items in the category
+     */
+    public int count(String category) {
+        return idsFor(category).size();
+    }
+
+    /**
+     * Get the category of a retail item
+     * @param id the retail item ID
+     * @return the normalized category, or null if the item is not indexed
+     */
+    public synchronized String categoryOf(long id) {
+        return state.categoryOf(id);
+    }
+
+    /**
+     * @return the number of retail items per normalized category
+     */
+    public Map<String, Integer> counts() {
+        Map<String, Integer> counts = new HashMap<>();
+        state.idsByCategory.forEach((category, ids) -> counts.put(category, ids.size()));
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload the whole index from the repository
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            State fresh;
+            List<RetailCategoryEntry> entries;
+            try {
+                entries = retailRepository.findAllCategoryEntries();
+                fresh = load(entries);
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+                throw ex;
+            }
+            synchronized (this) {
+                changesDuringRebuild.forEach(fresh::apply);
+                changesDuringRebuild = null;
+                state = fresh;
+                ready = true;
+            }
+            log.info("Category index built with {} items in {} categories",
+                    entries.size(), fresh.idsByCategory.size());
+        }
+    }
+
+    private static State load(List<RetailCategoryEntry> entries) {
+        State fresh = new State(entries.size());
+        Map<String, long[]> grouped = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        for (RetailCategoryEntry entry : entries) {
+            String key = normalize(entry.getCategory());
+            int size = sizes.getOrDefault(key, 0);
+            long[] ids = grouped.computeIfAbsent(key, k -> new long[8]);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                grouped.put(key, ids);
+            }
+            ids[size] = entry.getId();
+            sizes.put(key, size + 1);
+            fresh.ordinalById.put(entry.getId(), fresh.ordinalOf(key));
+        }
+        grouped.forEach((key, ids) ->
+                fresh.idsByCategory.put(key, SortedLongSet.of(Arrays.copyOf(ids, sizes.get(key)))));
+        return fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRetailChange(RetailChangeEvent event) {
+        apply(event);
+    }
+
+    @EventListener
+    public void onResync(RetailResyncEvent event) {
+        if (ready) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Apply a committed change to the index
+     * @param event the change
+     */
+    public synchronized void apply(RetailChangeEvent event) {
+        state.apply(event);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(event);
+        }
+    }
+
+    /**
+     * One generation of the index. Category sets are replaced in a concurrent map so listings can
+     * be read without the lock; the ordinal map is only touched under the index's lock.
+     */
+    private static final class State {
+
+        private final Map<String, SortedLongSet> idsByCategory = new ConcurrentHashMap<>();
+        private final LongIntHashMap ordinalById;
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, Integer> ordinals = new HashMap<>();
+
+        State(int expectedItems) {
+            this.ordinalById = new LongIntHashMap(expectedItems);
+        }
+
+        String categoryOf(long id) {
+            int ordinal = ordinalById.get(id);
+            return ordinal == LongIntHashMap.MISSING ? null : categories.get(ordinal);
+        }
+
+        int ordinalOf(String category) {
+            Integer ordinal = ordinals.get(category);
+            if (ordinal == null) {
+                ordinal = categories.size();
+                categories.add(category);
+                ordinals.put(category, ordinal);
+            }
+            return ordinal;
+        }
+
+        void apply(RetailChangeEvent event) {
+            switch (event.getType()) {
+                case CREATED, UPDATED -> put(event.getAfter());
+                case DELETED -> remove(event.getRetailId());
+                case CLEARED -> {
+                    idsByCategory.clear();
+                    ordinalById.clear();
+                }
+            }
+        }
+
+        private void put(RetailState retailState) {
+            String category = normalize(retailState.getCategory());
+            int previous = ordinalById.put(retailState.getId(), ordinalOf(category));
+            String previousCategory = previous == LongIntHashMap.MISSING ? null : categories.get(previous);
+            if (category.equals(previousCategory)) {
+                return;
+            }
+            if (previousCategory != null) {
+                removeFromCategory(previousCategory, retailState.getId());
+            }
+            idsByCategory.merge(category, SortedLongSet.of(retailState.getId()),
+                    (ids, ignored) -> ids.with(retailState.getId()));
+        }
+
+        private void remove(long id) {
+            int previous = ordinalById.remove(id);
+            if (previous != LongIntHashMap.MISSING) {
+                removeFromCategory(categories.get(previous), id);
+            }
+        }
+
+        private void removeFromCategory(String category, long id) {
+            idsByCategory.computeIfPresent(category, (key, ids) -> {
+                SortedLongSet remaining = ids.without(id);
+                return remaining.isEmpty() ? null : remaining;
+            });
+        }
+    }
+}
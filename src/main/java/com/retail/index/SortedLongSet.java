@@ -0,0 +1,125 @@
+package com.retail.index;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, sorted set of primitive longs backed by a single array.
+ * Mutators return a new instance, so readers can share instances without locking.
+ */
+public final class SortedLongSet {
+
+    public static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+
+    private final long[] values;
+
+    private SortedLongSet(long[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Build a set from arbitrary values; duplicates are removed
+     * @param values the values, in any order
+     * @return the set
+     */
+    public static SortedLongSet of(long... values) {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new SortedLongSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * @return a set that also contains the value, or this set if it is already present
+     */
+    public SortedLongSet with(long value) {
+        int pos = Arrays.binarySearch(values, value);
+        if (pos >= 0) {
+            return this;
+        }
+        int insertAt = -pos - 1;
+        long[] next = new long[values.length + 1];
+        System.arraycopy(values, 0, next, 0, insertAt);
+        next[insertAt] = value;
+        System.arraycopy(values, insertAt, next, insertAt + 1, values.length - insertAt);
+        return new SortedLongSet(next);
+    }
+
+    /**
+     * @return a set without the value, or this set if it is absent
+     */
+    public SortedLongSet without(long value) {
+        int pos = Arrays.binarySearch(values, value);
+        if (pos < 0) {
+            return this;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        long[] next = new long[values.length - 1];
+        System.arraycopy(values, 0, next, 0, pos);
+        System.arraycopy(values, pos + 1, next, pos, values.length - pos - 1);
+        return new SortedLongSet(next);
+    }
+
+    /**
+     * Copy a window of the set in ascending order
+     * @param offset the number of leading values to skip
+     * @param limit the maximum number of values to return
+     * @return the values in the window, possibly empty
+     */
+    public long[] slice(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        if (offset >= values.length) {
+            return new long[0];
+        }
+        int end = (int) Math.min((long) offset + limit, values.length);
+        return Arrays.copyOfRange(values, offset, end);
+    }
+
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SortedLongSet)) {
+            return false;
+        }
+        return Arrays.equals(values, ((SortedLongSet) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
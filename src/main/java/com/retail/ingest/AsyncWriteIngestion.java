@@ -0,0 +1,370 @@
+package com.retail.ingest;
+
+import com.retail.entity.Retail;
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.exception.WriteQueueFullException;
+import com.retail.service.RetailService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional asynchronous write path ({@code retail.ingest.enabled}). Writes are validated by the
+ * controller, queued, and answered with 202 Accepted and an operation ID to poll.
+ *
+ * Operations are partitioned over bounded lanes by product: by ID for existing items and by
+ * normalized product name for creates. Each lane has a single writer that drains up to
+ * {@code batch-size} operations and applies them through {@link RetailService} in one transaction,
+ * so operations on one product are applied in submission order and a burst costs one commit per
+ * batch instead of one per request. If a batch fails, it is rolled back and its operations are
+ * retried one transaction each, so one bad operation only fails itself.
+ *
+ * Completed operations are kept for polling for {@code retention}, but at most
+ * {@code max-retained} of them; beyond that the oldest completed operation is forgotten first.
+ * Pending operations are already bounded by the lane capacities.
+ */
+@Component
+public class AsyncWriteIngestion implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncWriteIngestion.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final RetailService retailService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long retentionNanos;
+    private final int maxRetained;
+
+    private final List<BlockingQueue<WriteOperation>> lanes;
+    private final Map<String, WriteOperation> operations = new ConcurrentHashMap<>();
+    // Completed operations, oldest first
+    private final Queue<WriteOperation> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+    private volatile long lastPurgeNanos = System.nanoTime();
+
+    @Autowired
+    public AsyncWriteIngestion(RetailService retailService,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${retail.ingest.enabled:false}") boolean enabled,
+                               @Value("${retail.ingest.lanes:4}") int laneCount,
+                               @Value("${retail.ingest.queue-capacity:1000}") int queueCapacity,
+                               @Value("${retail.ingest.batch-size:100}") int batchSize,
+                               @Value("${retail.ingest.retention:10m}") Duration retention,
+                               @Value("${retail.ingest.max-retained:10000}") int maxRetained) {
+        if (laneCount < 1 || queueCapacity < 1 || batchSize < 1 || maxRetained < 1) {
+            throw new IllegalArgumentException(
+                    "Ingest lanes, queue capacity, batch size and retained operations must be >= 1");
+        }
+        this.retailService = retailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retentionNanos = retention.toNanos();
+        this.maxRetained = maxRetained;
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        Gauge.builder("retail.ingest.queue.depth", lanes, queues -> queues.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Write operations waiting to be applied")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue the creation of a retail item
+     * @param retail the validated retail item to create
+     * @return the pending operation
+     * @throws WriteQueueFullException if the product's lane is full
+     */
+    public WriteOperation submitCreate(Retail retail) {
+        return submit(new WriteOperation(newOperationId(), WriteOperation.Type.CREATE, null, retail, 0),
+                retail.getProductName().trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Queue a full update of a retail item
+     * @param id the ID of the retail item to update
+     * @param retailDetails the validated new details
+     * @return the pending operation
+     * @throws WriteQueueFullException if the product's lane is full
+     */
+    public WriteOperation submitUpdate(Long id, Retail retailDetails) {
+        return submit(new WriteOperation(newOperationId(), WriteOperation.Type.UPDATE, id, retailDetails, 0), id);
+    }
+
+    /**
+     * Queue a partial update of a retail item
+     * @param id the ID of the retail item to update
+     * @param retailDetails the fields to change
+     * @return the pending operation
+     * @throws WriteQueueFullException if the product's lane is full
+     */
+    public WriteOperation submitPatch(Long id, Retail retailDetails) {
+        return submit(new WriteOperation(newOperationId(), WriteOperation.Type.PATCH, id, retailDetails, 0), id);
+    }
+
+    /**
+     * Queue the deletion of a retail item
+     * @param id the ID of the retail item to delete
+     * @return the pending operation
+     * @throws WriteQueueFullException if the product's lane is full
+     */
+    public WriteOperation submitDelete(Long id) {
+        return submit(new WriteOperation(newOperationId(), WriteOperation.Type.DELETE, id, null, 0), id);
+    }
+
+    /**
+     * Queue a stock adjustment of a retail item
+     * @param id the ID of the retail item
+     * @param delta the change in quantity
+     * @return the pending operation
+     * @throws WriteQueueFullException if the product's lane is full
+     */
+    public WriteOperation submitStockAdjustment(Long id, int delta) {
+        return submit(new WriteOperation(newOperationId(), WriteOperation.Type.ADJUST_STOCK, id, null, delta), id);
+    }
+
+    /**
+     * Get a write operation by ID; completed operations are kept for {@code retail.ingest.retention},
+     * or until {@code retail.ingest.max-retained} newer ones have completed
+     * @param operationId the operation ID
+     * @return the operation, or empty if it is unknown, has expired or was evicted
+     */
+    public Optional<WriteOperation> findOperation(String operationId) {
+        return Optional.ofNullable(operations.get(operationId));
+    }
+
+    private WriteOperation submit(WriteOperation operation, Object partitionKey) {
+        if (!running) {
+            throw new WriteQueueFullException("Asynchronous writes are not being accepted");
+        }
+        BlockingQueue<WriteOperation> lane = lanes.get(Math.floorMod(partitionKey.hashCode(), lanes.size()));
+        operations.put(operation.getOperationId(), operation);
+        if (!lane.offer(operation)) {
+            operations.remove(operation.getOperationId());
+            throw new WriteQueueFullException("Write queue is full, retry later");
+        }
+        return operation;
+    }
+
+    private static String newOperationId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < lanes.size(); i++) {
+            BlockingQueue<WriteOperation> lane = lanes.get(i);
+            Thread writer = new Thread(() -> drain(lane), "retail-ingest-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+        log.info("Asynchronous write ingestion started with {} lanes", lanes.size());
+    }
+
+    /**
+     * Stop accepting writes and wait, for up to 30 seconds in total, for the writers to apply
+     * everything already queued. Operations still queued after that are logged and abandoned.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MILLIS;
+        for (Thread writer : writers) {
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int undrained = lanes.stream().mapToInt(BlockingQueue::size).sum();
+        if (writers.stream().anyMatch(Thread::isAlive) || undrained > 0) {
+            log.warn("Write ingestion stopped with {} queued operations not applied", undrained);
+        }
+        writers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain(BlockingQueue<WriteOperation> lane) {
+        List<WriteOperation> batch = new ArrayList<>(batchSize);
+        while (running || !lane.isEmpty()) {
+            try {
+                WriteOperation first = lane.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    lane.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                purgeExpired();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                // writeBatch records failures on the operations; never let the writer die
+                log.error("Unexpected error in write ingestion", ex);
+                batch.forEach(operation -> fail(operation, ex));
+                batch.clear();
+            }
+        }
+    }
+
+    void writeBatch(List<WriteOperation> batch) {
+        List<Retail> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                List<Retail> applied = new ArrayList<>(batch.size());
+                for (WriteOperation operation : batch) {
+                    applied.add(apply(operation));
+                }
+                return applied;
+            });
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), ex);
+                return;
+            }
+            log.debug("Write batch of {} failed, retrying operations individually", batch.size(), ex);
+            for (WriteOperation operation : batch) {
+                writeOne(operation);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).succeeded(results.get(i));
+            retain(batch.get(i));
+        }
+    }
+
+    private void writeOne(WriteOperation operation) {
+        Retail result;
+        try {
+            result = transactionTemplate.execute(status -> apply(operation));
+        } catch (RuntimeException ex) {
+            fail(operation, ex);
+            return;
+        }
+        operation.succeeded(result);
+        retain(operation);
+    }
+
+    /**
+     * Apply an operation. The service receives a copy of the payload, because a rolled-back persist
+     * still leaves the ID and timestamps on the instance it was given; retrying with that instance
+     * would turn a create into a merge.
+     */
+    private Retail apply(WriteOperation operation) {
+        return switch (operation.getType()) {
+            case CREATE -> retailService.createRetail(copyOf(operation.getPayload()));
+            case UPDATE -> retailService.updateRetail(operation.getRetailId(), copyOf(operation.getPayload()));
+            case PATCH -> retailService.patchRetail(operation.getRetailId(), copyOf(operation.getPayload()));
+            case ADJUST_STOCK -> retailService.adjustStock(operation.getRetailId(), operation.getDelta());
+            case DELETE -> {
+                retailService.deleteRetail(operation.getRetailId());
+                yield null;
+            }
+        };
+    }
+
+    private static Retail copyOf(Retail payload) {
+        Retail copy = new Retail(payload.getProductName(), payload.getCategory(), payload.getPrice(),
+                payload.getQuantity());
+        copy.setId(payload.getId());
+        copy.setDescription(payload.getDescription());
+        copy.setCreatedAt(payload.getCreatedAt());
+        copy.setUpdatedAt(payload.getUpdatedAt());
+        return copy;
+    }
+
+    private void fail(WriteOperation operation, RuntimeException ex) {
+        if (ex instanceof ResourceNotFoundException) {
+            operation.failed(HttpStatus.NOT_FOUND.value(), ex.getMessage());
+        } else if (ex instanceof ResourceAlreadyExistsException) {
+            operation.failed(HttpStatus.CONFLICT.value(), ex.getMessage());
+        } else if (ex instanceof IllegalArgumentException) {
+            operation.failed(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+        } else {
+            log.error("Write operation {} failed", operation.getOperationId(), ex);
+            operation.failed(HttpStatus.INTERNAL_SERVER_ERROR.value(), "An unexpected error occurred: " + ex.getMessage());
+        }
+        retain(operation);
+    }
+
+    /**
+     * Keep a completed operation for polling, forgetting the oldest completed one if there are
+     * more than {@code max-retained}
+     */
+    private void retain(WriteOperation operation) {
+        completed.add(operation);
+        if (completedCount.incrementAndGet() > maxRetained) {
+            WriteOperation oldest = completed.poll();
+            if (oldest != null) {
+                forget(oldest);
+            }
+        }
+    }
+
+    private void forget(WriteOperation operation) {
+        completedCount.decrementAndGet();
+        operations.remove(operation.getOperationId());
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        if (now - lastPurgeNanos < TimeUnit.SECONDS.toNanos(1)) {
+            return;
+        }
+        lastPurgeNanos = now;
+        WriteOperation oldest;
+        while ((oldest = completed.peek()) != null && now - oldest.getCompletedNanos() > retentionNanos) {
+            // Another writer may have taken it first
+            if (completed.remove(oldest)) {
+                forget(oldest);
+            }
+        }
+    }
+}
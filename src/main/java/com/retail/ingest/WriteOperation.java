@@ -0,0 +1,116 @@
+package com.retail.ingest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.retail.entity.Retail;
+import com.retail.exception.GlobalExceptionHandler.ErrorResponse;
+
+import java.time.LocalDateTime;
+
+/**
+ * A write accepted for asynchronous processing. Clients poll it by operation ID until it is
+ * {@link Status#SUCCEEDED} or {@link Status#FAILED}; the error carries the HTTP status the
+ * synchronous API would have answered with.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WriteOperation {
+
+    public enum Type {
+        CREATE, UPDATE, PATCH, DELETE, ADJUST_STOCK
+    }
+
+    public enum Status {
+        PENDING, SUCCEEDED, FAILED
+    }
+
+    private final String operationId;
+    private final Type type;
+    private final Long retailId;
+    private final int delta;
+    private final LocalDateTime submittedAt;
+
+    private volatile Retail payload;
+    private volatile Status status = Status.PENDING;
+    private volatile Retail result;
+    private volatile ErrorResponse error;
+    private volatile LocalDateTime completedAt;
+    private volatile long completedNanos;
+
+    WriteOperation(String operationId, Type type, Long retailId, Retail payload, int delta) {
+        this.operationId = operationId;
+        this.type = type;
+        this.retailId = retailId;
+        this.payload = payload;
+        this.delta = delta;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    void succeeded(Retail result) {
+        this.result = result;
+        complete(Status.SUCCEEDED);
+    }
+
+    void failed(int httpStatus, String message) {
+        this.error = new ErrorResponse(httpStatus, message, LocalDateTime.now());
+        complete(Status.FAILED);
+    }
+
+    private void complete(Status status) {
+        // Only needed until the write is applied; completed operations are kept for polling
+        this.payload = null;
+        this.completedAt = LocalDateTime.now();
+        this.completedNanos = System.nanoTime();
+        // Written last: readers that see a final status also see the result or error
+        this.status = status;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getRetailId() {
+        Retail current = result;
+        return current != null ? current.getId() : retailId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Retail getResult() {
+        return result;
+    }
+
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return status != Status.PENDING;
+    }
+
+    Retail getPayload() {
+        return payload;
+    }
+
+    int getDelta() {
+        return delta;
+    }
+
+    long getCompletedNanos() {
+        return completedNanos;
+    }
+}
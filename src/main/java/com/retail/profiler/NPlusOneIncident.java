@@ -0,0 +1,47 @@
+package com.retail.profiler;
+
+import java.time.Instant;
+
+/**
+ * A request that ran the same SELECT shape at least {@code retail.profiler.n-plus-one-threshold}
+ * times, typically one query per row of an earlier result
+ */
+public class NPlusOneIncident {
+
+    private final String shape;
+    private final int executions;
+    private final double totalMillis;
+    private final String request;
+    private final Instant at;
+
+    public NPlusOneIncident(String shape, int executions, double totalMillis, String request, Instant at) {
+        this.shape = shape;
+        this.executions = executions;
+        this.totalMillis = totalMillis;
+        this.request = request;
+        this.at = at;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public int getExecutions() {
+        return executions;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    /**
+     * @return when the request finished
+     */
+    public Instant getAt() {
+        return at;
+    }
+}
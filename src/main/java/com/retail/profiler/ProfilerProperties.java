@@ -0,0 +1,76 @@
+package com.retail.profiler;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the built-in SQL profiler
+ */
+@ConfigurationProperties(prefix = "retail.profiler")
+public class ProfilerProperties {
+
+    private boolean enabled = false;
+    private Duration slowThreshold = Duration.ofMillis(100);
+    private int slowLogSize = 256;
+    private int maxShapes = 1000;
+    private int nPlusOneThreshold = 10;
+    private int nPlusOneLogSize = 128;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return statements that take at least this long are copied into the slow log
+     */
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public int getSlowLogSize() {
+        return slowLogSize;
+    }
+
+    public void setSlowLogSize(int slowLogSize) {
+        this.slowLogSize = slowLogSize;
+    }
+
+    /**
+     * @return the number of distinct query shapes tracked; further shapes are counted under one overflow entry
+     */
+    public int getMaxShapes() {
+        return maxShapes;
+    }
+
+    public void setMaxShapes(int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * @return how many times one request may run the same SELECT shape before it is reported as an N+1 pattern
+     */
+    public int getNPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+
+    public void setNPlusOneThreshold(int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    public int getNPlusOneLogSize() {
+        return nPlusOneLogSize;
+    }
+
+    public void setNPlusOneLogSize(int nPlusOneLogSize) {
+        this.nPlusOneLogSize = nPlusOneLogSize;
+    }
+}
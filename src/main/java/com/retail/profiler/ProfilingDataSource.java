@@ -0,0 +1,54 @@
+package com.retail.profiler;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Data source that reports every statement run through its connections to a {@link QueryProfiler}.
+ * Connections, statements and result sets are wrapped in plain delegating classes, so it sees the
+ * SQL issued by Hibernate and by {@code JdbcTemplate} alike. An execution is timed from the execute
+ * call until its result set is exhausted or closed, and counts the rows read or affected.
+ *
+ * Only the execute, batch, update count, {@code next} and close calls do any work in the wrappers;
+ * every other call is a direct call on the driver's object, with no reflection involved.
+ *
+ * Closing this data source closes the target if it is closeable, so it can replace a connection
+ * pool bean without leaking the pool on shutdown.
+ */
+public class ProfilingDataSource extends DelegatingDataSource implements Closeable {
+
+    private final QueryProfiler profiler;
+
+    public ProfilingDataSource(DataSource targetDataSource, QueryProfiler profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new ProfilingConnection(obtainTargetDataSource().getConnection(), profiler);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new ProfilingConnection(obtainTargetDataSource().getConnection(username, password), profiler);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException | RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.retail.profiler;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link QueryProfiler.Scope} for each request, so slow queries name the request that ran
+ * them and repeated SELECTs within one request are reported as N+1 incidents
+ */
+public class ProfilingScopeFilter extends OncePerRequestFilter {
+
+    private final QueryProfiler profiler;
+
+    public ProfilingScopeFilter(QueryProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryProfiler.Scope ignored = profiler.openScope(request.getMethod() + " " + request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
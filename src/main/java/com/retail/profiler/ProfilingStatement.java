@@ -0,0 +1,439 @@
+package com.retail.profiler;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Statement that reports its executions to a {@link QueryProfiler}. An execution is timed from the
+ * execute call until its result set is exhausted or closed, or for updates until the call returns
+ * or the update count is fetched, and counts the rows read or affected. Every other call goes
+ * straight to the driver's statement.
+ */
+class ProfilingStatement implements Statement {
+
+    private final Statement target;
+    private final Connection connection;
+    private final QueryProfiler profiler;
+    private final String preparedSql;
+    private String batchSql;
+    private QueryProfiler.Execution pending;
+
+    /**
+     * @param target the driver's statement
+     * @param connection the profiling connection that created it
+     * @param profiler the profiler to report to
+     * @param preparedSql the statement text for prepared and callable statements, otherwise null
+     */
+    ProfilingStatement(Statement target, Connection connection, QueryProfiler profiler, String preparedSql) {
+        this.target = target;
+        this.connection = connection;
+        this.profiler = profiler;
+        this.preparedSql = preparedSql;
+    }
+
+    /**
+     * A call to the driver that runs the statement
+     */
+    @FunctionalInterface
+    interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * Run a query, timing it until its result set is exhausted or closed
+     * @param sql the statement text, or null for the prepared text
+     */
+    final ResultSet profileQuery(String sql, SqlCall<ResultSet> call) throws SQLException {
+        QueryProfiler.Execution execution = begin(sql);
+        if (execution == null) {
+            return call.call();
+        }
+        ResultSet resultSet = run(execution, call);
+        return resultSet == null ? null : new ProfilingResultSet(resultSet, this, execution);
+    }
+
+    /**
+     * Run an update or batch, counting the rows it reports as affected
+     * @param sql the statement text, or null for the prepared or batched text
+     */
+    final <T> T profileUpdate(String sql, SqlCall<T> call) throws SQLException {
+        QueryProfiler.Execution execution = begin(sql);
+        if (execution == null) {
+            return call.call();
+        }
+        T result = run(execution, call);
+        execution.addRows(rowsOf(result));
+        execution.finish();
+        return result;
+    }
+
+    /**
+     * Run a statement of either kind; the caller fetches the result set or update count next, which
+     * finishes the execution
+     * @param sql the statement text, or null for the prepared text
+     */
+    final boolean profileExecute(String sql, SqlCall<Boolean> call) throws SQLException {
+        QueryProfiler.Execution execution = begin(sql);
+        if (execution == null) {
+            return call.call();
+        }
+        boolean hasResultSet = run(execution, call);
+        pending = execution;
+        return hasResultSet;
+    }
+
+    private QueryProfiler.Execution begin(String sql) {
+        finishPending();
+        String text = sql != null ? sql : preparedSql != null ? preparedSql : batchSql;
+        return text == null ? null : profiler.start(text);
+    }
+
+    private static <T> T run(QueryProfiler.Execution execution, SqlCall<T> call) throws SQLException {
+        try {
+            return call.call();
+        } catch (SQLException | RuntimeException ex) {
+            execution.fail();
+            throw ex;
+        }
+    }
+
+    private void finishPending() {
+        if (pending != null) {
+            pending.finish();
+            pending = null;
+        }
+    }
+
+    private static long rowsOf(Object result) {
+        long rows = 0;
+        if (result instanceof Number count) {
+            rows = count.longValue();
+        } else if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return Math.max(rows, 0);
+    }
+
+    // ---- profiled ----
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return profileQuery(sql, () -> target.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return profileUpdate(sql, () -> target.executeUpdate(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return profileUpdate(sql, () -> target.executeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return profileUpdate(sql, () -> target.executeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return profileUpdate(sql, () -> target.executeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return profileUpdate(sql, () -> target.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return profileUpdate(sql, () -> target.executeLargeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return profileUpdate(sql, () -> target.executeLargeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return profileUpdate(sql, () -> target.executeLargeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return profileExecute(sql, () -> target.execute(sql));
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return profileExecute(sql, () -> target.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return profileExecute(sql, () -> target.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return profileExecute(sql, () -> target.execute(sql, columnNames));
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        if (batchSql == null) {
+            batchSql = sql;
+        }
+        target.addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        batchSql = null;
+        target.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        try {
+            return profileUpdate(null, target::executeBatch);
+        } finally {
+            batchSql = null;
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        try {
+            return profileUpdate(null, target::executeLargeBatch);
+        } finally {
+            batchSql = null;
+        }
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet resultSet = target.getResultSet();
+        if (resultSet == null || pending == null) {
+            return resultSet;
+        }
+        QueryProfiler.Execution execution = pending;
+        pending = null;
+        return new ProfilingResultSet(resultSet, this, execution);
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        int count = target.getUpdateCount();
+        countPending(count);
+        return count;
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        long count = target.getLargeUpdateCount();
+        countPending(count);
+        return count;
+    }
+
+    private void countPending(long count) {
+        if (pending != null && count >= 0) {
+            pending.addRows(count);
+            finishPending();
+        }
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        finishPending();
+        target.close();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+
+    // ---- passed through ----
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return target.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        target.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return target.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        target.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        target.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return target.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        target.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        target.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return target.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        target.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        target.setCursorName(name);
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return target.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        target.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return target.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        target.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return target.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return target.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return target.getResultSetType();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return target.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return target.getGeneratedKeys();
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return target.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return target.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        target.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return target.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        target.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return target.isCloseOnCompletion();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        target.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return target.getLargeMaxRows();
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return target.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return target.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return target.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return target.enquoteNCharLiteral(val);
+    }
+}
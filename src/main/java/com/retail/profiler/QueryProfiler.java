@@ -0,0 +1,301 @@
+package com.retail.profiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timings for the statements run through a {@link ProfilingDataSource}. Executions are
+ * grouped by query shape (see {@link QueryShapes}), each shape keeping its execution count, total
+ * and maximum time, row count and errors. Executions slower than the configured threshold
+ * are also copied into a fixed-size slow log, and logged at most once per second with a count of
+ * the ones left out in between.
+ *
+ * While a {@link Scope} is open on the current thread, normally one per HTTP request, SELECT shapes
+ * are also counted per scope; a shape run at least {@code n-plus-one-threshold} times in one scope
+ * is recorded as an N+1 incident when the scope closes.
+ *
+ * Recording takes no locks: shape totals are {@link LongAdder}s and shapes are looked up by the raw
+ * SQL text, which for prepared statements is the same string on every execution, so the SQL is only
+ * normalized the first time it is seen.
+ */
+public class QueryProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    static final String OVERFLOW_SHAPE = "(other shapes)";
+
+    private static final long SLOW_WARN_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final int nPlusOneThreshold;
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> bySql = new ConcurrentHashMap<>();
+    private final RingBuffer<SlowQuery> slowLog;
+    private final RingBuffer<NPlusOneIncident> nPlusOneLog;
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private volatile ShapeStats overflow = new ShapeStats(OVERFLOW_SHAPE, false);
+    private final AtomicLong nextSlowWarnNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder suppressedSlowWarns = new LongAdder();
+
+    public QueryProfiler(ProfilerProperties properties) {
+        if (properties.getMaxShapes() < 1) {
+            throw new IllegalArgumentException("Profiler max-shapes must be >= 1");
+        }
+        if (properties.getNPlusOneThreshold() < 2) {
+            throw new IllegalArgumentException("Profiler n-plus-one-threshold must be >= 2");
+        }
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.maxShapes = properties.getMaxShapes();
+        this.nPlusOneThreshold = properties.getNPlusOneThreshold();
+        this.slowLog = new RingBuffer<>(properties.getSlowLogSize());
+        this.nPlusOneLog = new RingBuffer<>(properties.getNPlusOneLogSize());
+    }
+
+    /**
+     * Start timing one execution of a statement
+     * @param sql the statement text as passed to the driver
+     * @return the execution, to be finished exactly once
+     */
+    Execution start(String sql) {
+        return new Execution(statsFor(sql), System.nanoTime());
+    }
+
+    /**
+     * Open a profiling scope on the current thread
+     * @param label describes the work in the scope, e.g. the request method and path
+     * @return the scope; close it on the same thread
+     */
+    public Scope openScope(String label) {
+        Scope scope = new Scope(label, currentScope.get());
+        currentScope.set(scope);
+        return scope;
+    }
+
+    /**
+     * Get per-shape totals
+     * @param limit the maximum number of shapes to return
+     * @return the shapes, highest total time first
+     */
+    public List<QueryShapeStats> findShapes(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        List<ShapeStats> all = new ArrayList<>(shapes.values());
+        if (overflow.count.sum() > 0) {
+            all.add(overflow);
+        }
+        return all.stream()
+                .map(ShapeStats::snapshot)
+                .sorted(Comparator.comparingDouble(QueryShapeStats::getTotalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @param limit the maximum number of entries to return
+     * @return the most recent slow executions, newest first
+     */
+    public List<SlowQuery> findSlowQueries(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        return slowLog.newest(limit);
+    }
+
+    /**
+     * @param limit the maximum number of entries to return
+     * @return the most recent N+1 incidents, newest first
+     */
+    public List<NPlusOneIncident> findNPlusOneIncidents(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        return nPlusOneLog.newest(limit);
+    }
+
+    /**
+     * Discard every total, the slow log and the N+1 log
+     */
+    public void reset() {
+        bySql.clear();
+        shapes.clear();
+        overflow = new ShapeStats(OVERFLOW_SHAPE, false);
+        slowLog.clear();
+        nPlusOneLog.clear();
+    }
+
+    private ShapeStats statsFor(String sql) {
+        ShapeStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String shape = QueryShapes.normalize(sql);
+        stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                return overflow;
+            }
+            stats = shapes.computeIfAbsent(shape, key -> new ShapeStats(key, QueryShapes.isSelect(key)));
+        }
+        // Statements built with inlined literals would otherwise fill this map one string at a time
+        if (bySql.size() < maxShapes * 4) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    private void record(ShapeStats stats, long nanos, long rows, boolean failed) {
+        stats.count.increment();
+        stats.totalNanos.add(nanos);
+        stats.rows.add(rows);
+        if (failed) {
+            stats.errors.increment();
+        }
+        stats.maxNanos.accumulateAndGet(nanos, Math::max);
+
+        Scope scope = currentScope.get();
+        if (scope != null && stats.select) {
+            scope.count(stats, nanos);
+        }
+        if (nanos >= slowThresholdNanos) {
+            SlowQuery slow = new SlowQuery(stats.shape, millis(nanos), rows, failed, Instant.now(),
+                    scope == null ? null : scope.label, Thread.currentThread().getName());
+            slowLog.add(slow);
+            warnSlow(slow);
+        }
+    }
+
+    /**
+     * Log a slow execution unless one was logged in the last second, so a burst of slow queries
+     * does not flood the log; the slow log still has every one of them
+     */
+    private void warnSlow(SlowQuery slow) {
+        long now = System.nanoTime();
+        long next = nextSlowWarnNanos.get();
+        if (now - next < 0 || !nextSlowWarnNanos.compareAndSet(next, now + SLOW_WARN_INTERVAL_NANOS)) {
+            suppressedSlowWarns.increment();
+            return;
+        }
+        long suppressed = suppressedSlowWarns.sumThenReset();
+        String millis = String.format("%.1f", slow.getDurationMillis());
+        if (suppressed > 0) {
+            log.warn("Slow query took {} ms ({} rows, {} more slow queries not logged): {}",
+                    millis, slow.getRows(), suppressed, slow.getShape());
+        } else {
+            log.warn("Slow query took {} ms ({} rows): {}", millis, slow.getRows(), slow.getShape());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Running totals for one query shape
+     */
+    private static final class ShapeStats {
+
+        private final String shape;
+        private final boolean select;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder nPlusOne = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        ShapeStats(String shape, boolean select) {
+            this.shape = shape;
+            this.select = select;
+        }
+
+        QueryShapeStats snapshot() {
+            return new QueryShapeStats(shape, count.sum(), errors.sum(), rows.sum(),
+                    millis(totalNanos.sum()), millis(maxNanos.get()), nPlusOne.sum());
+        }
+    }
+
+    /**
+     * One statement execution, from the execute call until its result set is exhausted or closed
+     */
+    final class Execution {
+
+        private final ShapeStats stats;
+        private final long startNanos;
+        private long rows;
+        private boolean finished;
+
+        private Execution(ShapeStats stats, long startNanos) {
+            this.stats = stats;
+            this.startNanos = startNanos;
+        }
+
+        void addRows(long count) {
+            rows += count;
+        }
+
+        void finish() {
+            finish(false);
+        }
+
+        void fail() {
+            finish(true);
+        }
+
+        private void finish(boolean failed) {
+            if (!finished) {
+                finished = true;
+                record(stats, System.nanoTime() - startNanos, rows, failed);
+            }
+        }
+    }
+
+    /**
+     * Unit of work, normally one request, in which repeated SELECT shapes are counted
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final String label;
+        private final Scope parent;
+        private final Map<ShapeStats, long[]> selects = new HashMap<>();
+
+        private Scope(String label, Scope parent) {
+            this.label = label;
+            this.parent = parent;
+        }
+
+        private void count(ShapeStats stats, long nanos) {
+            long[] totals = selects.computeIfAbsent(stats, key -> new long[2]);
+            totals[0]++;
+            totals[1] += nanos;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(parent);
+            }
+            Instant now = Instant.now();
+            selects.forEach((stats, totals) -> {
+                if (totals[0] >= nPlusOneThreshold) {
+                    stats.nPlusOne.increment();
+                    nPlusOneLog.add(new NPlusOneIncident(stats.shape, (int) totals[0], millis(totals[1]), label, now));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.retail.profiler;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Totals for every execution of one query shape since the profiler was last reset
+ */
+public class QueryShapeStats {
+
+    private final String shape;
+    private final long count;
+    private final long errors;
+    private final long rows;
+    private final double totalMillis;
+    private final double maxMillis;
+    private final long nPlusOneIncidents;
+
+    public QueryShapeStats(String shape, long count, long errors, long rows,
+                           double totalMillis, double maxMillis, long nPlusOneIncidents) {
+        this.shape = shape;
+        this.count = count;
+        this.errors = errors;
+        this.rows = rows;
+        this.totalMillis = totalMillis;
+        this.maxMillis = maxMillis;
+        this.nPlusOneIncidents = nPlusOneIncidents;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return rows read by SELECT executions plus rows affected by updates
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getMeanMillis() {
+        return count == 0 ? 0 : totalMillis / count;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * @return the number of requests that ran this shape often enough to count as an N+1 pattern
+     */
+    @JsonProperty("nPlusOneIncidents")
+    public long getNPlusOneIncidents() {
+        return nPlusOneIncidents;
+    }
+}
@@ -0,0 +1,32 @@
+package com.retail.profiler;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces SQL statements to their shape, so executions that differ only in literal values are
+ * counted together: literals become {@code ?}, IN lists collapse to {@code (?...)} and whitespace
+ * is normalized.
+ */
+final class QueryShapes {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private QueryShapes() {
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    static boolean isSelect(String shape) {
+        return shape.regionMatches(true, 0, "select", 0, 6)
+                || shape.toLowerCase(Locale.ROOT).startsWith("with");
+    }
+}
@@ -0,0 +1,50 @@
+package com.retail.profiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, lock-free log that keeps the most recent entries, overwriting the oldest
+ */
+final class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLong written = new AtomicLong();
+
+    RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be >= 1");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(T entry) {
+        long sequence = written.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), entry);
+    }
+
+    /**
+     * @param limit the maximum number of entries to return
+     * @return the most recent entries, newest first
+     */
+    List<T> newest(int limit) {
+        long end = written.get();
+        long start = Math.max(0, end - Math.min(limit, slots.length()));
+        List<T> entries = new ArrayList<>((int) (end - start));
+        for (long sequence = end - 1; sequence >= start; sequence--) {
+            T entry = slots.get((int) (sequence % slots.length()));
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
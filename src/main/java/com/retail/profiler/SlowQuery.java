@@ -0,0 +1,63 @@
+package com.retail.profiler;
+
+import java.time.Instant;
+
+/**
+ * One statement execution that took longer than {@code retail.profiler.slow-threshold}. Only the
+ * query shape is kept, never bind or literal values.
+ */
+public class SlowQuery {
+
+    private final String shape;
+    private final double durationMillis;
+    private final long rows;
+    private final boolean failed;
+    private final Instant at;
+    private final String request;
+    private final String thread;
+
+    public SlowQuery(String shape, double durationMillis, long rows, boolean failed,
+                     Instant at, String request, String thread) {
+        this.shape = shape;
+        this.durationMillis = durationMillis;
+        this.rows = rows;
+        this.failed = failed;
+        this.at = at;
+        this.request = request;
+        this.thread = thread;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * @return time from execution until the result set was exhausted or closed
+     */
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public Instant getAt() {
+        return at;
+    }
+
+    /**
+     * @return the request that ran the statement, e.g. {@code GET /api/v1/retails}, or null outside a request
+     */
+    public String getRequest() {
+        return request;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+}
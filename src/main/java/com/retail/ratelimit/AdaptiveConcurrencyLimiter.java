@@ -0,0 +1,134 @@
+package com.retail.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of requests in flight at a limit that adapts to observed latency (AIMD):
+ * the limit grows by about one per round of requests while recent latency tracks the long-run
+ * average, and is cut multiplicatively when recent latency inflates or requests fail, which is
+ * the signal that work is queueing somewhere downstream. Comparing two moving averages rather
+ * than a minimum keeps a stable mix of fast and slow endpoints from looking like congestion.
+ * Excess requests are rejected immediately instead of waiting, so an overloaded node sheds load
+ * rather than collapsing.
+ *
+ * All state is updated with compare-and-set; no locks are taken on the request path.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 0.002;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong shortRttBits = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+    private final AtomicLong longRttBits = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param initialLimit the starting limit
+     * @param minLimit the limit never drops below this
+     * @param maxLimit the limit never grows above this
+     * @param rttTolerance how many times the long-run latency recent latency may reach before it counts as congestion
+     * @param clock a monotonic nanosecond clock
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                                      LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit || rttTolerance < 1.0) {
+            throw new IllegalArgumentException("Require 1 <= minLimit <= maxLimit and rttTolerance >= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.clock = clock;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(clamp(initialLimit)));
+    }
+
+    /**
+     * Admit a request if the limit allows it; every successful call must be paired with
+     * {@link #release(long, boolean)}
+     * @return true if the request was admitted
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finish an admitted request and feed its outcome into the limit
+     * @param rttNanos how long the request took
+     * @param failed true if the request failed in a way that indicates overload
+     */
+    public void release(long rttNanos, boolean failed) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        double shortRtt = average(shortRttBits, SHORT_RTT_WEIGHT, rttNanos);
+        double longRtt = average(longRttBits, LONG_RTT_WEIGHT, rttNanos);
+
+        if (failed || shortRtt > longRtt * rttTolerance) {
+            decrease((long) longRtt);
+        } else if (inFlightAtCompletion * 2 >= getLimit()) {
+            // Only probe upwards when the current limit is actually being used
+            updateLimit(limit -> limit + 1.0 / limit);
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease(long windowNanos) {
+        // Back off at most once per typical round trip so one burst of slow requests is one signal
+        long now = clock.getAsLong();
+        long last = lastDecreaseNanos.get();
+        if (last != Long.MIN_VALUE && now - last < windowNanos) {
+            return;
+        }
+        if (lastDecreaseNanos.compareAndSet(last, now)) {
+            updateLimit(limit -> limit * BACKOFF_RATIO);
+        }
+    }
+
+    private static double average(AtomicLong bits, double weight, long sample) {
+        long current;
+        double next;
+        do {
+            current = bits.get();
+            double average = Double.longBitsToDouble(current);
+            next = Double.isNaN(average) ? sample : average + weight * (sample - average);
+        } while (!bits.compareAndSet(current, Double.doubleToLongBits(next)));
+        return next;
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        long current;
+        long next;
+        do {
+            current = limitBits.get();
+            next = Double.doubleToLongBits(clamp(update.applyAsDouble(Double.longBitsToDouble(current))));
+        } while (!limitBits.compareAndSet(current, next));
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+}
@@ -0,0 +1,40 @@
+package com.retail.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Identifies the client of a request for rate limiting and idempotency scoping. A client is
+ * identified by its API key only when the key is one of {@code retail.api-keys}; a missing or
+ * unknown key falls back to the remote address, so a caller cannot obtain a fresh identity by
+ * sending a new header value on each request.
+ */
+public class ClientIdentityResolver {
+
+    private final String header;
+    private final Set<String> apiKeys;
+
+    /**
+     * @param header the request header carrying the API key
+     * @param apiKeys the accepted API keys; blank entries are ignored
+     */
+    public ClientIdentityResolver(String header, Collection<String> apiKeys) {
+        this.header = header;
+        this.apiKeys = apiKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @param request the request
+     * @return {@code key:<api key>} for a known API key, otherwise {@code ip:<remote address>}
+     */
+    public String resolve(HttpServletRequest request) {
+        String apiKey = request.getHeader(header);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+}
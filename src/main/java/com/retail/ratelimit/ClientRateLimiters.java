@@ -0,0 +1,75 @@
+package com.retail.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per client and endpoint class, created on first use. Lookups take no
+ * lock. When more than {@code max-tracked-clients} buckets exist, one caller sweeps the map: buckets
+ * that have refilled completely are dropped first, since a new bucket would behave the same, and if
+ * that is not enough, arbitrary buckets are dropped until a tenth of the capacity is free again, so
+ * the sweep cost is amortized over the clients added since.
+ */
+public class ClientRateLimiters {
+
+    private final LoadSheddingProperties properties;
+    private final LongSupplier clock;
+    private final int maxTrackedClients;
+    private final int sweepTarget;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public ClientRateLimiters(LoadSheddingProperties properties, LongSupplier clock) {
+        if (properties.getMaxTrackedClients() < 1) {
+            throw new IllegalArgumentException("Load shedding max-tracked-clients must be >= 1");
+        }
+        this.properties = properties;
+        this.clock = clock;
+        this.maxTrackedClients = properties.getMaxTrackedClients();
+        this.sweepTarget = maxTrackedClients - maxTrackedClients / 10;
+    }
+
+    public TokenBucket bucketFor(String client, EndpointClass endpointClass) {
+        String key = endpointClass.name() + ':' + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        bucket = buckets.computeIfAbsent(key, k -> {
+            LoadSheddingProperties.Bucket settings = properties.forClass(endpointClass);
+            return new TokenBucket(settings.getPermitsPerSecond(), settings.getBurst(), clock);
+        });
+        if (buckets.size() > maxTrackedClients) {
+            sweep(key);
+        }
+        return bucket;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Bring the map back under its bound, keeping the bucket just created. Concurrent callers that
+     * find a sweep in progress leave it to that one.
+     */
+    private void sweep(String keep) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.entrySet().removeIf(entry -> !entry.getKey().equals(keep) && entry.getValue().isFull());
+            Iterator<String> keys = buckets.keySet().iterator();
+            while (buckets.size() > sweepTarget && keys.hasNext()) {
+                if (!keys.next().equals(keep)) {
+                    keys.remove();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.retail.ratelimit;
+
+/**
+ * Coarse grouping of API requests that get separate rate limits
+ */
+public enum EndpointClass {
+    READ,
+    WRITE;
+
+    public static EndpointClass of(String httpMethod) {
+        return switch (httpMethod) {
+            case "GET", "HEAD", "OPTIONS" -> READ;
+            default -> WRITE;
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.retail.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.exception.GlobalExceptionHandler.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects API requests before they reach the controllers when a client exceeds its rate
+ * (429 Too Many Requests) or when the node is at its adaptive concurrency limit
+ * (503 Service Unavailable). Both responses carry a Retry-After header.
+ *
+ * Clients are identified by a known API key, falling back to the remote address (see
+ * {@link ClientIdentityResolver}).
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final ClientIdentityResolver clientIdentityResolver;
+    private final ClientRateLimiters rateLimiters;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper;
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> shed = new EnumMap<>(EndpointClass.class);
+
+    public LoadSheddingFilter(ClientIdentityResolver clientIdentityResolver,
+                              ClientRateLimiters rateLimiters,
+                              AdaptiveConcurrencyLimiter concurrencyLimiter,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.clientIdentityResolver = clientIdentityResolver;
+        this.rateLimiters = rateLimiters;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.objectMapper = objectMapper;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String endpoint = endpointClass.name().toLowerCase();
+            rateLimited.put(endpointClass, Counter.builder("retail.requests.rejected")
+                    .description("API requests rejected before reaching a controller")
+                    .tag("reason", "rate_limit")
+                    .tag("endpoint_class", endpoint)
+                    .register(meterRegistry));
+            shed.put(endpointClass, Counter.builder("retail.requests.rejected")
+                    .description("API requests rejected before reaching a controller")
+                    .tag("reason", "concurrency_limit")
+                    .tag("endpoint_class", endpoint)
+                    .register(meterRegistry));
+        }
+        if (concurrencyLimiter != null) {
+            Gauge.builder("retail.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("retail.concurrency.in_flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("API requests currently in flight")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request.getMethod());
+
+        TokenBucket bucket = rateLimiters.bucketFor(clientIdentityResolver.resolve(request), endpointClass);
+        if (!bucket.tryAcquire()) {
+            rateLimited.get(endpointClass).increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, bucket.nanosUntilAvailable(), "Rate limit exceeded");
+            return;
+        }
+
+        if (concurrencyLimiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.get(endpointClass).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "Server is overloaded");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.value(), message, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.retail.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: the whole bucket is one
+ * "theoretical arrival time" updated with compare-and-set, so acquiring a token costs a single CAS
+ * and there is no refill thread.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond the sustained rate
+     * @param burst the number of permits that may be taken at once from a full bucket
+     * @param clock a monotonic nanosecond clock, normally {@link System#nanoTime()}
+     */
+    public TokenBucket(double permitsPerSecond, int burst, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.clock = clock;
+        this.theoreticalArrival = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Take one permit if available
+     * @return true if the permit was granted
+     */
+    public boolean tryAcquire() {
+        long now = clock.getAsLong();
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            if (arrival - now > burstToleranceNanos) {
+                return false;
+            }
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return how long until the next permit becomes available, zero if one is available now
+     */
+    public long nanosUntilAvailable() {
+        return Math.max(0L, theoreticalArrival.get() - burstToleranceNanos - clock.getAsLong());
+    }
+
+    /**
+     * @return true if the bucket has refilled completely, so dropping it loses no state
+     */
+    public boolean isFull() {
+        return theoreticalArrival.get() - clock.getAsLong() <= 0;
+    }
+}
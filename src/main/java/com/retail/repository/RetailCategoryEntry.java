@@ -0,0 +1,11 @@
+package com.retail.repository;
+
+/**
+ * Projection of a retail item's ID and category
+ */
+public interface RetailCategoryEntry {
+
+    Long getId();
+
+    String getCategory();
+}
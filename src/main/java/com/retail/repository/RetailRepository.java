@@ -1,16 +1,33 @@
 package com.retail.repository;
 
 import com.retail.entity.Retail;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Retail item storage. Only CRUD, sorting and paging are inherited, not the whole
+ * {@code JpaRepository}, because the sharded implementation must be able to serve every method;
+ * query-by-example in particular has no scatter-gather equivalent.
+ */
 @Repository
-public interface RetailRepository extends JpaRepository<Retail, Long> {
+public interface RetailRepository extends ListCrudRepository<Retail, Long>,
+        ListPagingAndSortingRepository<Retail, Long> {
+
+    /**
+     * Flush pending changes to the database
+     */
+    void flush();
 
     /**
      * Find retail items by product name (case-insensitive)
@@ -33,7 +50,48 @@ public interface RetailRepository extends JpaRepository<Retail, Long> {
      * Check if retail item exists by product name (case-insensitive)
      */
     boolean existsByProductNameIgnoreCase(String productName);
-}
 
+    /**
+     * Find the ID and category of every retail item
+     */
+    @Query("SELECT r.id AS id, r.category AS category FROM Retail r")
+    List<RetailCategoryEntry> findAllCategoryEntries();
+
+    /**
+     * Find the next batch of retail items after the given ID, for keyset iteration over the table
+     */
+    List<Retail> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Add a delta to the quantity of a retail item in a single statement, unless it would go negative
+     * @return the number of rows updated: 0 if the item does not exist or has too little stock
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Retail r SET r.quantity = r.quantity + :delta, r.updatedAt = :updatedAt " +
+            "WHERE r.id = :id AND r.quantity + :delta >= 0")
+    int adjustQuantity(@Param("id") Long id,
+                       @Param("delta") int delta,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Find the lowest retail item ID, or null if there are none
+     */
+    @Query("SELECT MIN(r.id) FROM Retail r")
+    Long findMinId();
 
+    /**
+     * Find the highest retail item ID, or null if there are none
+     */
+    @Query("SELECT MAX(r.id) FROM Retail r")
+    Long findMaxId();
 
+    /**
+     * Find and row-lock the retail items in an ID range, optionally only those in a category (case-insensitive)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Retail r WHERE r.id BETWEEN :fromId AND :toId " +
+            "AND (:category IS NULL OR LOWER(r.category) = LOWER(:category)) ORDER BY r.id")
+    List<Retail> findInIdRangeForUpdate(@Param("fromId") Long fromId,
+                                        @Param("toId") Long toId,
+                                        @Param("category") String category);
+}
@@ -1,24 +1,44 @@
 package com.retail.service;
 
+import com.retail.cache.RetailCache;
 import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
 import com.retail.exception.ResourceAlreadyExistsException;
 import com.retail.exception.ResourceNotFoundException;
+import com.retail.index.CategoryIndex;
+import com.retail.index.SortedLongSet;
 import com.retail.repository.RetailRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional
 public class RetailService {
 
     private final RetailRepository retailRepository;
+    private final CategoryIndex categoryIndex;
+    private final RetailCache retailCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public RetailService(RetailRepository retailRepository) {
+    public RetailService(RetailRepository retailRepository,
+                         CategoryIndex categoryIndex,
+                         RetailCache retailCache,
+                         ApplicationEventPublisher eventPublisher) {
         this.retailRepository = retailRepository;
+        this.categoryIndex = categoryIndex;
+        this.retailCache = retailCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -35,7 +55,9 @@ public class RetailService {
                     retail.getProductName()
             );
         }
-        return retailRepository.save(retail);
+        Retail savedRetail = retailRepository.save(retail);
+        eventPublisher.publishEvent(RetailChangeEvent.created(RetailState.of(savedRetail)));
+        return savedRetail;
     }
 
     /**
@@ -55,12 +77,24 @@ public class RetailService {
      */
     @Transactional(readOnly = true)
     public Retail getRetailById(Long id) {
-        return retailRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Retail",
-                        "id",
-                        id
-                ));
+        Optional<Retail> cached = retailCache.get(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long token = retailCache.loadToken();
+        Retail retail = findRetailOrThrow(id);
+        retailCache.put(retail, token);
+        return retail;
+    }
+
+    /**
+     * Get the retail items with the given IDs; IDs that do not exist are skipped
+     * @param ids the IDs of the retail items
+     * @return the retail items found, ordered by ID
+     */
+    @Transactional(readOnly = true)
+    public List<Retail> getRetailsByIds(Collection<Long> ids) {
+        return findAllByIds(ids.stream().mapToLong(Long::longValue).distinct().toArray());
     }
 
     /**
@@ -86,7 +120,51 @@ public class RetailService {
      */
     @Transactional(readOnly = true)
     public List<Retail> getRetailsByCategory(String category) {
-        return retailRepository.findByCategoryIgnoreCase(category);
+        if (!categoryIndex.isReady()) {
+            return retailRepository.findByCategoryIgnoreCase(category);
+        }
+        return findAllByIds(categoryIndex.idsFor(category).toArray());
+    }
+
+    /**
+     * Get one page of retail items in a category, ordered by ID
+     * @param category the category
+     * @param page the zero-based page number
+     * @param size the page size
+     * @return the retail items on the requested page
+     * @throws IllegalArgumentException if page is negative or size is not positive
+     */
+    @Transactional(readOnly = true)
+    public List<Retail> getRetailsByCategory(String category, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be >= 1");
+        }
+        long offset = (long) page * size;
+        if (!categoryIndex.isReady()) {
+            return retailRepository.findByCategoryIgnoreCase(category).stream()
+                    .sorted(Comparator.comparing(Retail::getId))
+                    .skip(offset)
+                    .limit(size)
+                    .toList();
+        }
+        SortedLongSet ids = categoryIndex.idsFor(category);
+        if (offset >= ids.size()) {
+            return List.of();
+        }
+        return findAllByIds(ids.slice((int) offset, size));
+    }
+
+    /**
+     * Count retail items in a category
+     * @param category the category
+     * @return the number of retail items in the category
+     */
+    @Transactional(readOnly = true)
+    public long countRetailsByCategory(String category) {
+        if (!categoryIndex.isReady()) {
+            return retailRepository.findByCategoryIgnoreCase(category).size();
+        }
+        return categoryIndex.count(category);
     }
 
     /**
@@ -98,7 +176,8 @@ public class RetailService {
      * @throws ResourceAlreadyExistsException if updating product name and it already exists for another item
      */
     public Retail updateRetail(Long id, Retail retailDetails) {
-        Retail retail = getRetailById(id);
+        Retail retail = findRetailOrThrow(id);
+        RetailState before = RetailState.of(retail);
 
         // Check if product name is being changed and if it already exists
         if (!retail.getProductName().equalsIgnoreCase(retailDetails.getProductName()) &&
@@ -117,7 +196,65 @@ public class RetailService {
         retail.setQuantity(retailDetails.getQuantity());
         retail.setDescription(retailDetails.getDescription());
 
-        return retailRepository.save(retail);
+        Retail savedRetail = retailRepository.save(retail);
+        // Flush now so @PreUpdate has stamped updatedAt before the change is captured
+        retailRepository.flush();
+        eventPublisher.publishEvent(RetailChangeEvent.updated(before, RetailState.of(savedRetail)));
+        return savedRetail;
+    }
+
+    /**
+     * Partially update an existing retail item; null fields in the details are left unchanged
+     * @param id the ID of the retail item to update
+     * @param retailDetails the fields to change
+     * @return the updated retail item
+     * @throws ResourceNotFoundException if the retail item is not found
+     * @throws ResourceAlreadyExistsException if updating product name and it already exists for another item
+     */
+    public Retail patchRetail(Long id, Retail retailDetails) {
+        Retail existingRetail = findRetailOrThrow(id);
+
+        // Merge into a copy so updateRetail still sees the stored values for its checks
+        Retail merged = RetailState.of(existingRetail).toRetail();
+        if (retailDetails.getProductName() != null) {
+            merged.setProductName(retailDetails.getProductName());
+        }
+        if (retailDetails.getCategory() != null) {
+            merged.setCategory(retailDetails.getCategory());
+        }
+        if (retailDetails.getPrice() != null) {
+            merged.setPrice(retailDetails.getPrice());
+        }
+        if (retailDetails.getQuantity() != null) {
+            merged.setQuantity(retailDetails.getQuantity());
+        }
+        if (retailDetails.getDescription() != null) {
+            merged.setDescription(retailDetails.getDescription());
+        }
+
+        return updateRetail(id, merged);
+    }
+
+    /**
+     * Add to or take from the stock of a retail item
+     * @param id the ID of the retail item
+     * @param delta the change in quantity; negative to take stock out
+     * @return the updated retail item
+     * @throws ResourceNotFoundException if the retail item is not found
+     * @throws IllegalArgumentException if the quantity would become negative
+     */
+    public Retail adjustStock(Long id, int delta) {
+        RetailState before = RetailState.of(findRetailOrThrow(id));
+
+        // A single conditional UPDATE, so concurrent adjustments cannot overwrite each other
+        if (retailRepository.adjustQuantity(id, delta, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException(
+                    "Insufficient stock for retail item " + id + " to apply a change of " + delta);
+        }
+
+        Retail adjustedRetail = findRetailOrThrow(id);
+        eventPublisher.publishEvent(RetailChangeEvent.updated(before, RetailState.of(adjustedRetail)));
+        return adjustedRetail;
     }
 
     /**
@@ -126,8 +263,10 @@ public class RetailService {
      * @throws ResourceNotFoundException if the retail item is not found
      */
     public void deleteRetail(Long id) {
-        Retail retail = getRetailById(id);
+        Retail retail = findRetailOrThrow(id);
+        RetailState before = RetailState.of(retail);
         retailRepository.delete(retail);
+        eventPublisher.publishEvent(RetailChangeEvent.deleted(before));
     }
 
     /**
@@ -135,6 +274,7 @@ public class RetailService {
      */
     public void deleteAllRetails() {
         retailRepository.deleteAll();
+        eventPublisher.publishEvent(RetailChangeEvent.cleared());
     }
 
     /**
@@ -146,5 +286,33 @@ public class RetailService {
     public boolean existsById(Long id) {
         return retailRepository.existsById(id);
     }
-}
 
+    private Retail findRetailOrThrow(Long id) {
+        return retailRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Retail",
+                        "id",
+                        id
+                ));
+    }
+
+    private List<Retail> findAllByIds(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Retail> retails = new ArrayList<>(ids.length);
+        List<Long> missingIds = new ArrayList<>();
+        for (long id : ids) {
+            retailCache.get(id).ifPresentOrElse(retails::add, () -> missingIds.add(id));
+        }
+        if (!missingIds.isEmpty()) {
+            long token = retailCache.loadToken();
+            for (Retail retail : retailRepository.findAllById(missingIds)) {
+                retailCache.put(retail, token);
+                retails.add(retail);
+            }
+        }
+        retails.sort(Comparator.comparing(Retail::getId));
+        return retails;
+    }
+}
@@ -0,0 +1,90 @@
+package com.retail.shard;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Global state of the sharded store, kept in the primary database: the ID sequence, the registry
+ * of normalized product names that makes names unique across shards, and the bucket-to-shard map.
+ *
+ * Statements go through {@link JdbcTemplate} on the primary data source, so inside a service
+ * transaction they join the JPA transaction's connection and commit or roll back with it.
+ */
+public class ShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShardDirectory(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Normalize a product name the way uniqueness is enforced: case-insensitively
+     */
+    public static String normalize(String productName) {
+        return productName.toLowerCase(Locale.ROOT);
+    }
+
+    void createSchema() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS retail_id_seq START WITH 1");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS retail_product_names ("
+                + "normalized_name VARCHAR(100) PRIMARY KEY, retail_id BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS retail_shard_buckets ("
+                + "bucket INT PRIMARY KEY, shard VARCHAR(100) NOT NULL)");
+    }
+
+    long nextSequence() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR retail_id_seq", Long.class);
+    }
+
+    /**
+     * Register a product name for a retail item
+     * @return false if another item already holds the name
+     */
+    boolean claimName(String normalizedName, long retailId) {
+        try {
+            jdbcTemplate.update("INSERT INTO retail_product_names (normalized_name, retail_id) VALUES (?, ?)",
+                    normalizedName, retailId);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    void releaseName(String normalizedName, long retailId) {
+        jdbcTemplate.update("DELETE FROM retail_product_names WHERE normalized_name = ? AND retail_id = ?",
+                normalizedName, retailId);
+    }
+
+    Optional<Long> findIdByName(String normalizedName) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT retail_id FROM retail_product_names WHERE normalized_name = ?", Long.class, normalizedName);
+        return ids.stream().findFirst();
+    }
+
+    void clearNames() {
+        jdbcTemplate.update("DELETE FROM retail_product_names");
+    }
+
+    Map<Integer, String> loadBuckets() {
+        Map<Integer, String> buckets = new TreeMap<>();
+        jdbcTemplate.query("SELECT bucket, shard FROM retail_shard_buckets",
+                rs -> {
+                    buckets.put(rs.getInt("bucket"), rs.getString("shard"));
+                });
+        return buckets;
+    }
+
+    void assignBucket(int bucket, String shard) {
+        if (jdbcTemplate.update("UPDATE retail_shard_buckets SET shard = ? WHERE bucket = ?", shard, bucket) == 0) {
+            jdbcTemplate.update("INSERT INTO retail_shard_buckets (bucket, shard) VALUES (?, ?)", bucket, shard);
+        }
+    }
+}
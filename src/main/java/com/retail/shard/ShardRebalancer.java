@@ -0,0 +1,137 @@
+package com.retail.shard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves buckets between shards, one at a time. {@link #rebalance()} spreads the buckets evenly over
+ * the configured shards, e.g. after adding a shard; a shard can be retired by moving its buckets away
+ * with {@link #moveBucket(int, String)} before removing it from the configuration.
+ *
+ * Bucket moves are coordinated with in-process locks, so with several application nodes writes must
+ * be paused on the other nodes while rebalancing, and they must be restarted afterwards to reload the
+ * bucket map.
+ */
+public class ShardRebalancer {
+
+    private final ShardRouter router;
+
+    public ShardRebalancer(ShardRouter router) {
+        this.router = router;
+    }
+
+    /**
+     * Move one bucket to a shard
+     * @param bucket the bucket number
+     * @param targetShard the shard to move it to
+     * @return the move made
+     * @throws IllegalArgumentException if the bucket or shard does not exist
+     */
+    public synchronized BucketMove moveBucket(int bucket, String targetShard) {
+        String source = router.ownerOf(bucket);
+        long rows = router.moveBucket(bucket, targetShard);
+        return new BucketMove(bucket, source, targetShard, rows);
+    }
+
+    /**
+     * Move buckets until every shard owns the same number, give or take one
+     * @return the moves made, in order
+     */
+    public synchronized List<BucketMove> rebalance() {
+        List<String> shards = router.getShardNames();
+        int bucketCount = router.getBucketCount();
+        Map<String, Deque<Integer>> owned = new LinkedHashMap<>();
+        shards.forEach(shard -> owned.put(shard, new ArrayDeque<>(router.bucketsOwnedBy(shard))));
+
+        // The first (bucketCount % shards) shards in configuration order take one extra bucket
+        Map<String, Integer> targets = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(shards.get(i), bucketCount / shards.size() + (i < bucketCount % shards.size() ? 1 : 0));
+        }
+
+        List<BucketMove> moves = new ArrayList<>();
+        for (String receiver : shards) {
+            while (owned.get(receiver).size() < targets.get(receiver)) {
+                String donor = shards.stream()
+                        .filter(shard -> owned.get(shard).size() > targets.get(shard))
+                        .findFirst()
+                        .orElseThrow();
+                int bucket = owned.get(donor).pollLast();
+                moves.add(moveBucket(bucket, receiver));
+                owned.get(receiver).add(bucket);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @return the buckets and row count of each shard
+     */
+    public List<ShardStatus> status() {
+        List<ShardStatus> statuses = new ArrayList<>();
+        for (String shard : router.getShardNames()) {
+            statuses.add(new ShardStatus(shard, router.bucketsOwnedBy(shard), router.rowCount(shard)));
+        }
+        return statuses;
+    }
+
+    public static class BucketMove {
+
+        private final int bucket;
+        private final String fromShard;
+        private final String toShard;
+        private final long rows;
+
+        public BucketMove(int bucket, String fromShard, String toShard, long rows) {
+            this.bucket = bucket;
+            this.fromShard = fromShard;
+            this.toShard = toShard;
+            this.rows = rows;
+        }
+
+        public int getBucket() {
+            return bucket;
+        }
+
+        public String getFromShard() {
+            return fromShard;
+        }
+
+        public String getToShard() {
+            return toShard;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+
+    public static class ShardStatus {
+
+        private final String shard;
+        private final List<Integer> buckets;
+        private final long rows;
+
+        public ShardStatus(String shard, List<Integer> buckets, long rows) {
+            this.shard = shard;
+            this.buckets = buckets;
+            this.rows = rows;
+        }
+
+        public String getShard() {
+            return shard;
+        }
+
+        public List<Integer> getBuckets() {
+            return buckets;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+}
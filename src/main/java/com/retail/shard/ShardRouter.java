@@ -0,0 +1,448 @@
+package com.retail.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Routes retail rows to shards. Every row belongs to one of a fixed number of hash buckets, encoded
+ * in its ID as {@code id = sequence * buckets + bucket}; the bucket is chosen from the hash of the
+ * normalized product name when the item is created. The directory maps buckets to shards, so
+ * rebalancing moves whole buckets and IDs never change.
+ *
+ * Inside a read-write Spring transaction, shard statements run on connections bound to the
+ * transaction: they are committed just before the outer transaction commits and rolled back with
+ * it. This is best-effort one-phase commit; a shard failing to commit after another shard has
+ * committed is logged, not undone. Outside a transaction each statement auto-commits.
+ *
+ * Each bucket has a read-write lock. Single-bucket operations hold the read lock (until the end of
+ * the transaction for writes in a transaction); moving a bucket holds the write lock. Scatter-gather
+ * reads take no locks: they drop rows from shards that do not own the row's bucket and retry if the
+ * bucket map changed while they ran.
+ */
+public class ShardRouter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final int MOVE_BATCH_SIZE = 1000;
+
+    private final Map<String, DataSource> shards;
+    private final Map<String, JdbcTemplate> templates = new LinkedHashMap<>();
+    private final ShardDirectory directory;
+    private final int bucketCount;
+    private final AtomicReferenceArray<String> owners;
+    private final ReentrantReadWriteLock[] bucketLocks;
+    private final AtomicLong mapVersion = new AtomicLong();
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouter(Map<String, DataSource> shards, ShardDirectory directory, int bucketCount, int scatterThreads) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        if (bucketCount < shards.size()) {
+            throw new IllegalArgumentException("Bucket count must be at least the number of shards");
+        }
+        this.shards = new LinkedHashMap<>(shards);
+        this.shards.forEach((name, dataSource) -> templates.put(name, new JdbcTemplate(dataSource)));
+        this.directory = directory;
+        this.bucketCount = bucketCount;
+        this.owners = new AtomicReferenceArray<>(bucketCount);
+        this.bucketLocks = new ReentrantReadWriteLock[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            bucketLocks[i] = new ReentrantReadWriteLock();
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(Math.max(1, scatterThreads), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the directory and shard tables if needed and load the bucket map, assigning buckets
+     * round-robin on first start
+     * @throws IllegalStateException if the stored map does not match the configuration
+     */
+    public void initialize() {
+        directory.createSchema();
+        templates.values().forEach(jdbc -> {
+            jdbc.execute(ShardSchema.CREATE_TABLE);
+            jdbc.execute(ShardSchema.CREATE_CATEGORY_INDEX);
+        });
+
+        Map<Integer, String> stored = directory.loadBuckets();
+        if (stored.isEmpty()) {
+            List<String> names = new ArrayList<>(shards.keySet());
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                String shard = names.get(bucket % names.size());
+                directory.assignBucket(bucket, shard);
+                stored.put(bucket, shard);
+            }
+            log.info("Assigned {} buckets across shards {}", bucketCount, names);
+        }
+        if (stored.size() != bucketCount) {
+            throw new IllegalStateException("Shard directory has " + stored.size()
+                    + " buckets but retail.sharding.buckets is " + bucketCount);
+        }
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            String shard = stored.get(bucket);
+            if (shard == null || !shards.containsKey(shard)) {
+                throw new IllegalStateException("Bucket " + bucket + " is assigned to unknown shard " + shard
+                        + "; keep the shard configured until its buckets have been moved");
+            }
+            owners.set(bucket, shard);
+        }
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public List<String> getShardNames() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public String ownerOf(int bucket) {
+        return owners.get(bucket);
+    }
+
+    public int bucketOf(long id) {
+        return (int) Math.floorMod(id, (long) bucketCount);
+    }
+
+    /**
+     * Allocate the ID of a new retail item; the bucket is derived from its normalized product name
+     */
+    long newId(String normalizedName) {
+        int hash = normalizedName.hashCode();
+        // Spread the bits so the low bits of similar names differ
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return directory.nextSequence() * bucketCount + Math.floorMod(hash, bucketCount);
+    }
+
+    /**
+     * Run an operation against the shard owning an ID's bucket
+     */
+    <T> T onBucket(long id, Function<JdbcOperations, T> action) {
+        int bucket = bucketOf(id);
+        ShardTransaction transaction = currentTransaction();
+        if (transaction != null) {
+            transaction.lockBucket(bucket);
+            return action.apply(transaction.jdbc(owners.get(bucket)));
+        }
+        Lock lock = bucketLocks[bucket].readLock();
+        lock.lock();
+        try {
+            return action.apply(templates.get(owners.get(bucket)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run a write against every shard while no bucket can move
+     */
+    void onEveryShard(Consumer<JdbcOperations> action) {
+        ShardTransaction transaction = currentTransaction();
+        if (transaction != null) {
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                transaction.lockBucket(bucket);
+            }
+            shards.keySet().forEach(shard -> action.accept(transaction.jdbc(shard)));
+            return;
+        }
+        for (ReentrantReadWriteLock bucketLock : bucketLocks) {
+            bucketLock.readLock().lock();
+        }
+        try {
+            templates.values().forEach(action);
+        } finally {
+            for (ReentrantReadWriteLock bucketLock : bucketLocks) {
+                bucketLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Query every shard and combine the rows each shard owns
+     * @param query runs against one shard, given its name
+     * @param idOf the ID of a row, used to drop rows of buckets the shard does not own
+     */
+    <T> List<T> scatter(BiFunction<String, JdbcOperations, List<T>> query, ToLongFunction<T> idOf) {
+        while (true) {
+            long version = mapVersion.get();
+            Map<String, List<T>> perShard = queryShards(query);
+            List<T> rows = new ArrayList<>();
+            perShard.forEach((shard, shardRows) -> {
+                for (T row : shardRows) {
+                    if (shard.equals(owners.get(bucketOf(idOf.applyAsLong(row))))) {
+                        rows.add(row);
+                    }
+                }
+            });
+            if (version == mapVersion.get()) {
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * Query every shard without ownership filtering, for aggregates that duplicates cannot change
+     */
+    <T> List<T> scatterAggregate(Function<JdbcOperations, T> query) {
+        List<T> results = new ArrayList<>();
+        queryShards((shard, jdbc) -> {
+            T result = query.apply(jdbc);
+            return result != null ? List.of(result) : List.<T>of();
+        }).values().forEach(results::addAll);
+        return results;
+    }
+
+    /**
+     * Count the rows each shard owns
+     */
+    long count() {
+        while (true) {
+            long version = mapVersion.get();
+            long total = queryShards((shard, jdbc) -> {
+                List<Integer> owned = bucketsOwnedBy(shard);
+                if (owned.isEmpty()) {
+                    return List.of(0L);
+                }
+                String in = String.join(", ", owned.stream().map(String::valueOf).toList());
+                return List.of(jdbc.queryForObject(
+                        "SELECT COUNT(*) FROM retails WHERE MOD(id, " + bucketCount + ") IN (" + in + ")", Long.class));
+            }).values().stream().flatMap(List::stream).mapToLong(Long::longValue).sum();
+            if (version == mapVersion.get()) {
+                return total;
+            }
+        }
+    }
+
+    List<Integer> bucketsOwnedBy(String shard) {
+        List<Integer> owned = new ArrayList<>();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            if (shard.equals(owners.get(bucket))) {
+                owned.add(bucket);
+            }
+        }
+        return owned;
+    }
+
+    long rowCount(String shard) {
+        return templates.get(shard).queryForObject("SELECT COUNT(*) FROM retails", Long.class);
+    }
+
+    /**
+     * Move a bucket to another shard: copy its rows, switch the bucket map, then delete the
+     * originals. Writes to the bucket wait while it moves.
+     * @return the number of rows moved
+     * @throws IllegalArgumentException if the target shard or bucket does not exist
+     */
+    long moveBucket(int bucket, String target) {
+        if (bucket < 0 || bucket >= bucketCount) {
+            throw new IllegalArgumentException("Bucket must be between 0 and " + (bucketCount - 1));
+        }
+        if (!shards.containsKey(target)) {
+            throw new IllegalArgumentException("Unknown shard: " + target);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Buckets cannot be moved inside a transaction");
+        }
+        Lock lock = bucketLocks[bucket].writeLock();
+        lock.lock();
+        try {
+            String source = owners.get(bucket);
+            if (source.equals(target)) {
+                return 0;
+            }
+            JdbcTemplate from = templates.get(source);
+            JdbcTemplate to = templates.get(target);
+            String inBucket = "MOD(id, " + bucketCount + ") = " + bucket;
+
+            Long moved = new TransactionTemplate(new DataSourceTransactionManager(shards.get(target))).execute(status -> {
+                // Leftovers of an interrupted move
+                to.update("DELETE FROM retails WHERE " + inBucket);
+                long copied = 0;
+                long lastId = Long.MIN_VALUE;
+                while (true) {
+                    List<Object[]> rows = from.query(
+                            "SELECT " + ShardSchema.COLUMNS + " FROM retails WHERE " + inBucket
+                                    + " AND id > ? ORDER BY id LIMIT " + MOVE_BATCH_SIZE,
+                            (rs, rowNum) -> {
+                                Object[] row = new Object[8];
+                                for (int i = 0; i < row.length; i++) {
+                                    row[i] = rs.getObject(i + 1);
+                                }
+                                return row;
+                            },
+                            lastId);
+                    if (rows.isEmpty()) {
+                        return copied;
+                    }
+                    to.batchUpdate(ShardSchema.INSERT, rows);
+                    copied += rows.size();
+                    lastId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+                }
+            });
+
+            directory.assignBucket(bucket, target);
+            owners.set(bucket, target);
+            mapVersion.incrementAndGet();
+            from.update("DELETE FROM retails WHERE " + inBucket);
+            log.info("Moved bucket {} ({} rows) from shard {} to {}", bucket, moved, source, target);
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> Map<String, List<T>> queryShards(BiFunction<String, JdbcOperations, List<T>> query) {
+        Map<String, List<T>> results = new LinkedHashMap<>();
+        ShardTransaction transaction = currentTransaction();
+        if (transaction != null) {
+            // Sequential on the transaction's connections, so reads see its writes and keep its locks
+            shards.keySet().forEach(shard -> results.put(shard, query.apply(shard, transaction.jdbc(shard))));
+            return results;
+        }
+        Map<String, CompletableFuture<List<T>>> futures = new LinkedHashMap<>();
+        templates.forEach((shard, jdbc) ->
+                futures.put(shard, CompletableFuture.supplyAsync(() -> query.apply(shard, jdbc), scatterExecutor)));
+        try {
+            futures.forEach((shard, future) -> results.put(shard, future.join()));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    private ShardTransaction currentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        ShardTransaction transaction = (ShardTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction == null) {
+            transaction = new ShardTransaction();
+            TransactionSynchronizationManager.bindResource(this, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        return transaction;
+    }
+
+    @Override
+    public void close() {
+        scatterExecutor.shutdownNow();
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Failed to close shard pool", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Shard connections and bucket locks held by one Spring transaction
+     */
+    private final class ShardTransaction implements TransactionSynchronization {
+
+        private final Map<String, Connection> connections = new LinkedHashMap<>();
+        private final Map<String, JdbcOperations> jdbcs = new LinkedHashMap<>();
+        private final Set<String> committed = new HashSet<>();
+        private final List<Lock> heldLocks = new ArrayList<>();
+        private final Set<Integer> lockedBuckets = new HashSet<>();
+
+        void lockBucket(int bucket) {
+            if (lockedBuckets.add(bucket)) {
+                Lock lock = bucketLocks[bucket].readLock();
+                lock.lock();
+                heldLocks.add(lock);
+            }
+        }
+
+        JdbcOperations jdbc(String shard) {
+            return jdbcs.computeIfAbsent(shard, name -> {
+                try {
+                    Connection connection = shards.get(name).getConnection();
+                    connection.setAutoCommit(false);
+                    connections.put(name, connection);
+                    return new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                } catch (SQLException ex) {
+                    throw new TransactionSystemException("Could not open a connection to shard " + name, ex);
+                }
+            });
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            for (Map.Entry<String, Connection> entry : connections.entrySet()) {
+                try {
+                    entry.getValue().commit();
+                    committed.add(entry.getKey());
+                } catch (SQLException ex) {
+                    if (!committed.isEmpty()) {
+                        log.error("Shard {} failed to commit after shards {} committed", entry.getKey(), committed, ex);
+                    }
+                    throw new TransactionSystemException("Could not commit shard " + entry.getKey(), ex);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ShardRouter.this);
+            connections.forEach((shard, connection) -> {
+                try {
+                    if (!committed.contains(shard)) {
+                        connection.rollback();
+                    }
+                    connection.setAutoCommit(true);
+                    connection.close();
+                } catch (SQLException ex) {
+                    log.warn("Failed to release connection to shard {}", shard, ex);
+                }
+            });
+            heldLocks.forEach(Lock::unlock);
+        }
+    }
+}
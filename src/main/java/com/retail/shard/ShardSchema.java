@@ -0,0 +1,28 @@
+package com.retail.shard;
+
+/**
+ * DDL and column list of the retails table on each shard. IDs are assigned by the shard directory,
+ * so unlike the single-database table the ID column has no identity default.
+ */
+final class ShardSchema {
+
+    static final String COLUMNS =
+            "id, product_name, category, price, quantity, description, created_at, updated_at";
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS retails ("
+            + "id BIGINT PRIMARY KEY, "
+            + "product_name VARCHAR(100) NOT NULL, "
+            + "category VARCHAR(50) NOT NULL, "
+            + "price NUMERIC(10, 2) NOT NULL, "
+            + "quantity INT NOT NULL, "
+            + "description VARCHAR(500), "
+            + "created_at TIMESTAMP NOT NULL, "
+            + "updated_at TIMESTAMP)";
+
+    static final String CREATE_CATEGORY_INDEX = "CREATE INDEX IF NOT EXISTS idx_retails_category ON retails (category)";
+
+    static final String INSERT = "INSERT INTO retails (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private ShardSchema() {
+    }
+}
@@ -0,0 +1,402 @@
+package com.retail.shard;
+
+import com.retail.entity.Retail;
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.repository.RetailCategoryEntry;
+import com.retail.repository.RetailRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * {@link RetailRepository} over hash-partitioned shards, replacing the JPA repository when
+ * {@code retail.sharding.enabled=true}. Single-item operations go to the shard owning the item's
+ * bucket; list, category and keyset queries are scattered to all shards and merged in ID order.
+ * Product names are made unique across shards by registering them in the {@link ShardDirectory}
+ * before an item is inserted or renamed.
+ *
+ * Sorted and paged findAll sort on each shard and merge the results the same way, so a page reads
+ * at most its offset plus its size in rows from each shard.
+ *
+ * Items are plain JDBC rows, not managed entities: changes must be written back with
+ * {@link #save(Retail)}, and the timestamps normally set by the entity callbacks are set here.
+ */
+public class ShardedRetailRepository implements RetailRepository {
+
+    private static final String SELECT = "SELECT " + ShardSchema.COLUMNS + " FROM retails";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "productName", "product_name",
+            "category", "category",
+            "price", "price",
+            "quantity", "quantity",
+            "description", "description",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private static final RowMapper<Retail> RETAIL_MAPPER = (rs, rowNum) -> {
+        Retail retail = new Retail(
+                rs.getString("product_name"),
+                rs.getString("category"),
+                rs.getBigDecimal("price"),
+                rs.getInt("quantity"));
+        retail.setId(rs.getLong("id"));
+        retail.setDescription(rs.getString("description"));
+        retail.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        retail.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return retail;
+    };
+
+    private final ShardRouter router;
+    private final ShardDirectory directory;
+
+    public ShardedRetailRepository(ShardRouter router, ShardDirectory directory) {
+        this.router = router;
+        this.directory = directory;
+    }
+
+    // Single-item operations
+
+    @Override
+    public <S extends Retail> S save(S retail) {
+        return retail.getId() == null ? insert(retail) : update(retail);
+    }
+
+    private <S extends Retail> S insert(S retail) {
+        String name = ShardDirectory.normalize(retail.getProductName());
+        long id = router.newId(name);
+        if (!directory.claimName(name, id)) {
+            throw new ResourceAlreadyExistsException("Retail", "productName", retail.getProductName());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            router.onBucket(id, jdbc -> jdbc.update(ShardSchema.INSERT,
+                    id, retail.getProductName(), retail.getCategory(), retail.getPrice(), retail.getQuantity(),
+                    retail.getDescription(), Timestamp.valueOf(now), Timestamp.valueOf(now)));
+        } catch (RuntimeException ex) {
+            directory.releaseName(name, id);
+            throw ex;
+        }
+        retail.setId(id);
+        retail.setCreatedAt(now);
+        retail.setUpdatedAt(now);
+        return retail;
+    }
+
+    private <S extends Retail> S update(S retail) {
+        long id = retail.getId();
+        return router.onBucket(id, jdbc -> {
+            String oldName = findProductName(jdbc, id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Retail", "id", id));
+            String oldNormalized = ShardDirectory.normalize(oldName);
+            String newNormalized = ShardDirectory.normalize(retail.getProductName());
+            boolean renamed = !oldNormalized.equals(newNormalized);
+            if (renamed && !directory.claimName(newNormalized, id)) {
+                throw new ResourceAlreadyExistsException("Retail", "productName", retail.getProductName());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbc.update("UPDATE retails SET product_name = ?, category = ?, price = ?, quantity = ?, "
+                                + "description = ?, updated_at = ? WHERE id = ?",
+                        retail.getProductName(), retail.getCategory(), retail.getPrice(), retail.getQuantity(),
+                        retail.getDescription(), Timestamp.valueOf(now), id);
+            } catch (RuntimeException ex) {
+                if (renamed) {
+                    directory.releaseName(newNormalized, id);
+                }
+                throw ex;
+            }
+            if (renamed) {
+                directory.releaseName(oldNormalized, id);
+            }
+            retail.setUpdatedAt(now);
+            return retail;
+        });
+    }
+
+    @Override
+    public Optional<Retail> findById(Long id) {
+        return router.onBucket(id, jdbc -> jdbc.query(SELECT + " WHERE id = ?", RETAIL_MAPPER, id).stream().findFirst());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public Optional<Retail> findByProductNameIgnoreCase(String productName) {
+        return directory.findIdByName(ShardDirectory.normalize(productName)).flatMap(this::findById);
+    }
+
+    @Override
+    public boolean existsByProductNameIgnoreCase(String productName) {
+        return directory.findIdByName(ShardDirectory.normalize(productName)).isPresent();
+    }
+
+    @Override
+    public int adjustQuantity(Long id, int delta, LocalDateTime updatedAt) {
+        return router.onBucket(id, jdbc -> jdbc.update(
+                "UPDATE retails SET quantity = quantity + ?, updated_at = ? WHERE id = ? AND quantity + ? >= 0",
+                delta, Timestamp.valueOf(updatedAt), id, delta));
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        router.onBucket(id, jdbc -> {
+            findProductName(jdbc, id).ifPresent(name -> {
+                jdbc.update("DELETE FROM retails WHERE id = ?", id);
+                directory.releaseName(ShardDirectory.normalize(name), id);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Retail retail) {
+        deleteById(retail.getId());
+    }
+
+    private static Optional<String> findProductName(JdbcOperations jdbc, long id) {
+        return jdbc.queryForList("SELECT product_name FROM retails WHERE id = ?", String.class, id).stream().findFirst();
+    }
+
+    // Scatter-gather queries
+
+    @Override
+    public List<Retail> findAll() {
+        return scatterRetails(jdbc -> jdbc.query(SELECT, RETAIL_MAPPER));
+    }
+
+    @Override
+    public List<Retail> findAllById(Iterable<Long> ids) {
+        List<Long> requested = new ArrayList<>();
+        ids.forEach(requested::add);
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        List<Retail> retails = router.scatter((shard, jdbc) -> {
+            List<Object> owned = new ArrayList<>();
+            for (Long id : requested) {
+                if (shard.equals(router.ownerOf(router.bucketOf(id)))) {
+                    owned.add(id);
+                }
+            }
+            if (owned.isEmpty()) {
+                return List.<Retail>of();
+            }
+            String placeholders = String.join(", ", owned.stream().map(id -> "?").toList());
+            return jdbc.query(SELECT + " WHERE id IN (" + placeholders + ")", RETAIL_MAPPER, owned.toArray());
+        }, Retail::getId);
+        retails.sort(Comparator.comparing(Retail::getId));
+        return retails;
+    }
+
+    @Override
+    public List<Retail> findByCategoryIgnoreCase(String category) {
+        return scatterRetails(jdbc -> jdbc.query(SELECT + " WHERE LOWER(category) = LOWER(?)", RETAIL_MAPPER, category));
+    }
+
+    @Override
+    public List<Retail> findByCategoryAndQuantityGreaterThan(String category, Integer quantity) {
+        return scatterRetails(jdbc -> jdbc.query(SELECT + " WHERE category = ? AND quantity > ?",
+                RETAIL_MAPPER, category, quantity));
+    }
+
+    @Override
+    public List<RetailCategoryEntry> findAllCategoryEntries() {
+        List<RetailCategoryEntry> entries = router.scatter((shard, jdbc) -> jdbc.query(
+                "SELECT id, category FROM retails",
+                (rs, rowNum) -> new CategoryEntry(rs.getLong("id"), rs.getString("category"))), RetailCategoryEntry::getId);
+        entries.sort(Comparator.comparing(RetailCategoryEntry::getId));
+        return entries;
+    }
+
+    @Override
+    public List<Retail> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable) {
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        return scatterRetails(jdbc -> jdbc.query(SELECT + " WHERE id > ? ORDER BY id LIMIT " + limit, RETAIL_MAPPER, id))
+                .stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    @Override
+    public List<Retail> findInIdRangeForUpdate(Long fromId, Long toId, String category) {
+        String sql = SELECT + " WHERE id BETWEEN ? AND ?"
+                + (category != null ? " AND LOWER(category) = LOWER(?)" : "") + " ORDER BY id FOR UPDATE";
+        Object[] args = category != null ? new Object[]{fromId, toId, category} : new Object[]{fromId, toId};
+        return scatterRetails(jdbc -> jdbc.query(sql, RETAIL_MAPPER, args));
+    }
+
+    @Override
+    public Long findMinId() {
+        return router.scatterAggregate(jdbc -> jdbc.queryForObject("SELECT MIN(id) FROM retails", Long.class))
+                .stream().min(Long::compare).orElse(null);
+    }
+
+    @Override
+    public Long findMaxId() {
+        return router.scatterAggregate(jdbc -> jdbc.queryForObject("SELECT MAX(id) FROM retails", Long.class))
+                .stream().max(Long::compare).orElse(null);
+    }
+
+    @Override
+    public long count() {
+        return router.count();
+    }
+
+    @Override
+    public void deleteAll() {
+        router.onEveryShard(jdbc -> jdbc.update("DELETE FROM retails"));
+        directory.clearNames();
+    }
+
+    private List<Retail> scatterRetails(Function<JdbcOperations, List<Retail>> query) {
+        List<Retail> retails = router.scatter((shard, jdbc) -> query.apply(jdbc), Retail::getId);
+        retails.sort(Comparator.comparing(Retail::getId));
+        return retails;
+    }
+
+    // Sorted and paged queries: each shard sorts in SQL, the rows are merged here with the same order
+
+    @Override
+    public List<Retail> findAll(Sort sort) {
+        String sql = SELECT + orderBy(sort);
+        List<Retail> retails = router.scatter((shard, jdbc) -> jdbc.query(sql, RETAIL_MAPPER), Retail::getId);
+        retails.sort(comparator(sort));
+        return retails;
+    }
+
+    @Override
+    public Page<Retail> findAll(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(pageable.getSort()));
+        }
+        // Each shard returns the rows up to the end of the page; the page is then cut from the merge
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        String sql = SELECT + orderBy(pageable.getSort()) + " LIMIT " + limit;
+        List<Retail> retails = router.scatter((shard, jdbc) -> jdbc.query(sql, RETAIL_MAPPER), Retail::getId);
+        retails.sort(comparator(pageable.getSort()));
+        List<Retail> content = retails.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, count());
+    }
+
+    /**
+     * Build the ORDER BY clause for a sort, ending with the ID so the order is total
+     * @throws IllegalArgumentException if a sort property is not a sortable item property
+     */
+    private static String orderBy(Sort sort) {
+        StringJoiner clause = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort retail items by " + order.getProperty());
+            }
+            String key = order.isIgnoreCase() ? "LOWER(" + column + ")" : column;
+            clause.add(key + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (sort.getOrderFor("id") == null) {
+            clause.add("id ASC");
+        }
+        return clause.toString();
+    }
+
+    /**
+     * Compare items in the order {@link #orderBy(Sort)} gives, with nulls first when ascending as H2 sorts them
+     */
+    private static Comparator<Retail> comparator(Sort sort) {
+        Comparator<Retail> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Retail> next = ascending(order.getProperty(), order.isIgnoreCase());
+            next = order.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Retail> byId = Comparator.comparing(Retail::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private static Comparator<Retail> ascending(String property, boolean ignoreCase) {
+        Comparator<String> strings = Comparator.nullsFirst(ignoreCase
+                ? Comparator.comparing(text -> text.toLowerCase(Locale.ROOT))
+                : Comparator.<String>naturalOrder());
+        Comparator<LocalDateTime> times = Comparator.nullsFirst(Comparator.naturalOrder());
+        return switch (property) {
+            case "id" -> Comparator.comparing(Retail::getId);
+            case "productName" -> Comparator.comparing(Retail::getProductName, strings);
+            case "category" -> Comparator.comparing(Retail::getCategory, strings);
+            case "description" -> Comparator.comparing(Retail::getDescription, strings);
+            case "price" -> Comparator.comparing(Retail::getPrice);
+            case "quantity" -> Comparator.comparing(Retail::getQuantity);
+            case "createdAt" -> Comparator.comparing(Retail::getCreatedAt, times);
+            case "updatedAt" -> Comparator.comparing(Retail::getUpdatedAt, times);
+            default -> throw new IllegalArgumentException("Cannot sort retail items by " + property);
+        };
+    }
+
+    // Bulk variants, expressed with the operations above
+
+    @Override
+    public <S extends Retail> List<S> saveAll(Iterable<S> retails) {
+        List<S> saved = new ArrayList<>();
+        retails.forEach(retail -> saved.add(save(retail)));
+        return saved;
+    }
+
+    @Override
+    public void flush() {
+        // Statements are executed immediately; there is no persistence context to flush
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Retail> retails) {
+        retails.forEach(this::delete);
+    }
+
+    private static final class CategoryEntry implements RetailCategoryEntry {
+
+        private final Long id;
+        private final String category;
+
+        CategoryEntry(Long id, String category) {
+            this.id = id;
+            this.category = category;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.retail.snapshot;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailResyncEvent;
+import com.retail.event.RetailState;
+import com.retail.index.CategoryIndex;
+import com.retail.index.SortedLongSet;
+import com.retail.repository.RetailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Optional read-serving mode: materializes the catalog into an {@link OffHeapCatalog} at startup
+ * and keeps it current from committed {@link RetailChangeEvent}s, so the GET endpoints can answer
+ * without opening a Hibernate session.
+ *
+ * Enabled with {@code retail.snapshot.enabled=true}; set {@code retail.snapshot.directory} to back the
+ * columns with memory-mapped files instead of direct buffers. Each load writes a new generation
+ * subdirectory there and deletes the previous one once the new generation is serving.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final RetailRepository retailRepository;
+    private final CategoryIndex categoryIndex;
+    private final boolean enabled;
+    private final String directory;
+    private final int loadBatchSize;
+
+    private volatile OffHeapCatalog catalog;
+    private volatile OffHeapCatalog loading;
+    private volatile boolean ready;
+    private long generation;
+
+    @Autowired
+    public CatalogSnapshot(RetailRepository retailRepository,
+                           CategoryIndex categoryIndex,
+                           @Value("${retail.snapshot.enabled:false}") boolean enabled,
+                           @Value("${retail.snapshot.directory:}") String directory,
+                           @Value("${retail.snapshot.load-batch-size:1000}") int loadBatchSize) {
+        this.retailRepository = retailRepository;
+        this.categoryIndex = categoryIndex;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * @return true when reads may be answered from the snapshot
+     */
+    public boolean isServing() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Build the snapshot from the repository in ID order, one batch at a time. A snapshot that is
+     * already serving keeps answering until the replacement is complete.
+     */
+    public synchronized void load() {
+        OffHeapCatalog target = new OffHeapCatalog(
+                SnapshotBuffers.forGeneration(directory.isBlank() ? null : Path.of(directory), ++generation),
+                loadBatchSize, loadBatchSize * 256);
+        loading = target;
+
+        long start = System.nanoTime();
+        long[] lastId = {0L};
+        int loaded;
+        try {
+            do {
+                loaded = target.upsertAll(() -> {
+                    List<Retail> batch = retailRepository.findByIdGreaterThanOrderByIdAsc(
+                            lastId[0], PageRequest.of(0, loadBatchSize));
+                    if (!batch.isEmpty()) {
+                        lastId[0] = batch.get(batch.size() - 1).getId();
+                    }
+                    return batch.stream().map(RetailState::of).toList();
+                });
+            } while (loaded == loadBatchSize);
+        } catch (RuntimeException ex) {
+            loading = null;
+            target.release();
+            throw ex;
+        }
+
+        OffHeapCatalog previous = catalog;
+        catalog = target;
+        loading = null;
+        ready = true;
+        if (previous != null) {
+            previous.release();
+        }
+        log.info("Catalog snapshot loaded {} items ({} string bytes) in {} ms",
+                target.size(), target.arenaBytesInUse(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRetailChange(RetailChangeEvent event) {
+        // Read the generation being loaded first: if the swap happens in between, the change is
+        // applied to the new generation twice rather than to neither
+        OffHeapCatalog next = loading;
+        apply(catalog, event);
+        apply(next, event);
+    }
+
+    @EventListener
+    public void onResync(RetailResyncEvent event) {
+        if (ready) {
+            log.info("Reloading catalog snapshot: {}", event.getReason());
+            load();
+        }
+    }
+
+    /**
+     * Get a retail item by ID
+     * @param id the ID
+     * @return the retail item, or empty if the snapshot is not serving or does not hold it
+     */
+    public Optional<Retail> findById(Long id) {
+        if (!ready || id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(catalog.get(id));
+    }
+
+    /**
+     * Get a retail item by product name (case-insensitive)
+     * @param productName the product name
+     * @return the retail item, or empty if the snapshot is not serving or does not hold it
+     */
+    public Optional<Retail> findByProductName(String productName) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(catalog.getByProductName(productName));
+    }
+
+    /**
+     * Get all retail items; only valid while {@link #isServing()}
+     * @return all retail items ordered by ID
+     */
+    public List<Retail> findAll() {
+        return catalog.getAll();
+    }
+
+    /**
+     * Get retail items in a category, using the category index for membership
+     * @param category the category (case-insensitive)
+     * @param offset the number of items to skip
+     * @param limit the maximum number of items to return
+     * @return the retail items ordered by ID, or empty if either the snapshot or the index is not ready
+     */
+    public Optional<List<Retail>> findByCategory(String category, long offset, int limit) {
+        if (!ready || !categoryIndex.isReady()) {
+            return Optional.empty();
+        }
+        SortedLongSet ids = categoryIndex.idsFor(category);
+        if (offset >= ids.size()) {
+            return Optional.of(List.of());
+        }
+        return Optional.of(catalog.getAll(ids.slice((int) offset, limit)));
+    }
+
+    private static void apply(OffHeapCatalog target, RetailChangeEvent event) {
+        if (target == null) {
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED, UPDATED -> target.upsert(event.getAfter());
+            case DELETED -> target.remove(event.getRetailId());
+            case CLEARED -> target.clear();
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.retail.snapshot;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailState;
+import com.retail.index.LongIntHashMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Columnar, off-heap copy of the catalog. Each retail item occupies one slot across fixed-width
+ * columns (id, price, quantity, category code, string references, timestamps); product names and
+ * descriptions live in a shared UTF-8 arena and categories are dictionary-encoded. The heap only
+ * holds primitive lookup tables and the category dictionary, so millions of items add no
+ * objects for the garbage collector to trace.
+ *
+ * Reads take a shared lock and run concurrently with each other; writes are exclusive. Once
+ * {@link #release() released}, writes are ignored so a change racing with a reload cannot recreate
+ * the files of a generation that has been replaced.
+ */
+class OffHeapCatalog {
+
+    private static final int PRICE_SCALE = 2;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_REF = -1L;
+    private static final int MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final SnapshotBuffers buffers;
+    private final StampedLock lock = new StampedLock();
+
+    private ByteBuffer ids;
+    private ByteBuffer prices;
+    private ByteBuffer quantities;
+    private ByteBuffer categoryCodes;
+    private ByteBuffer nameRefs;
+    private ByteBuffer descriptionRefs;
+    private ByteBuffer createdAts;
+    private ByteBuffer updatedAts;
+    private ByteBuffer arena;
+
+    private int slotCapacity;
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int arenaUsed;
+    private long arenaGarbage;
+    private boolean released;
+
+    private final LongIntHashMap slotById = new LongIntHashMap();
+    private final LongIntHashMap slotByNameHash = new LongIntHashMap();
+    private final List<String> categoryDictionary = new ArrayList<>();
+    private final Map<String, Integer> categoryCodeByName = new HashMap<>();
+
+    OffHeapCatalog(SnapshotBuffers buffers, int initialSlots, int initialArenaBytes) {
+        this.buffers = buffers;
+        this.slotCapacity = Math.max(16, initialSlots);
+        this.ids = buffers.allocate("ids", slotCapacity * Long.BYTES);
+        this.prices = buffers.allocate("prices", slotCapacity * Long.BYTES);
+        this.quantities = buffers.allocate("quantities", slotCapacity * Integer.BYTES);
+        this.categoryCodes = buffers.allocate("categories", slotCapacity * Integer.BYTES);
+        this.nameRefs = buffers.allocate("names", slotCapacity * Long.BYTES);
+        this.descriptionRefs = buffers.allocate("descriptions", slotCapacity * Long.BYTES);
+        this.createdAts = buffers.allocate("created-at", slotCapacity * Long.BYTES);
+        this.updatedAts = buffers.allocate("updated-at", slotCapacity * Long.BYTES);
+        this.arena = buffers.allocate("strings", Math.max(1024, initialArenaBytes));
+    }
+
+    // ---- reads ----
+
+    /**
+     * @return the retail item with the ID, or null if it is not in the snapshot
+     */
+    Retail get(long id) {
+        // The lookup tables and dictionary are plain heap structures that a writer may be rehashing,
+        // so reads cannot run optimistically against them
+        long stamp = lock.readLock();
+        try {
+            return readById(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the retail item with the product name (case-insensitive), or null if it is not in the snapshot
+     */
+    Retail getByProductName(String productName) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotByNameHash.get(nameHash(productName));
+            if (slot == LongIntHashMap.MISSING) {
+                return null;
+            }
+            Retail retail = readSlot(slot);
+            // Distinct names can share a hash; only answer when the stored name really matches
+            return retail.getProductName().equalsIgnoreCase(productName) ? retail : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return every retail item in the snapshot, ordered by ID
+     */
+    List<Retail> getAll() {
+        long stamp = lock.readLock();
+        try {
+            List<Retail> retails = new ArrayList<>(slotById.size());
+            for (int slot = 0; slot < highWater; slot++) {
+                if (ids.getLong(slot * Long.BYTES) != 0L) {
+                    retails.add(readSlot(slot));
+                }
+            }
+            retails.sort(Comparator.comparing(Retail::getId));
+            return retails;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the retail items with the given IDs in the same order, skipping IDs not in the snapshot
+     */
+    List<Retail> getAll(long[] idsToRead) {
+        long stamp = lock.readLock();
+        try {
+            List<Retail> retails = new ArrayList<>(idsToRead.length);
+            for (long id : idsToRead) {
+                int slot = slotById.get(id);
+                if (slot != LongIntHashMap.MISSING) {
+                    retails.add(readSlot(slot));
+                }
+            }
+            return retails;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    long arenaBytesInUse() {
+        long stamp = lock.readLock();
+        try {
+            return arenaUsed - arenaGarbage;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ---- writes ----
+
+    void upsert(RetailState state) {
+        long stamp = lock.writeLock();
+        try {
+            if (released) {
+                return;
+            }
+            upsertLocked(state);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Load a batch while holding the write lock for both the read and the apply, so a concurrent
+     * change cannot be overwritten by an older copy read just before it committed
+     * @param batch supplies the states to store
+     * @return the number of states stored
+     */
+    int upsertAll(Supplier<List<RetailState>> batch) {
+        long stamp = lock.writeLock();
+        try {
+            List<RetailState> states = batch.get();
+            for (RetailState state : states) {
+                upsertLocked(state);
+            }
+            return states.size();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            if (released) {
+                return;
+            }
+            int slot = slotById.remove(id);
+            if (slot == LongIntHashMap.MISSING) {
+                return;
+            }
+            String name = readString(nameRefs.getLong(slot * Long.BYTES));
+            if (slotByNameHash.get(nameHash(name)) == slot) {
+                slotByNameHash.remove(nameHash(name));
+            }
+            releaseString(nameRefs.getLong(slot * Long.BYTES));
+            releaseString(descriptionRefs.getLong(slot * Long.BYTES));
+            ids.putLong(slot * Long.BYTES, 0L);
+            pushFreeSlot(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void clear() {
+        long stamp = lock.writeLock();
+        try {
+            if (released) {
+                return;
+            }
+            for (int slot = 0; slot < highWater; slot++) {
+                ids.putLong(slot * Long.BYTES, 0L);
+            }
+            highWater = 0;
+            freeCount = 0;
+            arenaUsed = 0;
+            arenaGarbage = 0;
+            slotById.clear();
+            slotByNameHash.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Stop accepting writes and delete the backing files, once this generation has been replaced
+     */
+    void release() {
+        long stamp = lock.writeLock();
+        try {
+            if (!released) {
+                released = true;
+                buffers.release();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void upsertLocked(RetailState state) {
+        long id = state.getId();
+        int slot = slotById.get(id);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = allocateSlot();
+            slotById.put(id, slot);
+        } else {
+            String previousName = readString(nameRefs.getLong(slot * Long.BYTES));
+            if (slotByNameHash.get(nameHash(previousName)) == slot) {
+                slotByNameHash.remove(nameHash(previousName));
+            }
+            releaseString(nameRefs.getLong(slot * Long.BYTES));
+            releaseString(descriptionRefs.getLong(slot * Long.BYTES));
+            nameRefs.putLong(slot * Long.BYTES, NULL_REF);
+            descriptionRefs.putLong(slot * Long.BYTES, NULL_REF);
+        }
+
+        // Strings first: appending may compact the arena, which rewrites every live reference
+        long nameRef = appendString(state.getProductName());
+        nameRefs.putLong(slot * Long.BYTES, nameRef);
+        long descriptionRef = appendString(state.getDescription());
+        descriptionRefs.putLong(slot * Long.BYTES, descriptionRef);
+
+        ids.putLong(slot * Long.BYTES, id);
+        prices.putLong(slot * Long.BYTES, encodePrice(state.getPrice()));
+        quantities.putInt(slot * Integer.BYTES, state.getQuantity() == null ? NULL_INT : state.getQuantity());
+        categoryCodes.putInt(slot * Integer.BYTES, categoryCode(state.getCategory()));
+        createdAts.putLong(slot * Long.BYTES, encodeTime(state.getCreatedAt()));
+        updatedAts.putLong(slot * Long.BYTES, encodeTime(state.getUpdatedAt()));
+        if (state.getProductName() != null) {
+            slotByNameHash.put(nameHash(state.getProductName()), slot);
+        }
+    }
+
+    // ---- slots ----
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == slotCapacity) {
+            growSlots(slotCapacity * 2);
+        }
+        return highWater++;
+    }
+
+    private void pushFreeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void growSlots(int capacity) {
+        ids = buffers.grow("ids", ids, capacity * Long.BYTES);
+        prices = buffers.grow("prices", prices, capacity * Long.BYTES);
+        quantities = buffers.grow("quantities", quantities, capacity * Integer.BYTES);
+        categoryCodes = buffers.grow("categories", categoryCodes, capacity * Integer.BYTES);
+        nameRefs = buffers.grow("names", nameRefs, capacity * Long.BYTES);
+        descriptionRefs = buffers.grow("descriptions", descriptionRefs, capacity * Long.BYTES);
+        createdAts = buffers.grow("created-at", createdAts, capacity * Long.BYTES);
+        updatedAts = buffers.grow("updated-at", updatedAts, capacity * Long.BYTES);
+        slotCapacity = capacity;
+    }
+
+    private Retail readById(long id) {
+        int slot = slotById.get(id);
+        return slot == LongIntHashMap.MISSING ? null : readSlot(slot);
+    }
+
+    private Retail readSlot(int slot) {
+        Retail retail = new Retail(
+                readString(nameRefs.getLong(slot * Long.BYTES)),
+                categoryDictionary.get(categoryCodes.getInt(slot * Integer.BYTES)),
+                decodePrice(prices.getLong(slot * Long.BYTES)),
+                decodeInt(quantities.getInt(slot * Integer.BYTES))
+        );
+        retail.setId(ids.getLong(slot * Long.BYTES));
+        retail.setDescription(readString(descriptionRefs.getLong(slot * Long.BYTES)));
+        retail.setCreatedAt(decodeTime(createdAts.getLong(slot * Long.BYTES)));
+        retail.setUpdatedAt(decodeTime(updatedAts.getLong(slot * Long.BYTES)));
+        return retail;
+    }
+
+    // ---- string arena ----
+
+    private long appendString(String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (arenaUsed + bytes.length > arena.capacity()) {
+            if (arenaGarbage >= MIN_COMPACTION_BYTES && arenaGarbage * 2 >= arenaUsed) {
+                compactArena();
+            }
+            if (arenaUsed + bytes.length > arena.capacity()) {
+                long capacity = Math.max((long) arena.capacity() * 2, (long) arenaUsed + bytes.length);
+                if (capacity > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Snapshot string arena is full");
+                }
+                arena = buffers.grow("strings", arena, (int) capacity);
+            }
+        }
+        int offset = arenaUsed;
+        arena.put(offset, bytes);
+        arenaUsed += bytes.length;
+        return ((long) offset << 32) | bytes.length;
+    }
+
+    private String readString(long ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) ref];
+        arena.get((int) (ref >>> 32), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void releaseString(long ref) {
+        if (ref != NULL_REF) {
+            arenaGarbage += (int) ref;
+        }
+    }
+
+    /**
+     * Rewrite the arena with only the strings still referenced by live slots
+     */
+    private void compactArena() {
+        ByteBuffer compacted = buffers.isMapped()
+                ? ByteBuffer.allocate(arena.capacity())
+                : ByteBuffer.allocateDirect(arena.capacity());
+        int used = 0;
+        for (int slot = 0; slot < highWater; slot++) {
+            if (ids.getLong(slot * Long.BYTES) == 0L) {
+                continue;
+            }
+            used = copyString(nameRefs, slot, compacted, used);
+            used = copyString(descriptionRefs, slot, compacted, used);
+        }
+        if (buffers.isMapped()) {
+            // Mapped arenas keep their file; copy the compacted bytes back in place
+            arena.put(0, compacted, 0, used);
+        } else {
+            arena = compacted;
+        }
+        arenaUsed = used;
+        arenaGarbage = 0;
+    }
+
+    private int copyString(ByteBuffer refs, int slot, ByteBuffer target, int offset) {
+        long ref = refs.getLong(slot * Long.BYTES);
+        if (ref == NULL_REF) {
+            return offset;
+        }
+        int length = (int) ref;
+        target.put(offset, arena, (int) (ref >>> 32), length);
+        refs.putLong(slot * Long.BYTES, ((long) offset << 32) | length);
+        return offset + length;
+    }
+
+    // ---- encodings ----
+
+    private int categoryCode(String category) {
+        Integer code = categoryCodeByName.get(category);
+        if (code == null) {
+            code = categoryDictionary.size();
+            categoryDictionary.add(category);
+            categoryCodeByName.put(category, code);
+        }
+        return code;
+    }
+
+    static long nameHash(String productName) {
+        if (productName == null) {
+            return 0L;
+        }
+        // 64-bit FNV-1a over the lower-cased name, matching the IgnoreCase repository lookup
+        long hash = 0xcbf29ce484222325L;
+        String normalized = productName.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long encodePrice(BigDecimal price) {
+        if (price == null) {
+            return NULL_LONG;
+        }
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal decodePrice(long unscaled) {
+        return unscaled == NULL_LONG ? null : BigDecimal.valueOf(unscaled, PRICE_SCALE);
+    }
+
+    private static Integer decodeInt(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    private static long encodeTime(LocalDateTime time) {
+        if (time == null) {
+            return NULL_LONG;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime decodeTime(long nanos) {
+        if (nanos == NULL_LONG) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,106 @@
+package com.retail.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Allocates the off-heap buffers behind a {@link CatalogSnapshot}: direct buffers by default,
+ * or memory-mapped files when a directory is configured so the OS page cache holds the data.
+ *
+ * Each snapshot generation gets its own directory, so building the next generation during a
+ * reload never touches the files the serving one is mapped from.
+ */
+class SnapshotBuffers {
+
+    private final Path directory;
+
+    /**
+     * @param directory the directory for this generation's memory-mapped column files, or null for
+     *                  direct buffers
+     */
+    SnapshotBuffers(Path directory) {
+        this.directory = directory;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create snapshot directory " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * @param root the configured snapshot directory, or null for direct buffers
+     * @param generation the number of the snapshot generation
+     * @return the buffers for that generation, in a subdirectory of the root
+     */
+    static SnapshotBuffers forGeneration(Path root, long generation) {
+        return new SnapshotBuffers(root == null ? null : root.resolve("generation-" + generation));
+    }
+
+    boolean isMapped() {
+        return directory != null;
+    }
+
+    /**
+     * Delete this generation's files. The mappings stay valid until the buffers are garbage
+     * collected, so a reader still holding the old generation is not affected.
+     */
+    void release() {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete snapshot directory " + directory, e);
+        }
+    }
+
+    /**
+     * Allocate a fresh, zero-filled buffer, discarding any previous file contents
+     */
+    ByteBuffer allocate(String name, int capacity) {
+        if (directory == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        Path file = directory.resolve(name + ".col");
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reset snapshot file " + file, e);
+        }
+        return map(file, capacity);
+    }
+
+    /**
+     * Grow a buffer, preserving its contents
+     */
+    ByteBuffer grow(String name, ByteBuffer current, int capacity) {
+        if (directory == null) {
+            ByteBuffer next = ByteBuffer.allocateDirect(capacity);
+            next.put(0, current, 0, current.capacity());
+            return next;
+        }
+        // Remapping a longer region of the same file keeps the bytes already written
+        return map(directory.resolve(name + ".col"), capacity);
+    }
+
+    private static ByteBuffer map(Path file, int capacity) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map snapshot file " + file, e);
+        }
+    }
+}
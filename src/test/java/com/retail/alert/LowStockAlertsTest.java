@@ -0,0 +1,286 @@
+package com.retail.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.index.CategoryIndex;
+import com.retail.repository.RetailCategoryEntry;
+import com.retail.repository.RetailRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LowStockAlerts Unit Tests")
+class LowStockAlertsTest {
+
+    @Mock
+    private RetailRepository retailRepository;
+
+    @Mock
+    private AlertFeed alertFeed;
+
+    private LowStockAlerts alerts;
+
+    @BeforeEach
+    void setUp() {
+        when(retailRepository.findAllCategoryEntries()).thenReturn(List.of(
+                entry(1L, "Toys"), entry(2L, "toys"), entry(3L, "Books")));
+        when(retailRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                retail(1L, "Toys", 20), retail(2L, "toys", 4), retail(3L, "Books", 0)));
+        CategoryIndex categoryIndex = new CategoryIndex(retailRepository);
+        categoryIndex.rebuild();
+        alerts = new LowStockAlerts(retailRepository, categoryIndex, alertFeed, true, -1, 5);
+        alerts.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should alert on the items a new category rule puts at or below its threshold")
+    void testAddRule_Category() {
+        // When
+        ThresholdRule stored = alerts.addRule(rule(null, "TOYS", 5));
+
+        // Then
+        assertNotNull(stored.getRuleId());
+        assertEquals("toys", stored.getCategory());
+        List<StockAlert> raised = raisedAlerts(1);
+        assertEquals(StockAlert.Type.LOW_STOCK, raised.get(0).getType());
+        assertEquals(2L, raised.get(0).getRetailId());
+
+        List<StockLevel> levels = alerts.findStockLevels(null, false, 10);
+        assertEquals(1, levels.size());
+        assertEquals(-1, levels.get(0).getHeadroom());
+        // Books has no rule and there is no default threshold
+        assertTrue(alerts.findStockLevels("Books", false, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should raise alerts only when a quantity change crosses the threshold")
+    void testApply_Transitions() {
+        // Given
+        alerts.addRule(rule(null, "toys", 5));
+        reset(alertFeed);
+
+        // When
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 20), state(1L, "Toys", 12)));
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 12), state(1L, "Toys", 5)));
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 5), state(1L, "Toys", 3)));
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 3), state(1L, "Toys", 0)));
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 0), state(1L, "Toys", 2)));
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 2), state(1L, "Toys", 9)).withOrigin("node-b"));
+
+        // Then
+        ArgumentCaptor<StockAlert> captor = ArgumentCaptor.forClass(StockAlert.class);
+        ArgumentCaptor<Boolean> local = ArgumentCaptor.forClass(Boolean.class);
+        verify(alertFeed, times(3)).publish(captor.capture(), local.capture());
+        assertEquals(List.of(StockAlert.Type.LOW_STOCK, StockAlert.Type.OUT_OF_STOCK, StockAlert.Type.RESTOCKED),
+                captor.getAllValues().stream().map(StockAlert::getType).toList());
+        assertEquals("Product 1", captor.getAllValues().get(0).getProductName());
+        assertEquals(List.of(true, true, false), local.getAllValues());
+    }
+
+    @Test
+    @DisplayName("Should let a product rule override its category rule until it is removed")
+    void testProductRule_OverridesCategory() {
+        // Given
+        alerts.addRule(rule(null, "toys", 5));
+        reset(alertFeed);
+
+        // When
+        ThresholdRule productRule = alerts.addRule(rule(1L, null, 25));
+
+        // Then
+        assertEquals(StockAlert.Type.LOW_STOCK, raisedAlerts(1).get(0).getType());
+        assertEquals(List.of(1L, 2L), alerts.findStockLevels("toys", true, 10).stream()
+                .map(StockLevel::getRetailId).sorted().toList());
+
+        alerts.removeRule(productRule.getRuleId());
+        assertEquals(List.of(2L), alerts.findStockLevels("toys", true, 10).stream()
+                .map(StockLevel::getRetailId).toList());
+        assertEquals(1, alerts.getRules().size());
+    }
+
+    @Test
+    @DisplayName("Should reject rules without exactly one target or for unknown items")
+    void testAddRule_Validation() {
+        assertThrows(IllegalArgumentException.class, () -> alerts.addRule(rule(null, null, 5)));
+        assertThrows(IllegalArgumentException.class, () -> alerts.addRule(rule(1L, "toys", 5)));
+        assertThrows(ResourceNotFoundException.class, () -> alerts.addRule(rule(99L, null, 5)));
+        assertThrows(ResourceNotFoundException.class, () -> alerts.removeRule(42L));
+        verifyNoInteractions(alertFeed);
+    }
+
+    @Test
+    @DisplayName("Should order near-threshold items by headroom and forget deleted ones")
+    void testFindStockLevels_OrderAndDelete() {
+        // Given
+        alerts.addRule(rule(null, "toys", 5));
+        alerts.addRule(rule(null, "books", 2));
+        alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 20), state(1L, "Toys", 8)));
+
+        // When
+        List<StockLevel> all = alerts.findStockLevels(null, false, 10);
+        List<StockLevel> lowOnly = alerts.findStockLevels(null, true, 10);
+        alerts.apply(RetailChangeEvent.deleted(state(3L, "Books", 0)));
+
+        // Then
+        assertEquals(List.of(3L, 2L, 1L), all.stream().map(StockLevel::getRetailId).toList());
+        assertEquals(List.of(3L, 2L), lowOnly.stream().map(StockLevel::getRetailId).toList());
+        assertEquals(List.of(2L, 1L), alerts.findStockLevels(null, false, 10).stream()
+                .map(StockLevel::getRetailId).toList());
+    }
+
+    @Test
+    @DisplayName("Should rebuild without blocking changes and replay the ones made during the load")
+    void testRebuild_ChangesDuringLoad() throws Exception {
+        // Given: a write commits and a rule is added on another thread while the table is being read
+        alerts.addRule(rule(null, "toys", 5));
+        when(retailRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            Thread writer = new Thread(() -> {
+                alerts.apply(RetailChangeEvent.updated(state(1L, "Toys", 20), state(1L, "Toys", 3)));
+                alerts.addRule(rule(null, "books", 2));
+            });
+            writer.start();
+            writer.join(5000);
+            assertFalse(writer.isAlive(), "apply() and addRule() must not wait for the rebuild's table scan");
+            return List.of(retail(1L, "Toys", 20), retail(2L, "toys", 4), retail(3L, "Books", 0));
+        });
+
+        // When
+        alerts.rebuild();
+
+        // Then
+        assertEquals(List.of(1L, 3L, 2L), alerts.findStockLevels(null, true, 10).stream()
+                .map(StockLevel::getRetailId).toList());
+        assertEquals(3, alerts.findStockLevels("toys", true, 10).stream()
+                .filter(level -> level.getRetailId() == 1L).findFirst().orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should return at most the retained alerts however large the limit")
+    void testRecent_LimitAboveCapacity() {
+        // Given
+        AlertFeed feed = new AlertFeed(new ObjectMapper(), new SimpleMeterRegistry(), 2, Duration.ofMinutes(1), "", 10);
+        for (long id = 1; id <= 3; id++) {
+            feed.publish(new StockAlert(id, StockAlert.Type.LOW_STOCK, id, "Product " + id, "toys", 1, 5,
+                    Instant.now()), false);
+        }
+
+        // When
+        List<StockAlert> recent = feed.recent(Integer.MAX_VALUE);
+
+        // Then
+        assertEquals(List.of(3L, 2L), recent.stream().map(StockAlert::getAlertId).toList());
+    }
+
+    @Test
+    @DisplayName("Should stream alerts while the webhook is stuck and drop webhook calls beyond the queue")
+    void testPublish_SlowWebhook() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger webhookCalls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hook", exchange -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            webhookCalls.incrementAndGet();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.start();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AlertFeed feed = new AlertFeed(new ObjectMapper().findAndRegisterModules(), registry, 10, Duration.ofMinutes(1),
+                "http://localhost:" + server.getAddress().getPort() + "/hook", 1);
+        Semaphore streamed = new Semaphore(0);
+        feed.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                streamed.release();
+            }
+        });
+
+        try {
+            // When & Then: the first call blocks the webhook, the second waits in its queue, the rest are dropped
+            for (long id = 1; id <= 4; id++) {
+                feed.publish(new StockAlert(id, StockAlert.Type.LOW_STOCK, id, "Product " + id, "toys", 1, 5,
+                        Instant.now()), true);
+                assertTrue(streamed.tryAcquire(5, TimeUnit.SECONDS), "Alert " + id + " was not streamed");
+            }
+            assertEquals(2, registry.counter("retail.alerts.dropped", "target", "webhook").count());
+            assertEquals(0, registry.counter("retail.alerts.dropped", "target", "subscribers").count());
+        } finally {
+            release.countDown();
+            feed.close();
+            server.stop(0);
+        }
+        assertEquals(2, webhookCalls.get());
+    }
+
+    private List<StockAlert> raisedAlerts(int expected) {
+        ArgumentCaptor<StockAlert> captor = ArgumentCaptor.forClass(StockAlert.class);
+        verify(alertFeed, times(expected)).publish(captor.capture(), eq(true));
+        return captor.getAllValues();
+    }
+
+    private static ThresholdRule rule(Long retailId, String category, int threshold) {
+        ThresholdRule rule = new ThresholdRule();
+        rule.setRetailId(retailId);
+        rule.setCategory(category);
+        rule.setThreshold(threshold);
+        return rule;
+    }
+
+    private static Retail retail(Long id, String category, int quantity) {
+        Retail retail = new Retail("Product " + id, category, new BigDecimal("1.00"), quantity);
+        retail.setId(id);
+        return retail;
+    }
+
+    private static RetailState state(Long id, String category, int quantity) {
+        return new RetailState(id, "Product " + id, category, new BigDecimal("1.00"), quantity, null, null, null);
+    }
+
+    private static RetailCategoryEntry entry(Long id, String category) {
+        return new RetailCategoryEntry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.retail.aot;
+
+import com.retail.entity.Retail;
+import com.retail.exception.GlobalExceptionHandler;
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.repository.RetailRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("RetailRuntimeHints Unit Tests")
+class RetailRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    @DisplayName("Should register reflection hints for the entity, exceptions and repository")
+    void testRegisterHints() {
+        new RetailRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Retail.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GlobalExceptionHandler.ErrorResponse.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ResourceNotFoundException.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ResourceAlreadyExistsException.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(RetailRepository.class)
+                .withMemberCategory(MemberCategory.INTROSPECT_PUBLIC_METHODS).test(hints));
+    }
+}
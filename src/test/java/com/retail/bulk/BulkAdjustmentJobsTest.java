@@ -0,0 +1,165 @@
+package com.retail.bulk;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.repository.RetailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BulkAdjustmentJobs Unit Tests")
+class BulkAdjustmentJobsTest {
+
+    private RetailRepository retailRepository;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    private BulkAdjustmentJobs jobs;
+
+    @BeforeEach
+    void setUp() {
+        retailRepository = mock(RetailRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        jobs = new BulkAdjustmentJobs(retailRepository, transactionManager, eventPublisher, 2, 10, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobs.close();
+    }
+
+    @Test
+    @DisplayName("Should apply percentage price changes with exact rounding to cents")
+    void testPercentPriceRounding() {
+        // Given
+        Adjustment fifteenPercentOff = new Adjustment(Adjustment.Mode.PERCENT, new BigDecimal("-15"));
+
+        // When & Then
+        assertEquals(new BigDecimal("16.99"), fifteenPercentOff.applyToPrice(new BigDecimal("19.99"), RoundingMode.HALF_UP));
+        assertEquals(new BigDecimal("0.85"), fifteenPercentOff.applyToPrice(new BigDecimal("1.00"), RoundingMode.HALF_UP));
+        // 0.15 * 0.85 = 0.1275: the half-way cases show the rounding mode is applied once, to the exact result
+        assertEquals(new BigDecimal("0.13"), fifteenPercentOff.applyToPrice(new BigDecimal("0.15"), RoundingMode.HALF_UP));
+        assertEquals(new BigDecimal("0.12"), fifteenPercentOff.applyToPrice(new BigDecimal("0.15"), RoundingMode.DOWN));
+    }
+
+    @Test
+    @DisplayName("Should skip items whose adjusted price or quantity would be invalid")
+    void testAdjustSkipsInvalidResults() {
+        // Given
+        BulkAdjustmentRequest request = new BulkAdjustmentRequest();
+        request.setPrice(new Adjustment(Adjustment.Mode.AMOUNT, new BigDecimal("-5.00")));
+        request.setQuantity(new Adjustment(Adjustment.Mode.AMOUNT, new BigDecimal("-3")));
+        Retail cheap = retail(1L, "4.00", 10);
+        Retail lowStock = retail(2L, "40.00", 2);
+        Retail ok = retail(3L, "40.00", 5);
+
+        // When & Then
+        assertFalse(BulkAdjustmentJobs.adjust(cheap, request));
+        assertEquals(new BigDecimal("4.00"), cheap.getPrice());
+        assertFalse(BulkAdjustmentJobs.adjust(lowStock, request));
+        assertTrue(BulkAdjustmentJobs.adjust(ok, request));
+        assertEquals(new BigDecimal("35.00"), ok.getPrice());
+        assertEquals(2, ok.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should process every ID chunk in its own transaction and publish a change per item")
+    void testRunProcessesAllChunks() {
+        // Given
+        when(retailRepository.findMinId()).thenReturn(1L);
+        when(retailRepository.findMaxId()).thenReturn(35L);
+        when(retailRepository.findInIdRangeForUpdate(anyLong(), anyLong(), eq("Toys")))
+                .thenAnswer(invocation -> List.of(retail(invocation.getArgument(0), "10.00", 1)));
+        BulkAdjustmentRequest request = new BulkAdjustmentRequest();
+        request.setCategory("Toys");
+        request.setPrice(new Adjustment(Adjustment.Mode.PERCENT, new BigDecimal("10")));
+        BulkAdjustmentJob job = new BulkAdjustmentJob("job-1", request);
+
+        // When
+        jobs.run(job);
+
+        // Then
+        assertEquals(BulkAdjustmentJob.Status.COMPLETED, job.getStatus());
+        assertEquals(4, job.getTotalChunks());
+        assertEquals(4, job.getUpdatedItems());
+        assertEquals(100.0, job.getProgressPercent());
+        verify(retailRepository).findInIdRangeForUpdate(1L, 10L, "Toys");
+        verify(retailRepository).findInIdRangeForUpdate(31L, 40L, "Toys");
+        verify(transactionManager, times(4)).commit(any());
+        verify(eventPublisher, times(4)).publishEvent(any(RetailChangeEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should stop starting chunks once cancelled")
+    void testCancel() throws Exception {
+        // Given
+        when(retailRepository.findMinId()).thenReturn(1L);
+        when(retailRepository.findMaxId()).thenReturn(1000L);
+        CountDownLatch firstChunk = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(retailRepository.findInIdRangeForUpdate(anyLong(), anyLong(), isNull())).thenAnswer(invocation -> {
+            firstChunk.countDown();
+            cancelled.await();
+            return List.of();
+        });
+        BulkAdjustmentRequest request = new BulkAdjustmentRequest();
+        request.setQuantity(new Adjustment(Adjustment.Mode.AMOUNT, BigDecimal.ONE));
+
+        // When
+        BulkAdjustmentJob job = jobs.submit(request);
+        firstChunk.await();
+        job.cancel();
+        cancelled.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isDone()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Job did not stop");
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertEquals(BulkAdjustmentJob.Status.CANCELLED, job.getStatus());
+        assertTrue(job.getCompletedChunks() < job.getTotalChunks());
+    }
+
+    @Test
+    @DisplayName("Should reject a job without adjustments")
+    void testSubmitWithoutAdjustments_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> jobs.submit(new BulkAdjustmentRequest()));
+    }
+
+    @Test
+    @DisplayName("Should reject a fractional quantity amount")
+    void testSubmitFractionalQuantityAmount_ThrowsException() {
+        // Given
+        BulkAdjustmentRequest request = new BulkAdjustmentRequest();
+        request.setQuantity(new Adjustment(Adjustment.Mode.AMOUNT, new BigDecimal("2.5")));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> jobs.submit(request));
+        verifyNoInteractions(retailRepository);
+    }
+
+    private static Retail retail(Long id, String price, int quantity) {
+        Retail retail = new Retail("Item " + id, "Toys", new BigDecimal(price), quantity);
+        retail.setId(id);
+        return retail;
+    }
+}
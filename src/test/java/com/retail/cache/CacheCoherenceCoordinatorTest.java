@@ -0,0 +1,134 @@
+package com.retail.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailResyncEvent;
+import com.retail.event.RetailState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cache coherence Unit Tests")
+class CacheCoherenceCoordinatorTest {
+
+    private LocalInvalidationBus bus;
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void setUp() {
+        bus = new LocalInvalidationBus();
+        nodeA = new Node("node-a");
+        nodeB = new Node("node-b");
+    }
+
+    @Test
+    @DisplayName("Should evict a peer's cached copy when a change commits on another node")
+    void testLocalChange_EvictsPeerCache() {
+        nodeA.cache.put(retail(1L, "Laptop"), nodeA.cache.loadToken());
+        nodeB.cache.put(retail(1L, "Laptop"), nodeB.cache.loadToken());
+
+        nodeA.commit(RetailChangeEvent.updated(state(1L, "Laptop"), state(1L, "Gaming Laptop")));
+
+        assertTrue(nodeA.cache.get(1L).isEmpty());
+        assertTrue(nodeB.cache.get(1L).isEmpty());
+        assertEquals(1, nodeB.received.size());
+        assertEquals("node-a", nodeB.received.get(0).getOrigin());
+        assertTrue(nodeA.received.stream().noneMatch(RetailChangeEvent::isRemote));
+    }
+
+    @Test
+    @DisplayName("Should not echo replayed peer changes back onto the bus")
+    void testRemoteChange_IsNotRebroadcast() {
+        List<InvalidationMessage> sent = new ArrayList<>();
+        bus.subscribe(sent::add);
+
+        nodeA.commit(RetailChangeEvent.deleted(state(1L, "Laptop")));
+
+        assertEquals(1, sent.size());
+        assertEquals("node-a", sent.get(0).getNodeId());
+    }
+
+    @Test
+    @DisplayName("Should resynchronize when a peer's sequence skips a message")
+    void testSequenceGap_TriggersResync() {
+        nodeB.cache.put(retail(2L, "Phone"), nodeB.cache.loadToken());
+
+        nodeB.coordinator.receive(new InvalidationMessage("node-c", 1, RetailChangeEvent.deleted(state(9L, "X"))));
+        nodeB.coordinator.receive(new InvalidationMessage("node-c", 3, RetailChangeEvent.deleted(state(8L, "Y"))));
+
+        assertEquals(1, nodeB.resyncs.size());
+        assertEquals(0, nodeB.cache.size());
+    }
+
+    @Test
+    @DisplayName("Should drop a cache fill that raced with an invalidation")
+    void testPut_AfterInvalidation_IsDiscarded() {
+        long token = nodeA.cache.loadToken();
+        nodeA.cache.evict(1L);
+        nodeA.cache.put(retail(1L, "Stale"), token);
+
+        assertTrue(nodeA.cache.get(1L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should round-trip messages through JSON for network transports")
+    void testMessage_JsonRoundTrip() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        RetailState after = new RetailState(1L, "Laptop", "Electronics", new BigDecimal("999.99"), 3,
+                "desc", LocalDateTime.of(2024, 1, 2, 3, 4), null);
+        InvalidationMessage message = new InvalidationMessage("node-a", 7, RetailChangeEvent.created(after));
+
+        InvalidationMessage copy = objectMapper.readValue(objectMapper.writeValueAsBytes(message), InvalidationMessage.class);
+
+        assertEquals(7, copy.getSequence());
+        assertEquals(RetailChangeEvent.Type.CREATED, copy.getChange().getType());
+        assertEquals(new BigDecimal("999.99"), copy.getChange().getAfter().getPrice());
+        assertEquals(after.getCreatedAt(), copy.getChange().getAfter().getCreatedAt());
+    }
+
+    private final class Node {
+        private final RetailCache cache = new RetailCache(true, 100, Duration.ofMinutes(1));
+        private final List<RetailChangeEvent> received = new ArrayList<>();
+        private final List<RetailResyncEvent> resyncs = new ArrayList<>();
+        private final CacheCoherenceCoordinator coordinator;
+
+        private Node(String nodeId) {
+            coordinator = new CacheCoherenceCoordinator(bus, this::dispatch, nodeId);
+        }
+
+        private void commit(RetailChangeEvent event) {
+            dispatch(event);
+        }
+
+        // Stands in for the application context delivering events to this node's listeners
+        private void dispatch(Object event) {
+            if (event instanceof RetailChangeEvent change) {
+                received.add(change);
+                cache.onRetailChange(change);
+                coordinator.onRetailChange(change);
+            } else if (event instanceof RetailResyncEvent resync) {
+                resyncs.add(resync);
+                cache.onResync(resync);
+            }
+        }
+    }
+
+    private static RetailState state(Long id, String name) {
+        return new RetailState(id, name, "Electronics", BigDecimal.TEN, 1, null, null, null);
+    }
+
+    private static Retail retail(Long id, String name) {
+        return state(id, name).toRetail();
+    }
+}
@@ -0,0 +1,106 @@
+package com.retail.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReplicaRoutingDataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = Long.toString(System.nanoTime());
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-a", database("replica-a", suffix));
+        replicas.put("replica-b", database("replica-b", suffix));
+        routingDataSource = new ReplicaRoutingDataSource(database("primary", suffix), replicas);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should round-robin read-only transactions across available replicas")
+    void testReadOnly_RoundRobin() {
+        new ReplicaHealthMonitor(routingDataSource, ReplicaLagProbe.NONE, Duration.ofSeconds(1), Duration.ofSeconds(1))
+                .check();
+
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> currentNode()));
+        }
+
+        assertEquals(List.of("replica-a", "replica-b", "replica-a", "replica-b"), nodes);
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when no replica is available")
+    void testReadOnly_NoReplicas_UsesPrimary() {
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("Should skip replicas whose lag exceeds the limit")
+    void testHealthCheck_ExcludesLaggingReplica() {
+        ReplicaLagProbe probe = replica -> replica == routingDataSource.getReplicas().get("replica-a")
+                ? Duration.ofMinutes(1)
+                : Duration.ZERO;
+        new ReplicaHealthMonitor(routingDataSource, probe, Duration.ofSeconds(5), Duration.ofSeconds(1)).check();
+
+        assertEquals(List.of("replica-b"), routingDataSource.getAvailableReplicas());
+        assertEquals("replica-b", readOnly.execute(status -> currentNode()));
+        assertEquals("replica-b", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    @DisplayName("Should measure lag from the heartbeat row replicated to each replica")
+    void testHeartbeatLagProbe() throws Exception {
+        HeartbeatLagProbe probe = new HeartbeatLagProbe();
+        probe.beforeProbe(routingDataSource.getPrimary());
+        DataSource replica = routingDataSource.getReplicas().get("replica-a");
+
+        assertThrows(Exception.class, () -> probe.lag(replica));
+
+        new JdbcTemplate(replica).execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT)");
+        new JdbcTemplate(replica).update("INSERT INTO replication_heartbeat VALUES (1, ?)",
+                System.currentTimeMillis() - 60_000);
+        assertTrue(probe.lag(replica).compareTo(Duration.ofSeconds(59)) > 0);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name, String suffix) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + suffix + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
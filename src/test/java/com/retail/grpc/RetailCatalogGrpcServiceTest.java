@@ -0,0 +1,161 @@
+package com.retail.grpc;
+
+import com.retail.entity.Retail;
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.ResourceNotFoundException;
+import com.retail.grpc.proto.AdjustStockRequest;
+import com.retail.grpc.proto.BatchGetRetailsRequest;
+import com.retail.grpc.proto.BatchGetRetailsResponse;
+import com.retail.grpc.proto.CreateRetailRequest;
+import com.retail.grpc.proto.GetRetailRequest;
+import com.retail.grpc.proto.ListRetailsByCategoryRequest;
+import com.retail.grpc.proto.RetailCatalogGrpc;
+import com.retail.grpc.proto.RetailFields;
+import com.retail.grpc.proto.RetailItem;
+import com.retail.service.RetailService;
+import com.retail.snapshot.CatalogSnapshot;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RetailCatalogGrpcService Unit Tests")
+class RetailCatalogGrpcServiceTest {
+
+    private RetailService retailService;
+    private CatalogSnapshot catalogSnapshot;
+    private Server server;
+    private ManagedChannel channel;
+    private RetailCatalogGrpc.RetailCatalogBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        retailService = mock(RetailService.class);
+        catalogSnapshot = mock(CatalogSnapshot.class);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new RetailCatalogGrpcService(retailService, catalogSnapshot,
+                        Validation.buildDefaultValidatorFactory().getValidator(), 2))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = RetailCatalogGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should get a retail item with its price in cents")
+    void testGetRetail() {
+        // Given
+        when(retailService.getRetailById(1L)).thenReturn(retail(1L, "Laptop", "999.99"));
+
+        // When
+        RetailItem item = stub.getRetail(GetRetailRequest.newBuilder().setId(1L).build());
+
+        // Then
+        assertEquals("Laptop", item.getProductName());
+        assertEquals(99999L, item.getPriceCents());
+    }
+
+    @Test
+    @DisplayName("Should map service exceptions to gRPC status codes")
+    void testStatusMapping() {
+        // Given
+        when(retailService.getRetailById(99L)).thenThrow(new ResourceNotFoundException("Retail", "id", 99L));
+        when(retailService.adjustStock(1L, -5)).thenThrow(new IllegalArgumentException("Insufficient stock"));
+
+        // When & Then
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> stub.getRetail(GetRetailRequest.newBuilder().setId(99L).build()));
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+
+        StatusRuntimeException invalid = assertThrows(StatusRuntimeException.class,
+                () -> stub.adjustStock(AdjustStockRequest.newBuilder().setId(1L).setDelta(-5).build()));
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalid.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("Should validate created items and report duplicates as ALREADY_EXISTS")
+    void testCreateRetail() {
+        // Given
+        when(retailService.createRetail(any(Retail.class)))
+                .thenThrow(new ResourceAlreadyExistsException("Retail", "productName", "Laptop"));
+        RetailFields invalid = RetailFields.newBuilder().setCategory("Electronics").setPriceCents(100).build();
+        RetailFields duplicate = RetailFields.newBuilder()
+                .setProductName("Laptop").setCategory("Electronics").setPriceCents(100).setQuantity(1).build();
+
+        // When & Then
+        StatusRuntimeException validation = assertThrows(StatusRuntimeException.class,
+                () -> stub.createRetail(CreateRetailRequest.newBuilder().setRetail(invalid).build()));
+        assertEquals(Status.Code.INVALID_ARGUMENT, validation.getStatus().getCode());
+        verify(retailService, never()).createRetail(argThat(retail -> retail.getProductName().isEmpty()));
+
+        StatusRuntimeException exists = assertThrows(StatusRuntimeException.class,
+                () -> stub.createRetail(CreateRetailRequest.newBuilder().setRetail(duplicate).build()));
+        assertEquals(Status.Code.ALREADY_EXISTS, exists.getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("Should batch-get in request order and report missing IDs")
+    void testBatchGetRetails() {
+        // Given
+        when(retailService.getRetailsByIds(List.of(3L, 1L, 2L)))
+                .thenReturn(List.of(retail(1L, "Laptop", "1.00"), retail(3L, "Tablet", "2.00")));
+
+        // When
+        BatchGetRetailsResponse response = stub.batchGetRetails(
+                BatchGetRetailsRequest.newBuilder().addIds(3L).addIds(1L).addIds(2L).build());
+
+        // Then
+        assertEquals(List.of(3L, 1L), response.getItemsList().stream().map(RetailItem::getId).toList());
+        assertEquals(List.of(2L), response.getMissingIdsList());
+    }
+
+    @Test
+    @DisplayName("Should stream a category page by page until a short page")
+    void testListRetailsByCategory() {
+        // Given
+        when(retailService.getRetailsByCategory(eq("Electronics"), eq(0), eq(2)))
+                .thenReturn(List.of(retail(1L, "A", "1.00"), retail(2L, "B", "1.00")));
+        when(retailService.getRetailsByCategory(eq("Electronics"), eq(1), eq(2)))
+                .thenReturn(List.of(retail(3L, "C", "1.00")));
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        stub.listRetailsByCategory(ListRetailsByCategoryRequest.newBuilder().setCategory("Electronics").build())
+                .forEachRemaining(item -> ids.add(item.getId()));
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        verify(retailService, never()).getRetailsByCategory(eq("Electronics"), eq(2), anyInt());
+    }
+
+    private static Retail retail(Long id, String productName, String price) {
+        Retail retail = new Retail(productName, "Electronics", new BigDecimal(price), 5);
+        retail.setId(id);
+        return retail;
+    }
+}
@@ -0,0 +1,245 @@
+package com.retail.history;
+
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PriceStockHistory Unit Tests")
+class PriceStockHistoryTest {
+
+    private static final Instant DAY_START = Instant.parse("2024-03-01T00:00:00Z");
+
+    private JdbcDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private PriceStockHistory history;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:history-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        meterRegistry = new SimpleMeterRegistry();
+        // A long flush interval leaves flushing to the tests
+        history = new PriceStockHistory(dataSource, new DataSourceTransactionManager(dataSource),
+                meterRegistry, true, 1000, 100, Duration.ofHours(1));
+        history.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        history.stop();
+    }
+
+    @Test
+    @DisplayName("Should round-trip points through the delta encoding in a few bytes each")
+    void testChunkCodec_RoundTrip() {
+        // Given
+        long start = DAY_START.toEpochMilli();
+        long[] timestamps = {start, start + 1500, start + 1500, start + 60_000};
+        long[] prices = {1999, 1899, 1899, 2099};
+        long[] quantities = {10, 7, -3, 250};
+
+        // When
+        byte[] chunk = HistoryChunkCodec.encode(timestamps, prices, quantities, 4);
+        List<HistoryChunkCodec.Point> points = HistoryChunkCodec.decode(chunk);
+
+        // Then
+        assertEquals(4, points.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(timestamps[i], points.get(i).getTimestamp());
+            assertEquals(prices[i], points.get(i).getPriceCents());
+            assertEquals(quantities[i], points.get(i).getQuantity());
+        }
+        assertTrue(chunk.length < 4 * 8, "chunk takes " + chunk.length + " bytes");
+    }
+
+    @Test
+    @DisplayName("Should record price and quantity changes and return them by time range")
+    void testGetPoints() {
+        // Given
+        RetailState created = state(1L, "Toys", "10.00", 5);
+        history.onRetailChange(event(null, created, DAY_START));
+        RetailState restocked = state(1L, "Toys", "10.00", 12);
+        history.onRetailChange(event(created, restocked, DAY_START.plusSeconds(60)));
+        // A description-only change carries no price or stock movement
+        history.onRetailChange(event(restocked, state(1L, "Toys", "10.00", 12), DAY_START.plusSeconds(90)));
+        history.onRetailChange(event(restocked, state(1L, "Toys", "8.50", 12), DAY_START.plusSeconds(120)));
+        history.onRetailChange(event(null, state(2L, "Books", "3.00", 1), DAY_START.plusSeconds(30)));
+
+        // When
+        int written = history.flush();
+        List<HistoryPoint> points = history.getPoints(1L, DAY_START, DAY_START.plusSeconds(3600), 100);
+
+        // Then
+        assertEquals(4, written);
+        assertEquals(3, points.size());
+        assertEquals(DAY_START, points.get(0).getTimestamp());
+        assertEquals(5, points.get(0).getQuantity());
+        assertEquals(12, points.get(1).getQuantity());
+        assertEquals(new BigDecimal("8.50"), points.get(2).getPrice());
+        assertEquals(1, history.getPoints(1L, DAY_START.plusSeconds(60), DAY_START.plusSeconds(3600), 1).size());
+        assertTrue(history.getPoints(1L, DAY_START.plusSeconds(121), DAY_START.plusSeconds(3600), 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should split a flush spanning hours into bounded chunks and still find every point")
+    void testGetPoints_LongFlushSpan() {
+        // Given: one flush holding changes five hours apart
+        RetailState created = state(1L, "Toys", "10.00", 5);
+        history.onRetailChange(event(null, created, DAY_START));
+        RetailState restocked = state(1L, "Toys", "10.00", 9);
+        history.onRetailChange(event(created, restocked, DAY_START.plusSeconds(1800)));
+        history.onRetailChange(event(restocked, state(1L, "Toys", "10.00", 14), DAY_START.plusSeconds(5 * 3600)));
+        history.flush();
+
+        // When
+        List<HistoryPoint> late = history.getPoints(1L, DAY_START.plusSeconds(4 * 3600), DAY_START.plusSeconds(6 * 3600), 100);
+        List<HistoryPoint> all = history.getPoints(1L, DAY_START, DAY_START.plusSeconds(6 * 3600), 100);
+        List<HistoryPoint> middle = history.getPoints(1L, DAY_START.plusSeconds(1800), DAY_START.plusSeconds(1801), 100);
+
+        // Then
+        assertEquals(1, late.size());
+        assertEquals(14, late.get(0).getQuantity());
+        assertEquals(3, all.size());
+        assertEquals(1, middle.size());
+        assertEquals(9, middle.get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should fold changes from separate flushes into hourly and daily rollups")
+    void testGetRollups() {
+        // Given: two hours of changes, the second hour written in two flushes
+        RetailState first = state(1L, "Toys", "10.00", 5);
+        history.onRetailChange(event(null, first, DAY_START.plusSeconds(600)));
+        RetailState second = state(1L, "Toys", "12.00", 3);
+        history.onRetailChange(event(first, second, DAY_START.plusSeconds(3600 + 60)));
+        history.flush();
+        RetailState third = state(1L, "Toys", "9.00", 8);
+        history.onRetailChange(event(second, third, DAY_START.plusSeconds(3600 + 120)));
+        history.flush();
+
+        // When
+        List<HistoryRollup> hours = history.getRollups(1L, HistoryResolution.HOUR, DAY_START, DAY_START.plusSeconds(86_400));
+        List<HistoryRollup> days = history.getRollups(1L, HistoryResolution.DAY, DAY_START.plusSeconds(7200), DAY_START.plusSeconds(86_400));
+
+        // Then
+        assertEquals(2, hours.size());
+        HistoryRollup secondHour = hours.get(1);
+        assertEquals(DAY_START.plusSeconds(3600), secondHour.getBucketStart());
+        assertEquals(2, secondHour.getChanges());
+        assertEquals(new BigDecimal("12.00"), secondHour.getOpenPrice());
+        assertEquals(new BigDecimal("9.00"), secondHour.getClosePrice());
+        assertEquals(8, secondHour.getCloseQuantity());
+        assertEquals(3, secondHour.getQuantityChange());
+
+        assertEquals(1, days.size());
+        HistoryRollup day = days.get(0);
+        assertEquals(DAY_START, day.getBucketStart());
+        assertEquals(3, day.getChanges());
+        assertEquals(new BigDecimal("10.00"), day.getOpenPrice());
+        assertEquals(new BigDecimal("12.00"), day.getHighPrice());
+        assertEquals(new BigDecimal("9.00"), day.getLowPrice());
+        assertEquals(3, day.getMinQuantity());
+        assertEquals(8, day.getMaxQuantity());
+        assertEquals(8, day.getQuantityChange());
+    }
+
+    @Test
+    @DisplayName("Should aggregate rollups per category case-insensitively")
+    void testGetCategoryRollups() {
+        // Given
+        history.onRetailChange(event(null, state(1L, "Toys", "10.00", 5), DAY_START));
+        history.onRetailChange(event(null, state(2L, "toys", "4.00", 2), DAY_START.plusSeconds(10)));
+        history.flush();
+        history.onRetailChange(event(state(2L, "toys", "4.00", 2),
+                state(2L, "toys", "4.00", 0), DAY_START.plusSeconds(20)));
+        history.onRetailChange(event(null, state(3L, "Books", "7.00", 1), DAY_START.plusSeconds(30)));
+        history.flush();
+
+        // When
+        List<CategoryHistoryRollup> rollups = history.getCategoryRollups("TOYS", HistoryResolution.DAY,
+                DAY_START, DAY_START.plusSeconds(86_400));
+
+        // Then
+        assertEquals(1, rollups.size());
+        assertEquals(3, rollups.get(0).getChanges());
+        assertEquals(new BigDecimal("4.00"), rollups.get(0).getLowPrice());
+        assertEquals(new BigDecimal("10.00"), rollups.get(0).getHighPrice());
+        assertEquals(5, rollups.get(0).getQuantityChange());
+    }
+
+    @Test
+    @DisplayName("Should skip changes replayed from other nodes and reject empty ranges")
+    void testRemoteEventsAndValidation() {
+        // Given
+        history.onRetailChange(event(null, state(1L, "Toys", "10.00", 5), DAY_START).withOrigin("node-b"));
+
+        // When & Then
+        assertEquals(0, history.flush());
+        assertThrows(IllegalArgumentException.class,
+                () -> history.getPoints(1L, DAY_START, DAY_START, 10));
+        assertThrows(IllegalArgumentException.class, () -> HistoryResolution.parse("minute"));
+    }
+
+    @Test
+    @DisplayName("Should retry a flush that races another node creating the same rollup buckets")
+    void testFlush_ConcurrentRollupInsert() throws Exception {
+        // Given: another node writes the same hour in a transaction that commits only after this
+        // node's rollup UPDATE has found nothing
+        HistoryStore otherNode = new HistoryStore(dataSource);
+        TransactionTemplate otherTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        CountDownLatch otherWritten = new CountDownLatch(1);
+        Thread other = new Thread(() -> otherTransaction.executeWithoutResult(status -> {
+            otherNode.append(List.of(new HistoryRecord(1L, "toys", DAY_START.toEpochMilli(), 1000, 5, 5)));
+            otherWritten.countDown();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        other.start();
+        otherWritten.await();
+        history.onRetailChange(event(null, state(1L, "Toys", "12.00", 3), DAY_START.plusSeconds(60)));
+
+        // When
+        int written = history.flush();
+        other.join();
+
+        // Then
+        assertEquals(1, written);
+        assertEquals(0, meterRegistry.counter("retail.history.dropped").count());
+        assertEquals(2, history.getPoints(1L, DAY_START, DAY_START.plusSeconds(3600), 10).size());
+        HistoryRollup hour = history.getRollups(1L, HistoryResolution.HOUR, DAY_START, DAY_START.plusSeconds(3600))
+                .get(0);
+        assertEquals(2, hour.getChanges());
+        assertEquals(new BigDecimal("10.00"), hour.getOpenPrice());
+        assertEquals(new BigDecimal("12.00"), hour.getClosePrice());
+        assertEquals(2, history.getCategoryRollups("toys", HistoryResolution.DAY, DAY_START,
+                DAY_START.plusSeconds(86_400)).get(0).getChanges());
+    }
+
+    private static RetailState state(Long id, String category, String price, int quantity) {
+        return new RetailState(id, "Product " + id, category, new BigDecimal(price), quantity, null, null, null);
+    }
+
+    private static RetailChangeEvent event(RetailState before, RetailState after, Instant at) {
+        return before == null
+                ? new RetailChangeEvent(RetailChangeEvent.Type.CREATED, after.getId(), null, after, at)
+                : new RetailChangeEvent(RetailChangeEvent.Type.UPDATED, after.getId(), before, after, at);
+    }
+}
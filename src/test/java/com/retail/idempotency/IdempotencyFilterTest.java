@@ -0,0 +1,241 @@
+package com.retail.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.ratelimit.ClientIdentityResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Idempotency-Key handling Unit Tests")
+class IdempotencyFilterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+    private int controllerStatus = 201;
+
+    private IdempotencyStore store;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxBodyBytes(1024);
+        store = new IdempotencyStore(Duration.ofMinutes(10).toNanos(), 3, 64, now::get);
+        filter = new IdempotencyFilter(properties, new ClientIdentityResolver("X-API-Key", List.of("mobile-2")),
+                store, new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should answer a retry from the store without reaching the controller")
+    void testRetry_Replayed() throws Exception {
+        // When
+        MockHttpServletResponse first = perform(post("key-1", "{\"productName\":\"A\"}"));
+        MockHttpServletResponse retry = perform(post("key-1", "{\"productName\":\"A\"}"));
+
+        // Then
+        assertEquals(1, controllerCalls.get());
+        assertEquals(201, first.getStatus());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(201, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("/api/v1/retails/1", retry.getHeader("Location"));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("{\"productName\":\"A\"}", retry.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should reject reuse of a key for a different request")
+    void testKeyReuse_DifferentBody() throws Exception {
+        // Given
+        perform(post("key-1", "{\"productName\":\"A\"}"));
+
+        // When
+        MockHttpServletResponse reused = perform(post("key-1", "{\"productName\":\"B\"}"));
+
+        // Then
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, controllerCalls.get());
+        // Keys are scoped per client
+        MockHttpServletRequest otherClient = post("key-1", "{\"productName\":\"B\"}");
+        otherClient.addHeader("X-API-Key", "mobile-2");
+        assertEquals(201, perform(otherClient).getStatus());
+        // An unknown API key does not give the caller a scope of its own
+        MockHttpServletRequest unknownKey = post("key-1", "{\"productName\":\"B\"}");
+        unknownKey.addHeader("X-API-Key", "made-up");
+        assertEquals(422, perform(unknownKey).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should answer 409 while the first request with a key is still running")
+    void testRetry_InProgress() throws Exception {
+        // Given: the first request has claimed the key but not finished
+        MockHttpServletRequest inFlight = post("key-1", "{}");
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                try {
+                    concurrent[0] = perform(post("key-1", "{}"));
+                } catch (Exception ex) {
+                    throw new IOException(ex);
+                }
+                response.setStatus(201);
+            }
+        });
+
+        // When
+        filter.doFilter(inFlight, new MockHttpServletResponse(), chain);
+
+        // Then
+        assertEquals(409, concurrent[0].getStatus());
+        assertEquals("1", concurrent[0].getHeader("Retry-After"));
+        assertEquals(0, controllerCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should not store server errors, so the retry runs again")
+    void testServerError_NotStored() throws Exception {
+        // Given
+        controllerStatus = 503;
+        perform(post("key-1", "{}"));
+
+        // When
+        controllerStatus = 201;
+        MockHttpServletResponse retry = perform(post("key-1", "{}"));
+
+        // Then
+        assertEquals(2, controllerCalls.get());
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL and evict the oldest when full")
+    void testStore_TtlAndBound() throws Exception {
+        // Given
+        perform(post("key-1", "{}"));
+        perform(post("key-2", "{}"));
+        perform(post("key-3", "{}"));
+        perform(post("key-4", "{}"));
+        assertEquals(3, store.size());
+
+        // When: key-1 was evicted to make room, the rest expire with time
+        perform(post("key-1", "{}"));
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        perform(post("key-2", "{}"));
+
+        // Then
+        assertEquals(6, controllerCalls.get());
+        assertEquals(1, store.size());
+        // Requests without a key are never stored
+        MockHttpServletRequest plain = post("key-5", "{}");
+        plain.removeHeader("Idempotency-Key");
+        perform(plain);
+        perform(plain);
+        assertEquals(8, controllerCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest responses when the stored bodies exceed the byte budget")
+    void testStore_ByteBudget() throws Exception {
+        // Given: a 64 byte budget and 30 byte responses
+        String body = "{\"productName\":\"abcdefghijkl\"}";
+        assertEquals(30, body.length());
+        perform(post("key-1", body));
+        perform(post("key-2", body));
+        assertEquals(60, store.totalBytes());
+
+        // When
+        perform(post("key-3", body));
+
+        // Then: key-1 was evicted, key-2 is still replayed
+        assertEquals(2, store.size());
+        assertEquals(60, store.totalBytes());
+        assertEquals("true", perform(post("key-2", body)).getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(perform(post("key-1", body)).getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(4, controllerCalls.get());
+    }
+
+    @Test
+    @DisplayName("Should hand the cached body to a non-blocking read listener")
+    void testCachedBody_ReadListener() throws Exception {
+        // Given
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ServletInputStream in = request.getInputStream();
+                in.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        while (in.isReady() && !in.isFinished()) {
+                            read.write(in.read());
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail(t);
+                    }
+                });
+                response.setStatus(201);
+            }
+        });
+
+        // When
+        filter.doFilter(post("key-1", "{\"productName\":\"A\"}"), new MockHttpServletResponse(), chain);
+
+        // Then
+        assertEquals("{\"productName\":\"A\"}", read.toString(StandardCharsets.UTF_8));
+        assertEquals(1, allDataRead.get());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                controllerCalls.incrementAndGet();
+                response.setStatus(controllerStatus);
+                response.setHeader("Location", "/api/v1/retails/1");
+                response.setContentType("application/json");
+                response.getOutputStream().write(request.getInputStream().readAllBytes());
+            }
+        });
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/retails");
+        request.addHeader("Idempotency-Key", key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
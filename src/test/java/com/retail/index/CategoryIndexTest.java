@@ -0,0 +1,140 @@
+package com.retail.index;
+
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import com.retail.repository.RetailCategoryEntry;
+import com.retail.repository.RetailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryIndex Unit Tests")
+class CategoryIndexTest {
+
+    @Mock
+    private RetailRepository retailRepository;
+
+    private CategoryIndex categoryIndex;
+
+    @BeforeEach
+    void setUp() {
+        categoryIndex = new CategoryIndex(retailRepository);
+        when(retailRepository.findAllCategoryEntries()).thenReturn(List.of(
+                entry(3L, "Electronics"),
+                entry(1L, "electronics"),
+                entry(2L, "Grocery")
+        ));
+        categoryIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should group IDs case-insensitively in ascending order")
+    void testRebuild_GroupsByNormalizedCategory() {
+        assertTrue(categoryIndex.isReady());
+        assertArrayEquals(new long[]{1L, 3L}, categoryIndex.idsFor("ELECTRONICS").toArray());
+        assertEquals(1, categoryIndex.count("grocery"));
+        assertEquals(0, categoryIndex.count("Toys"));
+    }
+
+    @Test
+    @DisplayName("Should move an item between categories on update")
+    void testApply_UpdateMovesCategory() {
+        categoryIndex.apply(RetailChangeEvent.updated(state(1L, "Electronics"), state(1L, "Grocery")));
+
+        assertArrayEquals(new long[]{3L}, categoryIndex.idsFor("Electronics").toArray());
+        assertArrayEquals(new long[]{1L, 2L}, categoryIndex.idsFor("Grocery").toArray());
+    }
+
+    @Test
+    @DisplayName("Should add created items and drop deleted ones")
+    void testApply_CreateAndDelete() {
+        categoryIndex.apply(RetailChangeEvent.created(state(4L, "Toys")));
+        categoryIndex.apply(RetailChangeEvent.deleted(state(2L, "Grocery")));
+
+        assertEquals(1, categoryIndex.count("toys"));
+        assertEquals(0, categoryIndex.count("Grocery"));
+        assertFalse(categoryIndex.counts().containsKey("grocery"));
+    }
+
+    @Test
+    @DisplayName("Should empty the index when the catalog is cleared")
+    void testApply_Cleared() {
+        categoryIndex.apply(RetailChangeEvent.cleared());
+
+        assertTrue(categoryIndex.counts().isEmpty());
+        assertTrue(categoryIndex.idsFor("Electronics").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep applying changes during a rebuild and replay them onto the new index")
+    void testRebuild_ChangesDuringLoad() throws Exception {
+        // Given: a write commits on another thread while the table is being read
+        when(retailRepository.findAllCategoryEntries()).thenAnswer(invocation -> {
+            Thread writer = new Thread(() -> categoryIndex.apply(
+                    RetailChangeEvent.updated(state(2L, "Grocery"), state(2L, "Toys"))));
+            writer.start();
+            writer.join(5000);
+            assertFalse(writer.isAlive(), "apply() must not wait for the rebuild's table scan");
+            return List.of(entry(3L, "Electronics"), entry(1L, "electronics"), entry(2L, "Grocery"));
+        });
+
+        // When
+        categoryIndex.rebuild();
+
+        // Then
+        assertArrayEquals(new long[]{2L}, categoryIndex.idsFor("toys").toArray());
+        assertEquals(0, categoryIndex.count("Grocery"));
+        assertEquals("toys", categoryIndex.categoryOf(2L));
+        assertEquals("electronics", categoryIndex.categoryOf(3L));
+        assertNull(categoryIndex.categoryOf(99L));
+    }
+
+    @Test
+    @DisplayName("Should compare categories like the IgnoreCase queries, without trimming")
+    void testNormalize_MatchesRepository() {
+        assertEquals("electronics", CategoryIndex.normalize("ELECTRONICS"));
+        assertEquals(" toys", CategoryIndex.normalize(" Toys"));
+        assertEquals(0, categoryIndex.count(" Electronics"));
+    }
+
+    @Test
+    @DisplayName("Should slice sorted ID sets for pagination")
+    void testSortedLongSet_Slice() {
+        SortedLongSet ids = SortedLongSet.of(5L, 1L, 3L, 3L, 9L);
+
+        assertEquals(4, ids.size());
+        assertArrayEquals(new long[]{3L, 5L}, ids.slice(1, 2));
+        assertArrayEquals(new long[]{9L}, ids.slice(3, 10));
+        assertEquals(0, ids.slice(4, 10).length);
+        assertSame(ids, ids.with(5L));
+        assertFalse(ids.without(5L).contains(5L));
+    }
+
+    private static RetailState state(Long id, String category) {
+        return new RetailState(id, "Product " + id, category, new BigDecimal("1.00"), 1, null, null, null);
+    }
+
+    private static RetailCategoryEntry entry(Long id, String category) {
+        return new RetailCategoryEntry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+        };
+    }
+}
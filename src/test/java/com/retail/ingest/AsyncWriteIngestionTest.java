@@ -0,0 +1,233 @@
+package com.retail.ingest;
+
+import com.retail.entity.Retail;
+import com.retail.exception.ResourceAlreadyExistsException;
+import com.retail.exception.WriteQueueFullException;
+import com.retail.service.RetailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AsyncWriteIngestion Unit Tests")
+class AsyncWriteIngestionTest {
+
+    private RetailService retailService;
+    private PlatformTransactionManager transactionManager;
+    private AsyncWriteIngestion ingestion;
+
+    @BeforeEach
+    void setUp() {
+        retailService = mock(RetailService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ingestion != null) {
+            ingestion.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply queued writes to one product in submission order")
+    void testPerProductOrdering() throws Exception {
+        // Given
+        ingestion = newIngestion(4, 100, 10);
+        ingestion.start();
+        when(retailService.adjustStock(any(), anyInt())).thenReturn(retail(1L, "Laptop"));
+
+        // When
+        List<WriteOperation> submitted = List.of(
+                ingestion.submitStockAdjustment(1L, 5),
+                ingestion.submitStockAdjustment(1L, -2),
+                ingestion.submitStockAdjustment(1L, 7));
+        awaitDone(submitted);
+
+        // Then
+        InOrder inOrder = inOrder(retailService);
+        inOrder.verify(retailService).adjustStock(1L, 5);
+        inOrder.verify(retailService).adjustStock(1L, -2);
+        inOrder.verify(retailService).adjustStock(1L, 7);
+        submitted.forEach(operation -> assertEquals(WriteOperation.Status.SUCCEEDED, operation.getStatus()));
+    }
+
+    @Test
+    @DisplayName("Should apply a batch in one transaction")
+    void testBatchInOneTransaction() {
+        // Given
+        ingestion = newIngestion(1, 100, 10);
+        WriteOperation first = create(retail(null, "Laptop"));
+        WriteOperation second = create(retail(null, "Tablet"));
+        when(retailService.createRetail(any(Retail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ingestion.writeBatch(List.of(first, second));
+
+        // Then
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(WriteOperation.Status.SUCCEEDED, first.getStatus());
+        assertEquals(WriteOperation.Status.SUCCEEDED, second.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch one operation at a time so only the bad operation fails")
+    void testFailedBatchIsolatesFailure() {
+        // Given
+        ingestion = newIngestion(1, 100, 10);
+        WriteOperation failing = create(retail(null, "Laptop"));
+        WriteOperation succeeding = create(retail(null, "Tablet"));
+        when(retailService.createRetail(argThat(retail -> retail != null && "Laptop".equals(retail.getProductName()))))
+                .thenThrow(new ResourceAlreadyExistsException("Retail", "productName", "Laptop"));
+        when(retailService.createRetail(argThat(retail -> retail != null && "Tablet".equals(retail.getProductName()))))
+                .thenReturn(retail(2L, "Tablet"));
+
+        // When
+        ingestion.writeBatch(List.of(succeeding, failing));
+
+        // Then
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertEquals(WriteOperation.Status.SUCCEEDED, succeeding.getStatus());
+        assertEquals(2L, succeeding.getRetailId());
+        assertEquals(WriteOperation.Status.FAILED, failing.getStatus());
+        assertEquals(409, failing.getError().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should retry a create with a fresh copy of the payload, not the instance the rolled-back batch changed")
+    void testRetryUsesFreshPayload() {
+        // Given: the first attempt persists (setting the ID) and then the batch rolls back
+        ingestion = newIngestion(1, 100, 10);
+        Retail payload = retail(null, "Laptop");
+        WriteOperation creating = create(payload);
+        WriteOperation failing = create(retail(null, "Tablet"));
+        List<Retail> attempts = new ArrayList<>();
+        when(retailService.createRetail(argThat(retail -> retail != null && "Laptop".equals(retail.getProductName()))))
+                .thenAnswer(invocation -> {
+                    Retail retail = invocation.getArgument(0);
+                    attempts.add(retail);
+                    assertNull(retail.getId(), "a create must never be retried with an ID set");
+                    retail.setId(7L);
+                    return retail;
+                });
+        when(retailService.createRetail(argThat(retail -> retail != null && "Tablet".equals(retail.getProductName()))))
+                .thenThrow(new IllegalStateException("constraint violation"));
+
+        // When
+        ingestion.writeBatch(List.of(creating, failing));
+
+        // Then
+        assertEquals(2, attempts.size());
+        assertNotSame(attempts.get(0), attempts.get(1));
+        assertNull(payload.getId());
+        assertEquals(WriteOperation.Status.SUCCEEDED, creating.getStatus());
+        assertEquals(WriteOperation.Status.FAILED, failing.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should reject writes when the lane is full")
+    void testQueueFull() throws Exception {
+        // Given
+        ingestion = newIngestion(1, 2, 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(retailService).deleteRetail(any());
+        ingestion.start();
+        ingestion.submitDelete(1L);
+        writing.await();
+        ingestion.submitDelete(2L);
+        ingestion.submitDelete(3L);
+
+        // When & Then
+        assertThrows(WriteQueueFullException.class, () -> ingestion.submitDelete(4L));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should find pending and completed operations by ID")
+    void testFindOperation() throws Exception {
+        // Given
+        ingestion = newIngestion(2, 10, 10);
+        ingestion.start();
+
+        // When
+        WriteOperation operation = ingestion.submitDelete(1L);
+        awaitDone(List.of(operation));
+
+        // Then
+        assertSame(operation, ingestion.findOperation(operation.getOperationId()).orElseThrow());
+        assertEquals(WriteOperation.Status.SUCCEEDED, operation.getStatus());
+        verify(retailService).deleteRetail(1L);
+    }
+
+    @Test
+    @DisplayName("Should forget the oldest completed operations beyond the retained limit and drop payloads")
+    void testRetainedOperationsBounded() throws Exception {
+        // Given
+        ingestion = newIngestion(1, 10, 1, 2);
+        when(retailService.createRetail(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ingestion.start();
+
+        // When
+        WriteOperation first = ingestion.submitDelete(1L);
+        WriteOperation second = ingestion.submitDelete(2L);
+        WriteOperation third = ingestion.submitCreate(new Retail("Laptop", "Electronics", new BigDecimal("999.99"), 10));
+        // One writer: once the last is done, the third has been retained and the first evicted
+        WriteOperation last = ingestion.submitDelete(3L);
+        awaitDone(List.of(first, second, third, last));
+
+        // Then
+        assertTrue(ingestion.findOperation(first.getOperationId()).isEmpty());
+        assertSame(third, ingestion.findOperation(third.getOperationId()).orElseThrow());
+        assertNull(third.getPayload());
+        assertEquals("Laptop", third.getResult().getProductName());
+    }
+
+    private AsyncWriteIngestion newIngestion(int lanes, int capacity, int batchSize) {
+        return newIngestion(lanes, capacity, batchSize, 10_000);
+    }
+
+    private AsyncWriteIngestion newIngestion(int lanes, int capacity, int batchSize, int maxRetained) {
+        return new AsyncWriteIngestion(retailService, transactionManager, new SimpleMeterRegistry(),
+                true, lanes, capacity, batchSize, Duration.ofMinutes(1), maxRetained);
+    }
+
+    private static WriteOperation create(Retail retail) {
+        return new WriteOperation("op-" + retail.getProductName(), WriteOperation.Type.CREATE, null, retail, 0);
+    }
+
+    private static void awaitDone(List<WriteOperation> operations) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!operations.stream().allMatch(WriteOperation::isDone)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Operations did not complete");
+            Thread.sleep(10);
+        }
+    }
+
+    private static Retail retail(Long id, String productName) {
+        Retail retail = new Retail(productName, "Electronics", new BigDecimal("10.00"), 1);
+        retail.setId(id);
+        return retail;
+    }
+}
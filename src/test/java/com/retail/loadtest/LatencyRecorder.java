@@ -0,0 +1,48 @@
+package com.retail.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and status codes of one operation during the measured part of a run
+ */
+class LatencyRecorder {
+
+    private long[] micros = new long[1024];
+    private int count;
+    private long errors;
+    private final Map<String, Long> statuses = new TreeMap<>();
+
+    synchronized void record(long latencyMicros, String status, boolean error) {
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = latencyMicros;
+        statuses.merge(status, 1L, Long::sum);
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized LoadReport.OperationStats summarize() {
+        long[] sorted = Arrays.copyOf(micros, count);
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long value : sorted) {
+            sum += value;
+        }
+        return new LoadReport.OperationStats(count, errors, new TreeMap<>(statuses),
+                count == 0 ? 0 : sum / 1000.0 / count,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(rank, 0)] / 1000.0;
+    }
+}
@@ -0,0 +1,241 @@
+package com.retail.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Outcome of one load test run. Runs are stored as JSON so that a run can be compared with the
+ * previous run of the same rate and traffic mix.
+ */
+class LoadReport {
+
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final Instant startedAt;
+    private final double targetRate;
+    private final long durationSeconds;
+    private final String mix;
+    private final int seededItems;
+    private final long offered;
+    private final long dropped;
+    private final double achievedRate;
+    private final OperationStats overall;
+    private final Map<String, OperationStats> operations;
+
+    LoadReport(Instant startedAt, double targetRate, long durationSeconds, String mix, int seededItems,
+               long offered, long dropped, double achievedRate,
+               OperationStats overall, Map<String, OperationStats> operations) {
+        this.startedAt = startedAt;
+        this.targetRate = targetRate;
+        this.durationSeconds = durationSeconds;
+        this.mix = mix;
+        this.seededItems = seededItems;
+        this.offered = offered;
+        this.dropped = dropped;
+        this.achievedRate = achievedRate;
+        this.overall = overall;
+        this.operations = operations;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public String getMix() {
+        return mix;
+    }
+
+    public int getSeededItems() {
+        return seededItems;
+    }
+
+    /**
+     * @return requests whose arrival fell in the measured window
+     */
+    public long getOffered() {
+        return offered;
+    }
+
+    /**
+     * @return arrivals not sent because the client already had the maximum number of requests in flight
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return successful responses per second over the measured window
+     */
+    public double getAchievedRate() {
+        return achievedRate;
+    }
+
+    /**
+     * @return errors and dropped arrivals as a fraction of offered requests
+     */
+    public double getErrorRate() {
+        return offered == 0 ? 0 : (double) (overall.getErrors() + dropped) / offered;
+    }
+
+    public OperationStats getOverall() {
+        return overall;
+    }
+
+    public Map<String, OperationStats> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Write this run to the results directory
+     * @return the file written
+     */
+    Path save(Path directory, ObjectMapper objectMapper) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("load-test-" + FILE_NAME.format(startedAt) + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+        return file;
+    }
+
+    /**
+     * Find the most recent stored run with the same target rate and mix
+     * @param directory the results directory
+     * @return the run, if there is one
+     */
+    Optional<JsonNode> findPrevious(Path directory, ObjectMapper objectMapper) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().matches("load-test-.*\\.json"))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = files.size() - 1; i >= 0; i--) {
+            JsonNode run = objectMapper.readTree(files.get(i).toFile());
+            if (run.path("targetRate").asDouble() == targetRate && mix.equals(run.path("mix").asText())) {
+                return Optional.of(run);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return a table of this run, with the change from the previous run where there is one
+     */
+    String format(JsonNode previous) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Load test %s: target %.0f req/s for %ds, mix %s, %d seeded items",
+                startedAt, targetRate, durationSeconds, mix, seededItems));
+        lines.add(String.format("Achieved %.1f req/s, error rate %.3f%% (%d dropped by the client)%s",
+                achievedRate, getErrorRate() * 100, dropped,
+                previous == null ? "" : String.format(", previous %.1f req/s at %.3f%%",
+                        previous.path("achievedRate").asDouble(), previous.path("errorRate").asDouble() * 100)));
+        lines.add(String.format("%-12s %9s %7s %9s %9s %9s %9s %9s  %s",
+                "operation", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "p99 change"));
+        lines.add(row("all", overall, previous == null ? null : previous.path("overall")));
+        operations.forEach((name, stats) -> lines.add(row(name, stats,
+                previous == null ? null : previous.path("operations").path(name))));
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    private static String row(String name, OperationStats stats, JsonNode previous) {
+        String change = "";
+        if (previous != null && previous.has("p99Millis") && previous.path("p99Millis").asDouble() > 0) {
+            double before = previous.path("p99Millis").asDouble();
+            change = String.format("%+.1f%%", (stats.getP99Millis() - before) / before * 100);
+        }
+        return String.format("%-12s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f  %s", name, stats.getCount(),
+                stats.getErrors(), stats.getP50Millis(), stats.getP90Millis(), stats.getP99Millis(),
+                stats.getP999Millis(), stats.getMaxMillis(), change);
+    }
+
+    /**
+     * Latency distribution and outcomes of one operation
+     */
+    static class OperationStats {
+
+        private final long count;
+        private final long errors;
+        private final Map<String, Long> statuses;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p90Millis;
+        private final double p99Millis;
+        private final double p999Millis;
+        private final double maxMillis;
+
+        OperationStats(long count, long errors, Map<String, Long> statuses, double meanMillis,
+                       double p50Millis, double p90Millis, double p99Millis, double p999Millis, double maxMillis) {
+            this.count = count;
+            this.errors = errors;
+            this.statuses = statuses;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p90Millis = p90Millis;
+            this.p99Millis = p99Millis;
+            this.p999Millis = p999Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return response count per HTTP status, or per exception name for failed calls
+         */
+        public Map<String, Long> getStatuses() {
+            return statuses;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP90Millis() {
+            return p90Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getP999Millis() {
+            return p999Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
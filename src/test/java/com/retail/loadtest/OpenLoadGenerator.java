@@ -0,0 +1,179 @@
+package com.retail.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests arrive as a Poisson process at the target rate whether or not
+ * earlier requests have completed, as they would from many independent clients. Latency is measured
+ * from each request's scheduled arrival, so time spent queued behind a slow server is counted
+ * rather than hidden by the generator slowing down.
+ *
+ * The arrival times, operations and items are drawn from a seeded random sequence, so two runs
+ * with the same settings offer the same traffic.
+ */
+class OpenLoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int CATEGORY_PAGES = 5;
+    private static final int CATEGORY_PAGE_SIZE = 20;
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final TrafficMix mix;
+    private final SeedData seed;
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+
+    OpenLoadGenerator(HttpClient httpClient, String baseUrl, TrafficMix mix, SeedData seed, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.seed = seed;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Offer traffic for the warm-up and then the measured duration
+     * @param rate arrivals per second
+     * @param warmup time before measuring starts
+     * @param duration measured time
+     * @param randomSeed seed of the arrival and operation sequence
+     * @return the report of the measured window
+     */
+    LoadReport run(double rate, Duration warmup, Duration duration, long randomSeed) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        Map<TrafficMix.Operation, LatencyRecorder> recorders = new EnumMap<>(TrafficMix.Operation.class);
+        for (TrafficMix.Operation operation : TrafficMix.Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        LatencyRecorder overall = new LatencyRecorder();
+        AtomicLong succeeded = new AtomicLong();
+        long offered = 0;
+        long dropped = 0;
+
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long arrival = start;
+        while (true) {
+            arrival += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+            if (arrival >= end) {
+                break;
+            }
+            TrafficMix.Operation operation = mix.pick(random);
+            HttpRequest request = request(operation, random);
+            boolean measured = arrival >= measureFrom;
+            if (measured) {
+                offered++;
+            }
+            long wait;
+            while ((wait = arrival - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    dropped++;
+                }
+                continue;
+            }
+
+            long scheduled = arrival;
+            inFlight.incrementAndGet();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long latencyMicros = (System.nanoTime() - scheduled) / 1000;
+                inFlight.decrementAndGet();
+                if (!measured) {
+                    return;
+                }
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                String status = cause != null ? cause.getClass().getSimpleName()
+                        : Integer.toString(response.statusCode());
+                boolean error = failure != null || response.statusCode() >= 400;
+                if (!error) {
+                    succeeded.incrementAndGet();
+                }
+                recorders.get(operation).record(latencyMicros, status, error);
+                overall.record(latencyMicros, status, error);
+            });
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        Map<String, LoadReport.OperationStats> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            LoadReport.OperationStats stats = recorder.summarize();
+            if (stats.getCount() > 0) {
+                operations.put(operation.key(), stats);
+            }
+        });
+        return new LoadReport(startedAt, rate, duration.toSeconds(), mix.describe(), seed.size(),
+                offered, dropped, succeeded.get() / (double) duration.toSeconds(), overall.summarize(), operations);
+    }
+
+    private HttpRequest request(TrafficMix.Operation operation, SplittableRandom random) {
+        int item = random.nextInt(seed.size());
+        return switch (operation) {
+            case GET_BY_ID -> get("/api/v1/retails/" + seed.id(item));
+            case GET_BY_NAME -> get("/api/v1/retails/product/" + encode(seed.name(item)));
+            case CATEGORY -> get("/api/v1/retails/category/" + encode(seed.category(item))
+                    + "?page=" + random.nextInt(CATEGORY_PAGES) + "&size=" + CATEGORY_PAGE_SIZE);
+            case CREATE -> send("POST", "/api/v1/retails", String.format(
+                    "{\"productName\":\"Load %s %d\",\"category\":\"%s\",\"price\":%s,\"quantity\":%d}",
+                    seed.runId(), created.incrementAndGet(), seed.category(item), price(random),
+                    random.nextInt(1, 500)));
+            case PATCH -> send("PATCH", "/api/v1/retails/" + seed.id(item),
+                    "{\"price\":" + price(random) + "}");
+            case STOCK -> send("POST", "/api/v1/retails/" + seed.id(item) + "/stock?delta="
+                    + random.nextInt(-2, 4), null);
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, json == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String price(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextInt(100, 100_000), 2).toPlainString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,132 @@
+package com.retail.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.event.RetailResyncEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the full application over HTTP with an open-model traffic mix and reports latency
+ * percentiles, throughput and error rates. Tagged {@code load-test} and excluded from the regular
+ * build; run it with {@code mvn -Pload-test test}, overriding any {@code loadtest.*} setting with
+ * {@code -D}, e.g. {@code -Dloadtest.rate=2000 -Dloadtest.duration=30s}.
+ *
+ * Each run is stored under {@code loadtest.results-dir} and compared with the previous run of the
+ * same rate and mix. Load shedding is off so the server's own capacity is measured rather than the
+ * configured rate limits.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "retail.load-shedding.enabled=false",
+        "logging.level.com.retail.profiler=ERROR"
+})
+@DisplayName("Retail API Load Test")
+class RetailLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RetailLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.rate:5000}")
+    private double rate;
+
+    @Value("${loadtest.warmup:10s}")
+    private Duration warmup;
+
+    @Value("${loadtest.duration:60s}")
+    private Duration duration;
+
+    @Value("${loadtest.mix:get-by-id:40,get-by-name:15,category:15,create:10,patch:10,stock:10}")
+    private String mix;
+
+    @Value("${loadtest.items:10000}")
+    private int items;
+
+    @Value("${loadtest.categories:50}")
+    private int categories;
+
+    @Value("${loadtest.max-in-flight:2000}")
+    private int maxInFlight;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.results-dir:load-test-results}")
+    private Path resultsDirectory;
+
+    @Value("${loadtest.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    /**
+     * Allowed growth of the overall p99 over the previous comparable run, e.g. 0.2 for 20%;
+     * negative to only report the change
+     */
+    @Value("${loadtest.max-p99-regression:-1}")
+    private double maxP99Regression;
+
+    @Test
+    @DisplayName("Should serve the traffic mix at the target rate within the error budget")
+    void testTrafficMix() throws Exception {
+        // Given
+        SeedData seedData = SeedData.insert(jdbcTemplate, items, categories);
+        eventPublisher.publishEvent(new RetailResyncEvent("load test seed data"));
+        ExecutorService responses = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(responses)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        OpenLoadGenerator generator = new OpenLoadGenerator(httpClient, "http://localhost:" + port,
+                TrafficMix.parse(mix), seedData, maxInFlight);
+
+        // When
+        LoadReport report;
+        try {
+            report = generator.run(rate, warmup, duration, seed);
+        } finally {
+            responses.shutdownNow();
+        }
+
+        // Then
+        JsonNode previous = report.findPrevious(resultsDirectory, objectMapper).orElse(null);
+        Path saved = report.save(resultsDirectory, objectMapper);
+        log.info("{}{}Stored in {}", report.format(previous), System.lineSeparator(), saved.toAbsolutePath());
+
+        assertTrue(report.getErrorRate() <= maxErrorRate,
+                String.format("Error rate %.3f%% is over the %.3f%% budget",
+                        report.getErrorRate() * 100, maxErrorRate * 100));
+        if (maxP99Regression >= 0 && previous != null) {
+            double before = previous.path("overall").path("p99Millis").asDouble();
+            assertTrue(report.getOverall().getP99Millis() <= before * (1 + maxP99Regression),
+                    String.format("p99 went from %.2f ms to %.2f ms", before, report.getOverall().getP99Millis()));
+        }
+    }
+}
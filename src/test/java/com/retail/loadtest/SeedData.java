@@ -0,0 +1,84 @@
+package com.retail.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Items inserted into the database before a run, which the generated traffic reads and updates
+ */
+class SeedData {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final String runId;
+    private final long[] ids;
+    private final String[] names;
+    private final String[] categories;
+
+    private SeedData(String runId, long[] ids, String[] names, String[] categories) {
+        this.runId = runId;
+        this.ids = ids;
+        this.names = names;
+        this.categories = categories;
+    }
+
+    /**
+     * Insert items spread evenly over the given number of categories
+     * @param jdbcTemplate template on the application data source
+     * @param items the number of items
+     * @param categoryCount the number of categories
+     * @return the inserted items
+     */
+    static SeedData insert(JdbcTemplate jdbcTemplate, int items, int categoryCount) {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < items; i++) {
+            batch.add(new Object[]{String.format("Seed %s %06d", runId, i), "category-" + (i % categoryCount),
+                    BigDecimal.valueOf(100 + i % 10_000, 2), 10_000, now});
+            if (batch.size() == INSERT_BATCH_SIZE || i == items - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO retails (product_name, category, price, quantity, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+
+        long[] ids = new long[items];
+        String[] names = new String[items];
+        String[] categories = new String[items];
+        int[] index = new int[1];
+        jdbcTemplate.query("SELECT id, product_name, category FROM retails WHERE product_name LIKE ? ORDER BY id",
+                rs -> {
+                    ids[index[0]] = rs.getLong(1);
+                    names[index[0]] = rs.getString(2);
+                    categories[index[0]] = rs.getString(3);
+                    index[0]++;
+                }, "Seed " + runId + " %");
+        return new SeedData(runId, ids, names, categories);
+    }
+
+    String runId() {
+        return runId;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int item) {
+        return ids[item];
+    }
+
+    String name(int item) {
+        return names[item];
+    }
+
+    String category(int item) {
+        return categories[item];
+    }
+}
@@ -0,0 +1,102 @@
+package com.retail.loadtest;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted mix of API operations, parsed from {@code loadtest.mix}, e.g.
+ * {@code get-by-id:40,get-by-name:15,category:15,create:10,patch:10,stock:10}
+ */
+class TrafficMix {
+
+    enum Operation {
+        GET_BY_ID("get-by-id"),
+        GET_BY_NAME("get-by-name"),
+        CATEGORY("category"),
+        CREATE("create"),
+        PATCH("patch"),
+        STOCK("stock");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown load test operation: " + key);
+        }
+    }
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+    private final int total;
+
+    private TrafficMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+        this.total = sum;
+    }
+
+    static TrafficMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like operation:weight, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must be >= 0");
+            }
+            if (weight > 0) {
+                weights.merge(Operation.of(parts[0].trim().toLowerCase(Locale.ROOT)), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The traffic mix needs at least one operation with a weight");
+        }
+        return new TrafficMix(weights);
+    }
+
+    Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (ticket < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * @return the mix in canonical form, used to decide whether two runs are comparable
+     */
+    String describe() {
+        Map<String, Integer> byKey = new LinkedHashMap<>();
+        weights.forEach((operation, weight) -> byKey.put(operation.key(), weight));
+        StringBuilder description = new StringBuilder();
+        byKey.forEach((key, weight) -> description.append(description.isEmpty() ? "" : ",")
+                .append(key).append(':').append(weight));
+        return description.toString();
+    }
+}
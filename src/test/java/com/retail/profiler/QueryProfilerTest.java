@@ -0,0 +1,165 @@
+package com.retail.profiler;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+@DisplayName("QueryProfiler Unit Tests")
+class QueryProfilerTest {
+
+    private ProfilerProperties properties;
+    private JdbcTemplate jdbcTemplate;
+    private QueryProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ProfilerProperties();
+        properties.setSlowThreshold(Duration.ofHours(1));
+        properties.setNPlusOneThreshold(3);
+        profiler = newProfiler();
+    }
+
+    private QueryProfiler newProfiler() {
+        JdbcDataSource target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:profiler-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        QueryProfiler queryProfiler = new QueryProfiler(properties);
+        jdbcTemplate = new JdbcTemplate(new ProfilingDataSource(target, queryProfiler));
+        jdbcTemplate.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, category VARCHAR(50))");
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, category) VALUES (?, ?)", List.of(
+                new Object[]{1L, "toys"}, new Object[]{2L, "toys"}, new Object[]{3L, "books"}));
+        queryProfiler.reset();
+        return queryProfiler;
+    }
+
+    @Test
+    @DisplayName("Should group executions by shape and count rows read and affected")
+    void testFindShapes_CountsAndRows() {
+        // When
+        jdbcTemplate.queryForList("SELECT id FROM items WHERE category = ?", Long.class, "toys");
+        jdbcTemplate.queryForList("SELECT id FROM items WHERE category = ?", Long.class, "books");
+        jdbcTemplate.queryForList("SELECT id FROM items WHERE category = 'garden'", Long.class);
+        jdbcTemplate.update("UPDATE items SET category = ? WHERE category = ?", "games", "toys");
+
+        // Then
+        List<QueryShapeStats> shapes = profiler.findShapes(10);
+        // Literals are not part of the shape, so the inlined query counts with the prepared ones
+        assertEquals(2, shapes.size());
+        QueryShapeStats select = shape(shapes, "SELECT id FROM items WHERE category = ?");
+        assertEquals(3, select.getCount());
+        assertEquals(3, select.getRows());
+        assertEquals(0, select.getErrors());
+        assertTrue(select.getMaxMillis() <= select.getTotalMillis());
+        assertEquals(2, shape(shapes, "UPDATE items SET category = ? WHERE category = ?").getRows());
+    }
+
+    @Test
+    @DisplayName("Should copy executions over the threshold into the slow log without their values")
+    void testSlowLog() {
+        // Given
+        properties.setSlowThreshold(Duration.ZERO);
+        properties.setSlowLogSize(2);
+        profiler = newProfiler();
+
+        // When
+        try (QueryProfiler.Scope ignored = profiler.openScope("GET /api/v1/retails")) {
+            jdbcTemplate.queryForList("SELECT id FROM items WHERE id IN (1, 2, 3)", Long.class);
+        }
+        jdbcTemplate.queryForObject("SELECT category FROM items WHERE id = ?", String.class, 1L);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE category = 'secret'", Long.class);
+
+        // Then: the oldest entry was overwritten
+        List<SlowQuery> slow = profiler.findSlowQueries(10);
+        assertEquals(2, slow.size());
+        assertEquals("SELECT COUNT(*) FROM items WHERE category = ?", slow.get(0).getShape());
+        assertEquals("SELECT category FROM items WHERE id = ?", slow.get(1).getShape());
+        assertEquals(1, slow.get(1).getRows());
+        assertNull(slow.get(1).getRequest());
+        assertEquals(Thread.currentThread().getName(), slow.get(1).getThread());
+    }
+
+    @Test
+    @DisplayName("Should log at most one slow query per second but keep all of them in the slow log")
+    void testSlowLog_WarningsRateLimited(CapturedOutput output) {
+        // Given
+        properties.setSlowThreshold(Duration.ZERO);
+        profiler = newProfiler();
+
+        // When
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.queryForObject("SELECT category FROM items WHERE id = ?", String.class, id % 3 + 1);
+        }
+
+        // Then: only the first statement run while setting up the table was logged
+        assertEquals(5, profiler.findSlowQueries(10).size());
+        assertEquals(1, output.getOut().split("Slow query took", -1).length - 1);
+    }
+
+    @Test
+    @DisplayName("Should report a SELECT shape repeated within one scope as an N+1 incident")
+    void testNPlusOne() {
+        // When
+        try (QueryProfiler.Scope ignored = profiler.openScope("GET /api/v1/retails")) {
+            for (long id : jdbcTemplate.queryForList("SELECT id FROM items", Long.class)) {
+                jdbcTemplate.queryForObject("SELECT category FROM items WHERE id = ?", String.class, id);
+            }
+        }
+        try (QueryProfiler.Scope ignored = profiler.openScope("GET /api/v1/retails/1")) {
+            jdbcTemplate.queryForObject("SELECT category FROM items WHERE id = ?", String.class, 1L);
+            jdbcTemplate.update("UPDATE items SET category = ? WHERE id = ?", "games", 1L);
+        }
+        // Outside a scope repetitions are not attributed to anything
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.queryForObject("SELECT category FROM items WHERE id = ?", String.class, 2L);
+        }
+
+        // Then
+        List<NPlusOneIncident> incidents = profiler.findNPlusOneIncidents(10);
+        assertEquals(1, incidents.size());
+        assertEquals("SELECT category FROM items WHERE id = ?", incidents.get(0).getShape());
+        assertEquals(3, incidents.get(0).getExecutions());
+        assertEquals("GET /api/v1/retails", incidents.get(0).getRequest());
+        assertEquals(1, shape(profiler.findShapes(10), "SELECT category FROM items WHERE id = ?")
+                .getNPlusOneIncidents());
+    }
+
+    @Test
+    @DisplayName("Should count failed statements and discard everything on reset")
+    void testErrorsAndReset() {
+        // When
+        assertThrows(Exception.class, () -> jdbcTemplate.queryForList("SELECT missing FROM items"));
+
+        // Then
+        QueryShapeStats failed = profiler.findShapes(10).get(0);
+        assertEquals("SELECT missing FROM items", failed.getShape());
+        assertEquals(1, failed.getErrors());
+
+        profiler.reset();
+        assertTrue(profiler.findShapes(10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> profiler.findShapes(0));
+    }
+
+    @Test
+    @DisplayName("Should normalize literals, IN lists and whitespace")
+    void testNormalize() {
+        assertEquals("select * from t where a = ? and b = ? and c in (?...)",
+                QueryShapes.normalize("select *\n  from t where a = 'it''s' and b = 4.5 and c in (1, 2,3)"));
+        assertEquals("select c1 from t1 where id = ?", QueryShapes.normalize("select c1 from t1 where id = ?"));
+        assertEquals("insert into t (a, b) values (?, ?)",
+                QueryShapes.normalize("insert into t (a, b) values (?, ?)"));
+    }
+
+    private static QueryShapeStats shape(List<QueryShapeStats> shapes, String shape) {
+        return shapes.stream().filter(s -> s.getShape().equals(shape)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.retail.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Rate limiting and load shedding Unit Tests")
+class LoadSheddingTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("Should allow a full burst, then refill at the configured rate")
+    void testTokenBucket_BurstThenRefill() {
+        TokenBucket bucket = new TokenBucket(10, 5, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(), "permit " + i);
+        }
+        assertFalse(bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.nanosUntilAvailable());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should report a bucket as full once it has been idle long enough")
+    void testTokenBucket_IsFull() {
+        TokenBucket bucket = new TokenBucket(10, 2, now::get);
+        bucket.tryAcquire();
+        assertFalse(bucket.isFull());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(bucket.isFull());
+    }
+
+    @Test
+    @DisplayName("Should track separate buckets per client and endpoint class")
+    void testClientRateLimiters_SeparateBuckets() {
+        LoadSheddingProperties properties = new LoadSheddingProperties();
+        properties.setWrite(new LoadSheddingProperties.Bucket(1, 1));
+        ClientRateLimiters limiters = new ClientRateLimiters(properties, now::get);
+
+        assertTrue(limiters.bucketFor("a", EndpointClass.WRITE).tryAcquire());
+        assertFalse(limiters.bucketFor("a", EndpointClass.WRITE).tryAcquire());
+        assertTrue(limiters.bucketFor("b", EndpointClass.WRITE).tryAcquire());
+        assertTrue(limiters.bucketFor("a", EndpointClass.READ).tryAcquire());
+        assertEquals(3, limiters.size());
+    }
+
+    @Test
+    @DisplayName("Should keep at most max-tracked-clients buckets, dropping refilled ones first")
+    void testClientRateLimiters_Bounded() {
+        LoadSheddingProperties properties = new LoadSheddingProperties();
+        properties.setMaxTrackedClients(2);
+        properties.setWrite(new LoadSheddingProperties.Bucket(1, 1));
+        ClientRateLimiters limiters = new ClientRateLimiters(properties, now::get);
+
+        // "a" has used its permit, "b" is still full
+        assertTrue(limiters.bucketFor("a", EndpointClass.WRITE).tryAcquire());
+        TokenBucket idle = limiters.bucketFor("b", EndpointClass.WRITE);
+        limiters.bucketFor("c", EndpointClass.WRITE);
+
+        assertEquals(2, limiters.size());
+        assertFalse(limiters.bucketFor("a", EndpointClass.WRITE).tryAcquire());
+        assertNotSame(idle, limiters.bucketFor("b", EndpointClass.WRITE));
+
+        // With no refilled bucket left, some other bucket makes room
+        limiters.bucketFor("b", EndpointClass.WRITE).tryAcquire();
+        limiters.bucketFor("c", EndpointClass.WRITE).tryAcquire();
+        assertTrue(limiters.bucketFor("d", EndpointClass.WRITE).tryAcquire());
+        assertEquals(2, limiters.size());
+    }
+
+    @Test
+    @DisplayName("Should only trust configured API keys and fall back to the remote address")
+    void testClientIdentityResolver() {
+        ClientIdentityResolver resolver = new ClientIdentityResolver("X-API-Key", List.of("mobile-1", " "));
+        MockHttpServletRequest known = new MockHttpServletRequest();
+        known.addHeader("X-API-Key", "mobile-1");
+        MockHttpServletRequest unknown = new MockHttpServletRequest();
+        unknown.addHeader("X-API-Key", "made-up-" + System.nanoTime());
+        unknown.setRemoteAddr("10.0.0.7");
+
+        assertEquals("key:mobile-1", resolver.resolve(known));
+        assertEquals("ip:10.0.0.7", resolver.resolve(unknown));
+        assertEquals("ip:127.0.0.1", resolver.resolve(new MockHttpServletRequest()));
+    }
+
+    @Test
+    @DisplayName("Should reject requests beyond the concurrency limit")
+    void testConcurrencyLimiter_RejectsAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, now::get);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(1_000_000, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency is stable and back off when it inflates")
+    void testConcurrencyLimiter_Adapts() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 100, 2.0, now::get);
+
+        for (int i = 0; i < 500; i++) {
+            fillAndRelease(limiter, 1_000_000);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit should grow, was " + grown);
+
+        for (int i = 0; i < 50; i++) {
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+            fillAndRelease(limiter, 50_000_000);
+        }
+        assertTrue(limiter.getLimit() < grown, "limit should shrink, was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 5);
+    }
+
+    private static void fillAndRelease(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.retail.service;
 
+import com.retail.cache.RetailCache;
 import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
 import com.retail.exception.ResourceAlreadyExistsException;
 import com.retail.exception.ResourceNotFoundException;
+import com.retail.index.CategoryIndex;
+import com.retail.index.SortedLongSet;
 import com.retail.repository.RetailRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,7 +26,11 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +40,15 @@ class RetailServiceTest {
     @Mock
     private RetailRepository retailRepository;
 
+    @Mock
+    private CategoryIndex categoryIndex;
+
+    @Mock
+    private RetailCache retailCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RetailService retailService;
 
@@ -348,7 +367,224 @@ class RetailServiceTest {
         assertFalse(result);
         verify(retailRepository, times(1)).existsById(999L);
     }
-}
 
+    @Test
+    @DisplayName("Should serve category listing from the category index when it is ready")
+    void testGetRetailsByCategory_FromIndex() {
+        // Given
+        when(categoryIndex.isReady()).thenReturn(true);
+        when(categoryIndex.idsFor("electronics")).thenReturn(SortedLongSet.of(2L, 1L));
+        when(retailRepository.findAllById(List.of(1L, 2L))).thenReturn(Arrays.asList(retail2, retail));
+
+        // When
+        List<Retail> result = retailService.getRetailsByCategory("electronics");
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(2L, result.get(1).getId());
+        verify(retailRepository, never()).findByCategoryIgnoreCase(anyString());
+    }
+
+    @Test
+    @DisplayName("Should page category listing using the category index")
+    void testGetRetailsByCategory_Paged() {
+        // Given
+        when(categoryIndex.isReady()).thenReturn(true);
+        when(categoryIndex.idsFor("Electronics")).thenReturn(SortedLongSet.of(1L, 2L, 3L));
+        when(retailRepository.findAllById(List.of(2L))).thenReturn(List.of(retail2));
+
+        // When
+        List<Retail> result = retailService.getRetailsByCategory("Electronics", 1, 1);
+        List<Retail> beyondEnd = retailService.getRetailsByCategory("Electronics", 5, 1);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Smartphone", result.get(0).getProductName());
+        assertTrue(beyondEnd.isEmpty());
+        verify(retailRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid category page parameters")
+    void testGetRetailsByCategory_InvalidPage_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> retailService.getRetailsByCategory("Electronics", -1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> retailService.getRetailsByCategory("Electronics", 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should count category members from the category index")
+    void testCountRetailsByCategory_FromIndex() {
+        // Given
+        when(categoryIndex.isReady()).thenReturn(true);
+        when(categoryIndex.count("Electronics")).thenReturn(2);
+
+        // When
+        long result = retailService.countRetailsByCategory("Electronics");
+
+        // Then
+        assertEquals(2, result);
+        verifyNoInteractions(retailRepository);
+    }
+
+    @Test
+    @DisplayName("Should publish a change event carrying the previous category on update")
+    void testUpdateRetail_PublishesChangeEvent() {
+        // Given
+        Retail updatedRetail = new Retail("Laptop", "Computers", new BigDecimal("899.99"), 8);
+
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail));
+        when(retailRepository.save(any(Retail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        retailService.updateRetail(1L, updatedRetail);
+
+        // Then
+        ArgumentCaptor<RetailChangeEvent> captor = ArgumentCaptor.forClass(RetailChangeEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        RetailChangeEvent event = captor.getValue();
+        assertEquals(RetailChangeEvent.Type.UPDATED, event.getType());
+        assertEquals("Electronics", event.getBefore().getCategory());
+        assertEquals("Computers", event.getAfter().getCategory());
+    }
+
+    @Test
+    @DisplayName("Should check product name uniqueness when patching the product name")
+    void testPatchRetail_ProductNameExists_ThrowsException() {
+        // Given
+        Retail patch = new Retail();
+        patch.setProductName("Smartphone");
+
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail));
+        when(retailRepository.existsByProductNameIgnoreCase("Smartphone")).thenReturn(true);
+
+        // When & Then
+        assertThrows(ResourceAlreadyExistsException.class, () -> retailService.patchRetail(1L, patch));
+        assertEquals("Laptop", retail.getProductName());
+        verify(retailRepository, never()).save(any(Retail.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should patch only the supplied fields")
+    void testPatchRetail_Success() {
+        // Given
+        Retail patch = new Retail();
+        patch.setQuantity(3);
+
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail));
+        when(retailRepository.save(any(Retail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Retail result = retailService.patchRetail(1L, patch);
+
+        // Then
+        assertEquals("Laptop", result.getProductName());
+        assertEquals(new BigDecimal("999.99"), result.getPrice());
+        assertEquals(3, result.getQuantity());
+        verify(retailRepository, never()).existsByProductNameIgnoreCase(anyString());
+    }
+
+    @Test
+    @DisplayName("Should answer ID lookups from the cache without touching the repository")
+    void testGetRetailById_CacheHit() {
+        // Given
+        when(retailCache.get(1L)).thenReturn(Optional.of(retail));
+
+        // When
+        Retail result = retailService.getRetailById(1L);
 
+        // Then
+        assertEquals("Laptop", result.getProductName());
+        verifyNoInteractions(retailRepository);
+    }
 
+    @Test
+    @DisplayName("Should populate the cache with the load token taken before the read")
+    void testGetRetailById_CacheMiss_PopulatesCache() {
+        // Given
+        when(retailCache.get(1L)).thenReturn(Optional.empty());
+        when(retailCache.loadToken()).thenReturn(42L);
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail));
+
+        // When
+        retailService.getRetailById(1L);
+
+        // Then
+        verify(retailCache, times(1)).put(retail, 42L);
+    }
+
+    @Test
+    @DisplayName("Should load the managed entity for updates even when the item is cached")
+    void testUpdateRetail_BypassesCache() {
+        // Given
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail));
+        when(retailRepository.save(any(Retail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        retailService.updateRetail(1L, new Retail("Laptop", "Electronics", new BigDecimal("1.00"), 1));
+
+        // Then
+        verify(retailCache, never()).get(anyLong());
+        verify(retailRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Should adjust stock with a conditional update and publish the new quantity")
+    void testAdjustStock_Success() {
+        // Given
+        Retail adjusted = new Retail("Laptop", "Electronics", new BigDecimal("999.99"), 7);
+        adjusted.setId(1L);
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail), Optional.of(adjusted));
+        when(retailRepository.adjustQuantity(eq(1L), eq(-3), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        Retail result = retailService.adjustStock(1L, -3);
+
+        // Then
+        assertEquals(7, result.getQuantity());
+        ArgumentCaptor<RetailChangeEvent> eventCaptor = ArgumentCaptor.forClass(RetailChangeEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertEquals(10, eventCaptor.getValue().getBefore().getQuantity());
+        assertEquals(7, eventCaptor.getValue().getAfter().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should reject a stock adjustment that would make the quantity negative")
+    void testAdjustStock_Insufficient_ThrowsException() {
+        // Given
+        when(retailRepository.findById(1L)).thenReturn(Optional.of(retail));
+        when(retailRepository.adjustQuantity(eq(1L), eq(-11), any(LocalDateTime.class))).thenReturn(0);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> retailService.adjustStock(1L, -11));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when adjusting stock of a missing retail item")
+    void testAdjustStock_NotFound_ThrowsException() {
+        // Given
+        when(retailRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> retailService.adjustStock(99L, 1));
+        verify(retailRepository, never()).adjustQuantity(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should batch-get retail items, skipping duplicates and missing IDs")
+    void testGetRetailsByIds() {
+        // Given
+        when(retailCache.get(anyLong())).thenReturn(Optional.empty());
+        when(retailRepository.findAllById(List.of(2L, 1L, 3L))).thenReturn(List.of(retail, retail2));
+
+        // When
+        List<Retail> result = retailService.getRetailsByIds(List.of(2L, 1L, 2L, 3L));
+
+        // Then
+        assertEquals(List.of(1L, 2L), result.stream().map(Retail::getId).toList());
+    }
+}
@@ -0,0 +1,225 @@
+package com.retail.shard;
+
+import com.retail.entity.Retail;
+import com.retail.exception.ResourceAlreadyExistsException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardedRetailRepository Unit Tests")
+class ShardedRetailRepositoryTest {
+
+    private static final int BUCKETS = 8;
+
+    private String suffix;
+    private DataSource directoryDataSource;
+    private ShardDirectory directory;
+    private ShardRouter router;
+    private ShardedRetailRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        suffix = Long.toString(System.nanoTime());
+        directoryDataSource = database("directory");
+        directory = new ShardDirectory(directoryDataSource);
+        router = newRouter("shard-a", "shard-b", "shard-c");
+        repository = new ShardedRetailRepository(router, directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    @Test
+    @DisplayName("Should spread new items over the shards and read them back by ID and name")
+    void testSaveAndFind() {
+        // When
+        List<Retail> saved = IntStream.range(0, 30).mapToObj(i -> repository.save(retail("Item " + i, "Toys"))).toList();
+
+        // Then
+        assertEquals(30, repository.count());
+        Retail first = saved.get(0);
+        assertEquals("Item 0", repository.findById(first.getId()).orElseThrow().getProductName());
+        assertEquals(first.getId(), repository.findByProductNameIgnoreCase("ITEM 0").orElseThrow().getId());
+        assertNotNull(first.getCreatedAt());
+        long shardsUsed = router.getShardNames().stream().filter(shard -> router.rowCount(shard) > 0).count();
+        assertEquals(3, shardsUsed);
+    }
+
+    @Test
+    @DisplayName("Should keep product names unique across shards, including after a rename")
+    void testGlobalNameUniqueness() {
+        // Given
+        Retail laptop = repository.save(retail("Laptop", "Electronics"));
+        repository.save(retail("Tablet", "Electronics"));
+
+        // When & Then
+        assertThrows(ResourceAlreadyExistsException.class, () -> repository.save(retail("LAPTOP", "Other")));
+
+        laptop.setProductName("Tablet");
+        assertThrows(ResourceAlreadyExistsException.class, () -> repository.save(laptop));
+
+        laptop.setProductName("Notebook");
+        repository.save(laptop);
+        assertFalse(repository.existsByProductNameIgnoreCase("laptop"));
+        assertTrue(repository.existsByProductNameIgnoreCase("notebook"));
+        repository.save(retail("Laptop", "Electronics"));
+    }
+
+    @Test
+    @DisplayName("Should scatter-gather category and keyset queries in ID order")
+    void testScatterGather() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            repository.save(retail("Item " + i, i % 2 == 0 ? "Toys" : "Books"));
+        }
+
+        // When
+        List<Retail> toys = repository.findByCategoryIgnoreCase("TOYS");
+        List<Retail> firstPage = repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 7));
+        List<Retail> secondPage = repository.findByIdGreaterThanOrderByIdAsc(
+                firstPage.get(firstPage.size() - 1).getId(), PageRequest.of(0, 7));
+
+        // Then
+        assertEquals(10, toys.size());
+        assertEquals(7, firstPage.size());
+        assertEquals(7, secondPage.size());
+        assertTrue(firstPage.get(6).getId() < secondPage.get(0).getId());
+        List<Long> allIds = repository.findAll().stream().map(Retail::getId).toList();
+        assertEquals(allIds.subList(0, 14), Stream.concat(firstPage.stream(), secondPage.stream())
+                .map(Retail::getId).toList());
+        assertEquals(20, repository.findAllCategoryEntries().size());
+        assertEquals(2, repository.findAllById(List.of(allIds.get(3), allIds.get(11), -1L)).size());
+    }
+
+    @Test
+    @DisplayName("Should keep every item readable while buckets move to a new shard")
+    void testRebalanceOntoNewShard() {
+        // Given
+        List<Retail> saved = IntStream.range(0, 40).mapToObj(i -> repository.save(retail("Item " + i, "Toys"))).toList();
+        router.close();
+        router = newRouter("shard-a", "shard-b", "shard-c", "shard-d");
+        repository = new ShardedRetailRepository(router, directory);
+        ShardRebalancer rebalancer = new ShardRebalancer(router);
+
+        // When
+        List<ShardRebalancer.BucketMove> moves = rebalancer.rebalance();
+
+        // Then
+        assertEquals(2, moves.size());
+        rebalancer.status().forEach(status -> assertEquals(2, status.getBuckets().size()));
+        assertEquals(40, repository.count());
+        assertEquals(40, router.getShardNames().stream().mapToLong(router::rowCount).sum());
+        saved.forEach(retail -> assertTrue(repository.findById(retail.getId()).isPresent()));
+        assertTrue(router.rowCount("shard-d") > 0);
+    }
+
+    @Test
+    @DisplayName("Should roll back shard and directory writes with the surrounding transaction")
+    void testTransactionRollback() {
+        // Given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(directoryDataSource));
+        Retail kept = repository.save(retail("Kept", "Toys"));
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.save(retail("Discarded", "Toys"));
+            kept.setQuantity(99);
+            repository.save(kept);
+            assertEquals(99, repository.findById(kept.getId()).orElseThrow().getQuantity());
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertEquals(1, repository.count());
+        assertFalse(repository.existsByProductNameIgnoreCase("Discarded"));
+        assertEquals(5, repository.findById(kept.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should apply stock deltas on the owning shard without going negative")
+    void testAdjustQuantity() {
+        // Given
+        Retail retail = repository.save(retail("Laptop", "Electronics"));
+
+        // When & Then
+        assertEquals(1, repository.adjustQuantity(retail.getId(), -5, LocalDateTime.now()));
+        assertEquals(0, repository.adjustQuantity(retail.getId(), -1, LocalDateTime.now()));
+        assertEquals(0, repository.findById(retail.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Should sort and page findAll across shards as if the items were in one table")
+    void testFindAllSortedAndPaged() {
+        // Given
+        for (int i = 0; i < 25; i++) {
+            Retail retail = retail("Item " + (char) ('a' + i), i % 3 == 0 ? "Toys" : "Books");
+            retail.setQuantity(i % 5);
+            repository.save(retail);
+        }
+        Sort sort = Sort.by(Sort.Order.desc("quantity"), Sort.Order.asc("productName"));
+        List<Long> expected = repository.findAll().stream()
+                .sorted(Comparator.comparing(Retail::getQuantity).reversed()
+                        .thenComparing(Retail::getProductName))
+                .map(Retail::getId)
+                .toList();
+
+        // When
+        List<Retail> sorted = repository.findAll(sort);
+        Page<Retail> thirdPage = repository.findAll(PageRequest.of(2, 7, sort));
+        Page<Retail> unsorted = repository.findAll(PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(expected, ids(sorted));
+        assertEquals(expected.subList(14, 21), ids(thirdPage.getContent()));
+        assertEquals(25, thirdPage.getTotalElements());
+        assertEquals(4, thirdPage.getTotalPages());
+        assertEquals(ids(repository.findAll()).subList(0, 10), ids(unsorted.getContent()));
+        assertThrows(IllegalArgumentException.class, () -> repository.findAll(Sort.by("missing")));
+    }
+
+    private ShardRouter newRouter(String... shardNames) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (String name : shardNames) {
+            shards.put(name, database(name));
+        }
+        ShardRouter shardRouter = new ShardRouter(shards, directory, BUCKETS, 4);
+        shardRouter.initialize();
+        return shardRouter;
+    }
+
+    private DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + suffix + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static List<Long> ids(List<Retail> retails) {
+        return retails.stream().map(Retail::getId).toList();
+    }
+
+    private static Retail retail(String productName, String category) {
+        return new Retail(productName, category, new BigDecimal("10.00"), 5);
+    }
+}
@@ -0,0 +1,173 @@
+package com.retail.snapshot;
+
+import com.retail.entity.Retail;
+import com.retail.event.RetailChangeEvent;
+import com.retail.event.RetailState;
+import com.retail.index.CategoryIndex;
+import com.retail.repository.RetailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("OffHeapCatalog Unit Tests")
+class OffHeapCatalogTest {
+
+    private OffHeapCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new OffHeapCatalog(new SnapshotBuffers(null), 2, 16);
+    }
+
+    @Test
+    @DisplayName("Should round-trip every field through the off-heap columns")
+    void testUpsert_RoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456789);
+        RetailState state = new RetailState(7L, "Laptop", "Electronics", new BigDecimal("999.99"), 10,
+                "Ünïcode description", createdAt, null);
+
+        catalog.upsert(state);
+        Retail result = catalog.get(7L);
+
+        assertEquals(7L, result.getId());
+        assertEquals("Laptop", result.getProductName());
+        assertEquals("Electronics", result.getCategory());
+        assertEquals(new BigDecimal("999.99"), result.getPrice());
+        assertEquals(10, result.getQuantity());
+        assertEquals("Ünïcode description", result.getDescription());
+        assertEquals(createdAt, result.getCreatedAt());
+        assertNull(result.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Should grow past the initial capacity and keep results ordered by ID")
+    void testUpsert_GrowsAndOrders() {
+        for (long id = 100; id > 0; id--) {
+            catalog.upsert(state(id, "Product " + id, "Category " + (id % 3)));
+        }
+
+        List<Retail> all = catalog.getAll();
+        assertEquals(100, all.size());
+        assertEquals(1L, all.get(0).getId());
+        assertEquals(100L, all.get(99).getId());
+        assertEquals("Category 1", catalog.get(1L).getCategory());
+    }
+
+    @Test
+    @DisplayName("Should follow renames in product name lookups")
+    void testGetByProductName_AfterRename() {
+        catalog.upsert(state(1L, "Laptop", "Electronics"));
+        catalog.upsert(state(1L, "Gaming Laptop", "Electronics"));
+
+        assertNull(catalog.getByProductName("laptop"));
+        assertEquals(1L, catalog.getByProductName("GAMING LAPTOP").getId());
+    }
+
+    @Test
+    @DisplayName("Should reuse freed slots and drop deleted items")
+    void testRemove_ReusesSlot() {
+        catalog.upsert(state(1L, "A", "X"));
+        catalog.upsert(state(2L, "B", "X"));
+        catalog.remove(1L);
+        catalog.upsert(state(3L, "C", "Y"));
+
+        assertNull(catalog.get(1L));
+        assertNull(catalog.getByProductName("A"));
+        assertEquals(2, catalog.size());
+        assertEquals(List.of(3L, 2L), catalog.getAll(new long[]{3L, 1L, 2L}).stream().map(Retail::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should reclaim arena space when strings are rewritten repeatedly")
+    void testUpsert_CompactsArena() {
+        String longDescription = "x".repeat(4096);
+        for (int i = 0; i < 600; i++) {
+            catalog.upsert(new RetailState(1L, "Item", "X", BigDecimal.ONE, i, longDescription + i, null, null));
+        }
+
+        assertEquals(longDescription + 599, catalog.get(1L).getDescription());
+        assertTrue(catalog.arenaBytesInUse() < 8192);
+    }
+
+    @Test
+    @DisplayName("Should keep data across growth when backed by memory-mapped files")
+    void testMappedBuffers(@TempDir Path directory) {
+        OffHeapCatalog mapped = new OffHeapCatalog(new SnapshotBuffers(directory), 2, 16);
+        for (long id = 1; id <= 50; id++) {
+            mapped.upsert(state(id, "Product " + id, "Mapped"));
+        }
+
+        assertEquals("Product 42", mapped.get(42L).getProductName());
+        assertEquals(50, mapped.getAll().size());
+        mapped.clear();
+        assertEquals(0, mapped.size());
+    }
+
+    @Test
+    @DisplayName("Should build a reload in its own generation while the old one keeps serving and growing")
+    void testReload_WhileServing(@TempDir Path directory) throws Exception {
+        // Given: ten items loaded two at a time into memory-mapped files
+        RetailRepository repository = mock(RetailRepository.class);
+        List<Retail> items = LongStream.rangeClosed(1, 10)
+                .mapToObj(id -> retail(id, "Product " + id)).toList();
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long lastId = invocation.getArgument(0);
+            return items.stream().filter(item -> item.getId() > lastId).limit(2).toList();
+        });
+        CatalogSnapshot snapshot = new CatalogSnapshot(repository, mock(CategoryIndex.class), true,
+                directory.toString(), 2);
+        snapshot.load();
+
+        // When: during the reload the old generation answers reads and grows from concurrent creates
+        Thread writer = new Thread(() -> {
+            for (long id = 100; id < 140; id++) {
+                snapshot.onRetailChange(RetailChangeEvent.created(state(id, "Created " + id, "New")));
+            }
+        });
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            assertEquals("Product 3", snapshot.findById(3L).orElseThrow().getProductName());
+            writer.start();
+            return items.subList(0, 2);
+        });
+        snapshot.load();
+        writer.join(5000);
+
+        // Then
+        for (long id = 1; id <= 10; id++) {
+            assertEquals("Product " + id, snapshot.findById(id).orElseThrow().getProductName());
+        }
+        for (long id = 100; id < 140; id++) {
+            assertEquals("Created " + id, snapshot.findById(id).orElseThrow().getProductName());
+        }
+        try (Stream<Path> generations = Files.list(directory)) {
+            assertEquals(List.of("generation-2"), generations.map(path -> path.getFileName().toString()).toList());
+        }
+    }
+
+    private static RetailState state(Long id, String name, String category) {
+        return new RetailState(id, name, category, new BigDecimal("1.50"), 1, null, null, null);
+    }
+
+    private static Retail retail(Long id, String name) {
+        Retail retail = new Retail(name, "Loaded", new BigDecimal("1.50"), 1);
+        retail.setId(id);
+        return retail;
+    }
+}